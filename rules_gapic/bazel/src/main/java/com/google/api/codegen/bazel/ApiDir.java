@@ -25,8 +25,8 @@ class ApiDir {
 
   void parseYamlFile(String fileName, String fileBody) {
     // It is a service yaml
-    Matcher m = SERVICE_YAML_TYPE.matcher(fileBody);
-    if (m.find()) {
+    String yamlType = ApiVersionedDir.getYamlTypeLine(fileBody);
+    if (yamlType != null && SERVICE_YAML_TYPE.matcher(yamlType).find()) {
       Matcher subM = SERVICE_YAML_NAME_VERSION.matcher(fileName);
       String verKey = subM.find() ? subM.group("version") : "";
       serviceYamlPaths.put(verKey, fileName);
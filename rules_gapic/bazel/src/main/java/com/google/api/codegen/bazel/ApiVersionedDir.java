@@ -1,8 +1,9 @@
 package com.google.api.codegen.bazel;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -222,12 +223,16 @@ class ApiVersionedDir {
   }
 
   void parseYamlFile(String fileName, String fileBody) {
+    String yamlType = getYamlTypeLine(fileBody);
+    if (yamlType == null) {
+      return;
+    }
+
     // It is a gapic yaml
-    Matcher m = GAPIC_YAML_TYPE.matcher(fileBody);
-    if (m.find()) {
+    if (GAPIC_YAML_TYPE.matcher(yamlType).find()) {
       gapicYamlPath = fileName;
 
-      m = LANG_PACKAGES.matcher(fileBody);
+      Matcher m = LANG_PACKAGES.matcher(fileBody);
       while (m.find()) {
         String lang = m.group("lang");
         langGapicPackages.put(lang, m.group("package"));
@@ -246,8 +251,7 @@ class ApiVersionedDir {
     }
 
     // It is a service yaml
-    m = SERVICE_YAML_TYPE.matcher(fileBody);
-    if (m.find()) {
+    if (SERVICE_YAML_TYPE.matcher(yamlType).find()) {
       serviceYamlPath = fileName;
 
       if (fileBody.contains(CLOUD_AUTH_SCOPE)) {
@@ -256,64 +260,131 @@ class ApiVersionedDir {
     }
   }
 
+  // Returns the line of the top-level 'type' key of a yaml file, or null if it has none. Only the
+  // beginnings of the lines are looked at, up to the first line with the key.
+  static String getYamlTypeLine(String fileBody) {
+    int length = fileBody.length();
+    int lineStart = 0;
+    while (lineStart < length) {
+      int lineEnd = fileBody.indexOf('\n', lineStart);
+      if (lineEnd < 0) {
+        lineEnd = length;
+      }
+      if (fileBody.startsWith("type", lineStart) && lineStart + 4 < lineEnd) {
+        char next = fileBody.charAt(lineStart + 4);
+        if (next == ':' || Character.isWhitespace(next)) {
+          return fileBody.substring(lineStart, lineEnd);
+        }
+      }
+      lineStart = lineEnd + 1;
+    }
+    return null;
+  }
+
   void parseProtoFile(String fileName, String fileBody) {
     protos.add(fileName);
 
-    // Parse proto package
-    Matcher m = PROTO_PACKAGE.matcher(fileBody);
-    if (m.find() && (protoPackage == null || name == null || version == null)) {
-      protoPackage = m.group("protoPackage");
-      String[] tokens = protoPackage.split("\\.");
-      if (tokens.length >= 1 && name == null) {
-        name = tokens[tokens.length - 1];
-        assemblyName = name;
+    // Scan the file line by line instead of running every pattern over the whole file, since some
+    // protos are several megabytes large. Only the top-level lines starting with a keyword of
+    // interest are matched, so the options of nested definitions are ignored. A statement may span
+    // several lines, so it is matched up to the end of the line which terminates it.
+    boolean packageParsed = false;
+    int length = fileBody.length();
+    int lineStart = 0;
+    while (lineStart < length) {
+      int lineEnd = fileBody.indexOf('\n', lineStart);
+      if (lineEnd < 0) {
+        lineEnd = length;
       }
-      // Trying to figure out version of the versioned API in the most straightforward way,
-      // by looking into the versioned part of the package, which should be the last component
-      // of the package. Assuming that package must have at least 2 components (otherwise version
-      // would be the top-level name and probably mean something different).
-      if (tokens.length >= 2) {
-        String ver = tokens[tokens.length - 1];
-        // Count as "version" anything which is the last package component, starts with 'v'
-        // character and is followed by a number
-        if (ver.length() >= 2 && ver.startsWith("v") && Character.isDigit(ver.charAt(1))) {
-          version = ver;
-          name = tokens[tokens.length - 2];
-          assemblyName = name;
-          // In case if package has at least 3 components it might be a sub-api
-          // (like bigtable/admin). Include name of the top package (i.e. name of the parent
-          // api) to the assemblyName of this sub API.
-          if (tokens.length >= 3) {
-            String topPackage = tokens[tokens.length - 3];
-            if (!"google".equals(topPackage) && !"cloud".equals(topPackage)) {
-              assemblyName = topPackage + '-' + name;
-            }
+      char first = fileBody.charAt(lineStart);
+      if (first >= 'i' && first <= 's') {
+        if (fileBody.startsWith("service", lineStart)) {
+          Matcher m = SERVICE.matcher(statement(fileBody, lineStart));
+          if (m.find()) {
+            services.add(m.group("service"));
+          }
+        } else if (!packageParsed && fileBody.startsWith("package", lineStart)) {
+          packageParsed = parseProtoPackage(statement(fileBody, lineStart));
+        } else if (fileBody.startsWith("import", lineStart)) {
+          Matcher m = IMPORTS.matcher(statement(fileBody, lineStart));
+          if (m.find()) {
+            imports.add(m.group("import"));
           }
+        } else if (fileBody.startsWith("option", lineStart)) {
+          parseProtoOption(statement(fileBody, lineStart));
         }
       }
+      lineStart = lineEnd + 1;
     }
+  }
 
-    // Parse imports
-    m = IMPORTS.matcher(fileBody);
-    while (m.find()) {
-      imports.add(m.group("import"));
+  // Returns the statement starting at the given index, up to the end of the line on which it is
+  // terminated by a ';' or a '{'.
+  private static String statement(String fileBody, int start) {
+    int end = start;
+    while (end < fileBody.length()) {
+      char c = fileBody.charAt(end);
+      if (c == ';' || c == '{') {
+        break;
+      }
+      end++;
     }
+    end = fileBody.indexOf('\n', end);
+    return fileBody.substring(start, end < 0 ? fileBody.length() : end);
+  }
 
-    // Parse file-level options
-    m = PROTO_OPTIONS.matcher(fileBody);
-    while (m.find()) {
-      String optName = m.group("optName");
-      String optValue = m.group("optValue");
-      optName = optName.split("_")[0];
-      if (!langProtoPackages.containsKey(optName)) {
-        langProtoPackages.put(optName, optValue);
+  // Returns true if the statement is a package statement.
+  private boolean parseProtoPackage(String statement) {
+    Matcher m = PROTO_PACKAGE.matcher(statement);
+    if (!m.find()) {
+      return false;
+    }
+    if (protoPackage != null && name != null && version != null) {
+      return true;
+    }
+    protoPackage = m.group("protoPackage");
+    String[] tokens = protoPackage.split("\\.");
+    if (tokens.length >= 1 && name == null) {
+      name = tokens[tokens.length - 1];
+      assemblyName = name;
+    }
+    // Trying to figure out version of the versioned API in the most straightforward way,
+    // by looking into the versioned part of the package, which should be the last component
+    // of the package. Assuming that package must have at least 2 components (otherwise version
+    // would be the top-level name and probably mean something different).
+    if (tokens.length >= 2) {
+      String ver = tokens[tokens.length - 1];
+      // Count as "version" anything which is the last package component, starts with 'v'
+      // character and is followed by a number
+      if (ver.length() >= 2 && ver.startsWith("v") && Character.isDigit(ver.charAt(1))) {
+        version = ver;
+        name = tokens[tokens.length - 2];
+        assemblyName = name;
+        // In case if package has at least 3 components it might be a sub-api
+        // (like bigtable/admin). Include name of the top package (i.e. name of the parent
+        // api) to the assemblyName of this sub API.
+        if (tokens.length >= 3) {
+          String topPackage = tokens[tokens.length - 3];
+          if (!"google".equals(topPackage) && !"cloud".equals(topPackage)) {
+            assemblyName = topPackage + '-' + name;
+          }
+        }
       }
     }
+    return true;
+  }
 
-    // Parse declared service names
-    m = SERVICE.matcher(fileBody);
-    while (m.find()) {
-      services.add(m.group("service"));
+  // Parses a file-level option, like 'option java_package = "com.google.example.library.v1";'.
+  private void parseProtoOption(String statement) {
+    Matcher m = PROTO_OPTIONS.matcher(statement);
+    if (!m.find()) {
+      return;
+    }
+    String optName = m.group("optName");
+    String optValue = m.group("optValue");
+    optName = optName.split("_")[0];
+    if (!langProtoPackages.containsKey(optName)) {
+      langProtoPackages.put(optName, optValue);
     }
   }
 
@@ -325,21 +396,20 @@ class ApiVersionedDir {
 
   void parseBazelBuildFile(Path file) {
     try {
-      Buildozer buildozer = Buildozer.getInstance();
+      BazelBuildFile buildFile =
+          BazelBuildFile.parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
 
       // We cannot and we do not want to preserve all the content of the file.
       // We will let the user edit just the following:
       // - names of the final targets (*_gapic_assembly_*) because they are user-facing;
       // - extra protoc plugin parameters for *_gapic_library rules.
-      List<String> allRules = buildozer.execute(file, "print kind name", "*");
-      for (String rule : allRules) {
-        String[] split = rule.split(" ");
-        if (split.length != 2) {
+      for (BazelBuildFile.Rule rule : buildFile.getRules()) {
+        String kind = rule.getKind();
+        String name = rule.getName();
+        if (name == null) {
           // some rules e.g. package() don't have "name" attribute, just skip them
           continue;
         }
-        String kind = split[0];
-        String name = split[1];
         if (kind.contains("_gapic_assembly_")) {
           if (this.assemblyPkgRulesNames.containsKey(kind)) {
             // Duplicated rule of the same kind will break our logic for preserving rule name.
@@ -355,22 +425,20 @@ class ApiVersionedDir {
           this.overriddenStringAttributes.put(name, new HashMap<>());
           this.overriddenListAttributes.put(name, new HashMap<>());
           for (String attr : ApiVersionedDir.PRESERVED_PROTO_LIBRARY_STRING_ATTRIBUTES) {
-            String value = buildozer.getAttribute(file, name, attr);
+            String value = rule.getStringAttribute(attr);
             if (value != null) {
               this.overriddenStringAttributes.get(name).put(attr, value);
             }
           }
           for (String attr : ApiVersionedDir.PRESERVED_PROTO_LIBRARY_LIST_ATTRIBUTES) {
-            String value = buildozer.getAttribute(file, name, attr);
-            if (value != null && value.startsWith("[") && value.endsWith("]")) {
-              value = value.substring(1, value.length() - 1);
-              String[] values = value.split(" ");
-              this.overriddenListAttributes.get(name).put(attr, Arrays.asList(values));
+            List<String> values = rule.getListAttribute(attr);
+            if (values != null) {
+              this.overriddenListAttributes.get(name).put(attr, values);
             }
           }
         }
       }
-    } catch (IOException exception) {
+    } catch (IOException | IllegalArgumentException exception) {
       System.err.println(
           "Error parsing BUILD.bazel file in " + file.toString() + ": " + exception.toString());
     }
@@ -9,15 +9,39 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
+// The tree is walked on the calling thread, which only records the directories and their files.
+// Once a directory has been visited, its files are parsed (or its BUILD.bazel file is written) by a
+// task on the executor, if one is set. Each task only touches the ApiVersionedDir and ApiDir of its
+// own directory, and the parent ApiDir is read only after all the parsing tasks have completed.
+//
+// In the incremental mode (with a fingerprint cache), the reading pass only digests the input
+// files of each directory and parses its yaml files into its ApiDir. The writing pass then parses
+// and regenerates only the directories whose inputs, parent inputs or BUILD.bazel file differ from
+// the previous run.
 class ApisVisitor extends SimpleFileVisitor<Path> {
+  // Implementations must be thread-safe if the visitor runs with an executor.
   @FunctionalInterface
   interface FileWriter {
     void write(Path dest, String fileBody) throws IOException;
   }
 
+  @FunctionalInterface
+  private interface Task {
+    void run() throws IOException;
+  }
+
   private Map<String, ApiVersionedDir> bazelApiVerPackages = new TreeMap<>();
   private Map<String, ApiDir> bazelApiPackages = new TreeMap<>();
   private final BazelBuildFileTemplate gapicApiTempl;
@@ -28,6 +52,14 @@ class ApisVisitor extends SimpleFileVisitor<Path> {
   private final boolean overwrite;
   private boolean writerMode;
   private final FileWriter fileWriter;
+  private final int threads;
+  private final boolean verbose;
+  private ExecutorService executor;
+  private final Map<String, List<Path>> dirFiles = new HashMap<>();
+  private final List<Future<?>> pendingTasks = new ArrayList<>();
+  private final FingerprintCache cache;
+  private final Map<String, String> dirDigests = new ConcurrentHashMap<>();
+  private final AtomicInteger skippedDirs = new AtomicInteger();
 
   ApisVisitor(
       Path srcDir,
@@ -36,7 +68,11 @@ class ApisVisitor extends SimpleFileVisitor<Path> {
       String rootApiTempl,
       String rawApiTempl,
       boolean overwrite,
-      FileWriter fileWriter) {
+      FileWriter fileWriter,
+      int threads,
+      boolean verbose,
+      Path cacheFile)
+      throws IOException {
     this.gapicApiTempl = new BazelBuildFileTemplate(gapicApiTempl);
     this.rootApiTempl = new BazelBuildFileTemplate(rootApiTempl);
     this.rawApiTempl = new BazelBuildFileTemplate(rawApiTempl);
@@ -48,18 +84,42 @@ class ApisVisitor extends SimpleFileVisitor<Path> {
         (fileWriter != null)
             ? fileWriter
             : (dest, fileBody) -> Files.write(dest, fileBody.getBytes(StandardCharsets.UTF_8));
+    this.threads = threads;
+    this.verbose = verbose;
+    this.cache =
+        (cacheFile != null)
+            ? new FingerprintCache(
+                cacheFile,
+                FingerprintCache.fingerprint(
+                    gapicApiTempl,
+                    rootApiTempl,
+                    rawApiTempl,
+                    Boolean.toString(overwrite),
+                    this.destDir.toString()))
+            : null;
   }
 
   public Path getSrcDir() {
     return srcDir;
   }
 
+  public int getThreads() {
+    return threads;
+  }
+
+  // Sets the executor running the per-directory tasks; if null, they run on the walking thread.
+  public void setExecutor(ExecutorService executor) {
+    this.executor = executor;
+  }
+
   @Override
   public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
     if (writerMode) {
       return FileVisitResult.CONTINUE;
     }
-    System.out.println("Scan Directory: " + dir.toString());
+    if (verbose) {
+      System.out.println("Scan Directory: " + dir.toString());
+    }
 
     String dirStr = dir.toString();
 
@@ -71,6 +131,7 @@ class ApisVisitor extends SimpleFileVisitor<Path> {
     int parentDirIndex = dirStr.lastIndexOf(File.separator);
     String parentDirStr = dirStr.substring(0, parentDirIndex);
     bp.setParent(bazelApiPackages.get(parentDirStr));
+    dirFiles.put(dirStr, new ArrayList<>());
 
     return FileVisitResult.CONTINUE;
   }
@@ -81,14 +142,53 @@ class ApisVisitor extends SimpleFileVisitor<Path> {
       return FileVisitResult.CONTINUE;
     }
 
-    System.out.println("    Read File: " + file.toString());
+    List<Path> files = dirFiles.get(file.getParent().toString());
+    if (files != null) {
+      files.add(file);
+    }
+    return FileVisitResult.CONTINUE;
+  }
 
-    String packageLocation = file.getParent().toString();
-    ApiVersionedDir bp = bazelApiVerPackages.get(packageLocation);
-    ApiDir bap = bazelApiPackages.get(packageLocation);
+  private void parseFiles(ApiVersionedDir bp, ApiDir bap, List<Path> files) throws IOException {
+    for (Path file : files) {
+      parseFile(bp, bap, file);
+    }
+  }
 
-    if (bp == null || bap == null) {
-      return FileVisitResult.CONTINUE;
+  // Digests the input files of a directory, and parses its yaml files into its ApiDir only.
+  private void digestFiles(String dirStr, ApiDir bap, List<Path> files) throws IOException {
+    List<Path> sortedFiles = new ArrayList<>(files);
+    sortedFiles.sort(Comparator.comparing(Path::toString));
+    List<byte[]> parts = new ArrayList<>();
+    for (Path file : sortedFiles) {
+      String fileName = file.getFileName().toString();
+      if (!isInputFile(fileName)) {
+        continue;
+      }
+      byte[] fileBody = Files.readAllBytes(file);
+      parts.add(fileName.getBytes(StandardCharsets.UTF_8));
+      parts.add(fileBody);
+      if (fileName.endsWith(".yaml")) {
+        bap.parseYamlFile(fileName, new String(fileBody, StandardCharsets.UTF_8));
+      }
+    }
+    dirDigests.put(dirStr, FingerprintCache.fingerprint(parts.toArray(new byte[0][])));
+  }
+
+  private boolean isInputFile(String fileName) {
+    if (fileName.endsWith(".yaml")) {
+      return !fileName.endsWith(".legacy.yaml");
+    }
+    if (fileName.endsWith(".bazel")) {
+      // A BUILD.bazel file written to the source directory is an output, digested separately.
+      return !overwrite && !srcDir.equals(destDir);
+    }
+    return fileName.endsWith(".proto") || fileName.endsWith(".json");
+  }
+
+  private void parseFile(ApiVersionedDir bp, ApiDir bap, Path file) throws IOException {
+    if (verbose) {
+      System.out.println("    Read File: " + file.toString());
     }
 
     String fileName = file.getFileName().toString();
@@ -96,7 +196,9 @@ class ApisVisitor extends SimpleFileVisitor<Path> {
       if (!fileName.endsWith(".legacy.yaml")) {
         String fileBody = readFile(file);
         bp.parseYamlFile(fileName, fileBody);
-        bap.parseYamlFile(fileName, fileBody);
+        if (bap != null) {
+          bap.parseYamlFile(fileName, fileBody);
+        }
       }
     } else if (fileName.endsWith(".proto")) {
       bp.parseProtoFile(fileName, readFile(file));
@@ -108,18 +210,70 @@ class ApisVisitor extends SimpleFileVisitor<Path> {
     } else if (fileName.endsWith(".json")) {
       bp.parseJsonFile(fileName, readFile(file));
     }
-
-    return FileVisitResult.CONTINUE;
   }
 
   @Override
   public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+    String dirStr = dir.toString();
+    ApiVersionedDir bp = bazelApiVerPackages.get(dirStr);
     if (!writerMode) {
-      return FileVisitResult.CONTINUE;
+      ApiDir bap = bazelApiPackages.get(dirStr);
+      if (cache == null) {
+        List<Path> files = dirFiles.remove(dirStr);
+        runTask(() -> parseFiles(bp, bap, files));
+      } else {
+        List<Path> files = dirFiles.get(dirStr);
+        runTask(() -> digestFiles(dirStr, bap, files));
+      }
+    } else if (cache == null) {
+      runTask(() -> writeBuildFile(dirStr, bp));
+    } else {
+      List<Path> files = dirFiles.remove(dirStr);
+      runTask(() -> regenerateBuildFile(dirStr, bp, files));
     }
+    return FileVisitResult.CONTINUE;
+  }
 
-    String dirStr = dir.toString();
-    ApiVersionedDir bp = bazelApiVerPackages.get(dirStr);
+  // Parses and writes the BUILD.bazel file of a directory, unless its fingerprint is the same as in
+  // the previous run. The fingerprint covers the inputs of the directory, the inputs of its parent
+  // (the top level service yaml) and the current BUILD.bazel file in the destination directory.
+  private void regenerateBuildFile(String dirStr, ApiVersionedDir bp, List<Path> files)
+      throws IOException {
+    String relativeDirStr = srcDir.relativize(Paths.get(dirStr)).toString();
+    String parentDirStr = dirStr.substring(0, dirStr.lastIndexOf(File.separator));
+    String inputsDigest =
+        FingerprintCache.fingerprint(
+            dirDigests.get(dirStr), dirDigests.getOrDefault(parentDirStr, ""));
+    Path buildFile = Paths.get(getOutDirPath(dirStr), "BUILD.bazel");
+    if (cache.isUnchanged(
+        relativeDirStr, FingerprintCache.fingerprint(inputsDigest, digestFile(buildFile)))) {
+      if (verbose) {
+        System.out.println("Skip Unchanged Directory: " + dirStr);
+      }
+      skippedDirs.incrementAndGet();
+      return;
+    }
+
+    // The ApiDir was already filled by the reading pass, and may be read by other tasks now.
+    parseFiles(bp, null, files);
+    String fileBody = writeBuildFile(dirStr, bp);
+    // If nothing was written, the same (unchanged) inputs would not produce a file next time
+    // either.
+    String buildFileDigest =
+        (fileBody != null) ? FingerprintCache.fingerprint(fileBody) : digestFile(buildFile);
+    cache.put(relativeDirStr, FingerprintCache.fingerprint(inputsDigest, buildFileDigest));
+  }
+
+  private static String digestFile(Path file) throws IOException {
+    return Files.exists(file) ? FingerprintCache.fingerprint(Files.readAllBytes(file)) : "";
+  }
+
+  private String getOutDirPath(String dirStr) {
+    return destDir.toString() + dirStr.substring(srcDir.toString().length());
+  }
+
+  // Returns the body of the written BUILD.bazel file, or null if none was written.
+  private String writeBuildFile(String dirStr, ApiVersionedDir bp) throws IOException {
     BazelBuildFileTemplate template = null;
     String tmplType = "";
     if (bp.getProtoPackage() != null) {
@@ -137,17 +291,18 @@ class ApisVisitor extends SimpleFileVisitor<Path> {
     }
 
     if (template == null) {
-      return FileVisitResult.CONTINUE;
+      return null;
     }
 
-    String rootDirStr = srcDir.toString();
-    String outDirPath = destDir.toString() + dirStr.substring(rootDirStr.length());
-    File outDir = new File(outDirPath);
+    File outDir = new File(getOutDirPath(dirStr));
 
     if (!outDir.exists()) {
-      if (!outDir.mkdirs()) {
+      try {
+        // Unlike File.mkdirs(), this does not fail if another task creates a parent concurrently.
+        Files.createDirectories(outDir.toPath());
+      } catch (IOException ex) {
         System.out.println("WARNING: Could not create directory: " + outDir.toString());
-        return FileVisitResult.CONTINUE;
+        return null;
       }
     }
 
@@ -155,12 +310,49 @@ class ApisVisitor extends SimpleFileVisitor<Path> {
         "Write File [" + tmplType + "]: " + outDir.toString() + File.separator + "BUILD.bazel");
     try {
       BazelBuildFileView bpv = new BazelBuildFileView(bp);
-      fileWriter.write(Paths.get(outDir.toString(), "BUILD.bazel"), template.expand(bpv));
+      String fileBody = template.expand(bpv);
+      fileWriter.write(Paths.get(outDir.toString(), "BUILD.bazel"), fileBody);
+      return fileBody;
     } catch (RuntimeException ex) {
       ex.printStackTrace();
+      return null;
     }
+  }
 
-    return FileVisitResult.CONTINUE;
+  private void runTask(Task task) throws IOException {
+    if (executor == null) {
+      task.run();
+      return;
+    }
+    pendingTasks.add(
+        executor.submit(
+            () -> {
+              task.run();
+              return null;
+            }));
+  }
+
+  // Waits for the tasks started by the last walk of the tree, rethrowing the first failure.
+  public void awaitPendingTasks() throws IOException {
+    try {
+      for (Future<?> task : pendingTasks) {
+        task.get();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IOException(ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    } finally {
+      pendingTasks.clear();
+    }
   }
 
   public static String readFile(String path) throws IOException {
@@ -171,6 +363,15 @@ class ApisVisitor extends SimpleFileVisitor<Path> {
     return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
   }
 
+  // Writes the fingerprint cache, if any, and reports how many directories were left unchanged.
+  public void saveCache() throws IOException {
+    if (cache == null) {
+      return;
+    }
+    cache.save();
+    System.out.println("Skipped " + skippedDirs.get() + " unchanged directories");
+  }
+
   public void setWriterMode(boolean writerMode) {
     this.writerMode = writerMode;
   }
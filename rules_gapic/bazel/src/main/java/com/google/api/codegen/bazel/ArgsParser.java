@@ -46,7 +46,10 @@ class ArgsParser {
             + "Command line options:\n"
             + "  --src=path: location of googleapis directory\n"
             + "  --dest=path: destination folder, defaults to the value of --src\n"
-            + "  --overwrite: do not preserve any of the manually changed values in the generated BUILD.bazel files\n";
+            + "  --overwrite: do not preserve any of the manually changed values in the generated BUILD.bazel files\n"
+            + "  --threads=N: number of directories to read and write in parallel, defaults to the number of processors\n"
+            + "  --verbose: print every scanned directory and read file\n"
+            + "  --cache=path: fingerprint cache file; if given, only directories whose inputs changed since the previous run are regenerated\n";
     System.out.println(helpMessage);
   }
 
@@ -57,7 +60,6 @@ class ArgsParser {
       throw new IllegalArgumentException();
     }
 
-    String buildozerPath = parsedArgs.get("--buildozer");
     String gapicApiTemplPath = parsedArgs.get("--gapic_api_templ");
     String rootApiTemplPath = parsedArgs.get("--root_api_templ");
     String rawApiTempl = parsedArgs.get("--raw_api_templ");
@@ -65,6 +67,17 @@ class ArgsParser {
     if (overwrite == null) {
       overwrite = "false";
     }
+    String threadsArg = parsedArgs.get("--threads");
+    int threads = Runtime.getRuntime().availableProcessors();
+    if (threadsArg != null) {
+      try {
+        threads = Integer.parseInt(threadsArg);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("--threads must be a number: " + threadsArg);
+      }
+    }
+    boolean verbose = "true".equals(parsedArgs.get("--verbose"));
+    String cacheArg = parsedArgs.get("--cache");
 
     Path srcPath = Paths.get(parsedArgs.get("--src")).normalize();
     Path destPath = srcPath;
@@ -81,15 +94,15 @@ class ArgsParser {
         destPath = Paths.get(relativePathPrefix, destPath.toString());
       }
     }
-
-    if (buildozerPath == null && !overwrite.equals("true")) {
-      System.err.println("This tool requires Buildozer tool to parse BUILD.bazel files.");
-      System.err.println("Please use --buildozer=/path/to/buildozer to point to Buildozer,");
-      System.err.println("or use --overwrite if you want to rewrite all BUILD.bazel files.");
-      throw new IllegalArgumentException();
+    Path cachePath = null;
+    if (cacheArg != null) {
+      cachePath = Paths.get(cacheArg).normalize();
+      if (relativePathPrefix != null && !cachePath.isAbsolute()) {
+        cachePath = Paths.get(relativePathPrefix, cachePath.toString());
+      }
     }
-    Buildozer.setBinaryPath(buildozerPath);
 
+    // BUILD.bazel files are read and edited in process, so --buildozer is accepted but ignored.
     return new ApisVisitor(
         srcPath,
         destPath,
@@ -103,7 +116,10 @@ class ArgsParser {
             ? readResource("BUILD.bazel.raw_api.mustache")
             : ApisVisitor.readFile(rawApiTempl),
         overwrite.equals("true"),
-        fileWriter);
+        fileWriter,
+        threads,
+        verbose,
+        cachePath);
   }
 
   private String readResource(String resourcename) {
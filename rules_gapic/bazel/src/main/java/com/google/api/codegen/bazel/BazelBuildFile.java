@@ -0,0 +1,425 @@
+package com.google.api.codegen.bazel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// An in-process reader and editor of the rules declared in a BUILD.bazel file.
+//
+// Only the subset of Starlark needed to find the top-level rule calls is understood: a rule is a
+// call which starts a line outside of any brackets, and its attributes are its keyword arguments.
+// An attribute value is decoded only if it is a string literal or a list of string literals. Edits
+// replace the source text of attribute values, so the rest of the file is kept as it is.
+class BazelBuildFile {
+  private static final String DEFAULT_INDENT = "    ";
+
+  private final String content;
+  private final List<Rule> rules = new ArrayList<>();
+  // Replacements of the source text, keyed by their start offset.
+  private final TreeMap<Integer, Edit> edits = new TreeMap<>();
+
+  private BazelBuildFile(String content) {
+    this.content = content;
+  }
+
+  // Parses the given BUILD.bazel file content. Throws IllegalArgumentException if the content is
+  // not well-formed.
+  static BazelBuildFile parse(String content) {
+    BazelBuildFile buildFile = new BazelBuildFile(content);
+    List<Token> tokens = new Lexer(content).tokenize();
+    int depth = 0;
+    for (int i = 0; i < tokens.size(); i++) {
+      Token token = tokens.get(i);
+      if (token.type == TokenType.OPEN) {
+        depth++;
+      } else if (token.type == TokenType.CLOSE) {
+        depth--;
+      } else if (depth == 0
+          && token.type == TokenType.IDENTIFIER
+          && token.startsLine
+          && i + 1 < tokens.size()
+          && tokens.get(i + 1).text(content).equals("(")) {
+        i = buildFile.parseRule(tokens, i) - 1;
+      }
+    }
+    return buildFile;
+  }
+
+  List<Rule> getRules() {
+    return Collections.unmodifiableList(rules);
+  }
+
+  // Returns the first rule of the given kind, or null if there is none.
+  Rule getRuleByKind(String kind) {
+    for (Rule rule : rules) {
+      if (rule.kind.equals(kind)) {
+        return rule;
+      }
+    }
+    return null;
+  }
+
+  // Returns the rule with the given name, or null if there is none.
+  Rule getRuleByName(String name) {
+    for (Rule rule : rules) {
+      if (name.equals(rule.getName())) {
+        return rule;
+      }
+    }
+    return null;
+  }
+
+  // Returns the content of the file with all the edits applied.
+  String getContent() {
+    StringBuilder builder = new StringBuilder();
+    int index = 0;
+    for (Edit edit : edits.values()) {
+      builder.append(content, index, edit.start).append(edit.replacement);
+      index = edit.end;
+    }
+    builder.append(content.substring(index));
+    return builder.toString();
+  }
+
+  // Parses the rule call starting at the given token. Returns the index of the token after it.
+  private int parseRule(List<Token> tokens, int start) {
+    Rule rule = new Rule(tokens.get(start).text(content));
+    int i = start + 2;
+    int depth = 0;
+    int argStart = i;
+    for (; i < tokens.size(); i++) {
+      Token token = tokens.get(i);
+      if (token.type == TokenType.OPEN) {
+        depth++;
+      } else if (token.type == TokenType.CLOSE && depth > 0) {
+        depth--;
+      } else if (depth == 0 && (token.type == TokenType.CLOSE || token.text(content).equals(","))) {
+        if (argStart < i) {
+          rule.parseArgument(tokens.subList(argStart, i));
+          rule.lastArgumentEnd = tokens.get(i - 1).end;
+          rule.hasTrailingComma = token.type != TokenType.CLOSE;
+        }
+        if (token.type == TokenType.CLOSE) {
+          rule.closeParen = token.start;
+          rules.add(rule);
+          return i + 1;
+        }
+        argStart = i + 1;
+      }
+    }
+    throw new IllegalArgumentException("Unterminated call of " + rule.kind);
+  }
+
+  private static String quote(String value) {
+    StringBuilder builder = new StringBuilder("\"");
+    for (char c : value.toCharArray()) {
+      switch (c) {
+        case '"':
+        case '\\':
+          builder.append('\\').append(c);
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\t':
+          builder.append("\\t");
+          break;
+        default:
+          builder.append(c);
+      }
+    }
+    return builder.append('"').toString();
+  }
+
+  private static String formatList(List<String> values, String indent) {
+    if (values.size() < 2) {
+      return values.isEmpty() ? "[]" : "[" + quote(values.get(0)) + "]";
+    }
+    StringBuilder builder = new StringBuilder("[\n");
+    for (String value : values) {
+      builder.append(indent).append(indent).append(quote(value)).append(",\n");
+    }
+    return builder.append(indent).append(']').toString();
+  }
+
+  // A rule call, such as java_gapic_library(name = "foo", ...).
+  class Rule {
+    private final String kind;
+    private final Map<String, Attribute> attributes = new LinkedHashMap<>();
+    private final Map<String, String> newAttributes = new LinkedHashMap<>();
+    private int lastArgumentEnd = -1;
+    private boolean hasTrailingComma;
+    private int closeParen;
+    // The indentation of the attributes, taken from the first one which starts a line.
+    private String indent;
+
+    private Rule(String kind) {
+      this.kind = kind;
+    }
+
+    String getKind() {
+      return kind;
+    }
+
+    // Returns the name of the rule, or null if it has no string literal name.
+    String getName() {
+      return getStringAttribute("name");
+    }
+
+    // Returns the value of the given attribute if it is a string literal, or null otherwise.
+    String getStringAttribute(String name) {
+      Attribute attribute = attributes.get(name);
+      return attribute == null ? null : attribute.stringValue;
+    }
+
+    // Returns the value of the given attribute if it is a list of string literals, or null
+    // otherwise.
+    List<String> getListAttribute(String name) {
+      Attribute attribute = attributes.get(name);
+      return attribute == null ? null : attribute.listValue;
+    }
+
+    void setStringAttribute(String name, String value) {
+      setAttributeSource(name, quote(value));
+    }
+
+    void setListAttribute(String name, List<String> values) {
+      setAttributeSource(name, formatList(values, getIndent()));
+    }
+
+    private void setAttributeSource(String name, String source) {
+      Attribute attribute = attributes.get(name);
+      if (attribute != null) {
+        edits.put(attribute.valueStart, new Edit(attribute.valueStart, attribute.valueEnd, source));
+        return;
+      }
+      newAttributes.put(name, source);
+      updateNewAttributesEdit();
+    }
+
+    // New attributes are inserted before the closing parenthesis of the call, one per line if the
+    // call spans several lines.
+    private void updateNewAttributesEdit() {
+      int lineStart = content.lastIndexOf('\n', closeParen - 1) + 1;
+      boolean multiline = content.substring(lineStart, closeParen).trim().isEmpty();
+      StringBuilder builder = new StringBuilder();
+      int insertAt;
+      if (multiline) {
+        insertAt = lineStart;
+        if (lastArgumentEnd >= 0 && !hasTrailingComma) {
+          edits.put(lastArgumentEnd, new Edit(lastArgumentEnd, lastArgumentEnd, ","));
+        }
+        for (Map.Entry<String, String> entry : newAttributes.entrySet()) {
+          builder.append(getIndent());
+          builder.append(entry.getKey()).append(" = ").append(entry.getValue()).append(",\n");
+        }
+      } else {
+        insertAt = closeParen;
+        String separator = lastArgumentEnd >= 0 && !hasTrailingComma ? ", " : "";
+        for (Map.Entry<String, String> entry : newAttributes.entrySet()) {
+          builder.append(separator).append(entry.getKey()).append(" = ").append(entry.getValue());
+          separator = ", ";
+        }
+      }
+      edits.put(insertAt, new Edit(insertAt, insertAt, builder.toString()));
+    }
+
+    private String getIndent() {
+      return indent != null ? indent : DEFAULT_INDENT;
+    }
+
+    private void parseArgument(List<Token> tokens) {
+      Token first = tokens.get(0);
+      if (indent == null && first.startsLine) {
+        indent = content.substring(content.lastIndexOf('\n', first.start) + 1, first.start);
+      }
+      if (tokens.size() < 3
+          || tokens.get(0).type != TokenType.IDENTIFIER
+          || !tokens.get(1).text(content).equals("=")) {
+        // A positional argument.
+        return;
+      }
+      List<Token> value = tokens.subList(2, tokens.size());
+      Attribute attribute = new Attribute(value.get(0).start, value.get(value.size() - 1).end);
+      if (value.size() == 1 && value.get(0).type == TokenType.STRING) {
+        attribute.stringValue = value.get(0).stringValue;
+      } else {
+        attribute.listValue = parseStringList(value);
+      }
+      attributes.put(tokens.get(0).text(content), attribute);
+    }
+
+    private List<String> parseStringList(List<Token> value) {
+      if (!value.get(0).text(content).equals("[")
+          || !value.get(value.size() - 1).text(content).equals("]")) {
+        return null;
+      }
+      List<String> list = new ArrayList<>();
+      boolean expectElement = true;
+      for (Token token : value.subList(1, value.size() - 1)) {
+        if (expectElement && token.type == TokenType.STRING) {
+          list.add(token.stringValue);
+        } else if (expectElement || !token.text(content).equals(",")) {
+          return null;
+        }
+        expectElement = !expectElement;
+      }
+      return list;
+    }
+  }
+
+  private static class Attribute {
+    private final int valueStart;
+    private final int valueEnd;
+    private String stringValue;
+    private List<String> listValue;
+
+    private Attribute(int valueStart, int valueEnd) {
+      this.valueStart = valueStart;
+      this.valueEnd = valueEnd;
+    }
+  }
+
+  private static class Edit {
+    private final int start;
+    private final int end;
+    private final String replacement;
+
+    private Edit(int start, int end, String replacement) {
+      this.start = start;
+      this.end = end;
+      this.replacement = replacement;
+    }
+  }
+
+  private enum TokenType {
+    IDENTIFIER,
+    STRING,
+    OPEN,
+    CLOSE,
+    OTHER
+  }
+
+  private static class Token {
+    private final TokenType type;
+    private final int start;
+    private final int end;
+    private final boolean startsLine;
+    private final String stringValue;
+
+    private Token(TokenType type, int start, int end, boolean startsLine, String stringValue) {
+      this.type = type;
+      this.start = start;
+      this.end = end;
+      this.startsLine = startsLine;
+      this.stringValue = stringValue;
+    }
+
+    private String text(String content) {
+      return content.substring(start, end);
+    }
+  }
+
+  private static class Lexer {
+    private final String content;
+    private final List<Token> tokens = new ArrayList<>();
+    private int index;
+    private boolean startsLine = true;
+
+    private Lexer(String content) {
+      this.content = content;
+    }
+
+    private List<Token> tokenize() {
+      while (index < content.length()) {
+        char c = content.charAt(index);
+        if (c == '\n') {
+          startsLine = true;
+          index++;
+        } else if (Character.isWhitespace(c)) {
+          index++;
+        } else if (c == '#') {
+          int lineEnd = content.indexOf('\n', index);
+          index = lineEnd < 0 ? content.length() : lineEnd;
+        } else if (isStringStart(index)) {
+          readString();
+        } else if (Character.isJavaIdentifierStart(c)) {
+          int start = index;
+          while (index < content.length()
+              && Character.isJavaIdentifierPart(content.charAt(index))) {
+            index++;
+          }
+          addToken(TokenType.IDENTIFIER, start, null);
+        } else if (c == '(' || c == '[' || c == '{') {
+          index++;
+          addToken(TokenType.OPEN, index - 1, null);
+        } else if (c == ')' || c == ']' || c == '}') {
+          index++;
+          addToken(TokenType.CLOSE, index - 1, null);
+        } else {
+          index++;
+          addToken(TokenType.OTHER, index - 1, null);
+        }
+      }
+      return tokens;
+    }
+
+    private void addToken(TokenType type, int start, String stringValue) {
+      tokens.add(new Token(type, start, index, startsLine, stringValue));
+      startsLine = false;
+    }
+
+    private boolean isStringStart(int at) {
+      char c = content.charAt(at);
+      if (c == '"' || c == '\'') {
+        return true;
+      }
+      return (c == 'r' || c == 'R')
+          && at + 1 < content.length()
+          && (content.charAt(at + 1) == '"' || content.charAt(at + 1) == '\'');
+    }
+
+    private void readString() {
+      int start = index;
+      boolean raw = content.charAt(index) == 'r' || content.charAt(index) == 'R';
+      if (raw) {
+        index++;
+      }
+      char quote = content.charAt(index);
+      String delimiter =
+          content.startsWith(quote + "" + quote + quote, index)
+              ? quote + "" + quote + quote
+              : String.valueOf(quote);
+      index += delimiter.length();
+      StringBuilder value = new StringBuilder();
+      while (true) {
+        if (index >= content.length()) {
+          throw new IllegalArgumentException("Unterminated string at offset " + start);
+        }
+        if (content.startsWith(delimiter, index)) {
+          index += delimiter.length();
+          break;
+        }
+        char c = content.charAt(index++);
+        if (c == '\\' && index < content.length()) {
+          char escaped = content.charAt(index++);
+          if (raw) {
+            value.append(c).append(escaped);
+          } else if (escaped == 'n') {
+            value.append('\n');
+          } else if (escaped == 't') {
+            value.append('\t');
+          } else if (escaped != '\n') {
+            value.append(escaped);
+          }
+        } else {
+          value.append(c);
+        }
+      }
+      addToken(TokenType.STRING, start, value.toString());
+    }
+  }
+}
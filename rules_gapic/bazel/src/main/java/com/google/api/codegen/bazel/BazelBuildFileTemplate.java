@@ -1,10 +1,5 @@
 package com.google.api.codegen.bazel;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -38,7 +33,7 @@ class BazelBuildFileTemplate {
     return builder.toString();
   }
 
-  String expand(BazelBuildFileView bpv) throws IOException {
+  String expand(BazelBuildFileView bpv) {
     String expandedTemplate = this.expand(bpv.getTokens());
 
     // Apply overrides
@@ -54,53 +49,38 @@ class BazelBuildFileTemplate {
       return expandedTemplate;
     }
 
-    // write the content of the build file to a temporary directory and fix it with Buildozer
-    File tempdir = Files.createTempDirectory("build_file_generator_").toFile();
-    File buildBazel = new File(tempdir, "BUILD.bazel");
-    Path buildBazelPath = buildBazel.toPath();
-    Files.write(buildBazelPath, expandedTemplate.getBytes(StandardCharsets.UTF_8));
-
-    Buildozer buildozer = Buildozer.getInstance();
+    BazelBuildFile buildFile = BazelBuildFile.parse(expandedTemplate);
 
     // First of all, rename the rules
     for (Map.Entry<String, String> entry : assemblyPkgRulesNames.entrySet()) {
-      String kind = entry.getKey();
+      BazelBuildFile.Rule rule = buildFile.getRuleByKind(entry.getKey());
       String newName = entry.getValue();
-      String currentName = buildozer.getAttribute(buildBazelPath, "%" + kind, "name");
-      if (!currentName.equals(newName)) {
-        buildozer.batchSetAttribute(buildBazelPath, currentName, "name", newName);
+      if (rule != null && !newName.equals(rule.getName())) {
+        rule.setStringAttribute("name", newName);
       }
     }
-    buildozer.commit();
 
     // Apply preserved string attribute values
     for (Map.Entry<String, Map<String, String>> entry : overriddenStringAttributes.entrySet()) {
-      String ruleName = entry.getKey();
+      BazelBuildFile.Rule rule = buildFile.getRuleByName(entry.getKey());
+      if (rule == null) {
+        continue;
+      }
       for (Map.Entry<String, String> subentry : entry.getValue().entrySet()) {
-        String attr = subentry.getKey();
-        String value = subentry.getValue();
-        buildozer.batchSetAttribute(buildBazelPath, ruleName, attr, value);
+        rule.setStringAttribute(subentry.getKey(), subentry.getValue());
       }
     }
     // Apply preserved list attribute values
     for (Map.Entry<String, Map<String, List<String>>> entry : overriddenListAttributes.entrySet()) {
-      String ruleName = entry.getKey();
+      BazelBuildFile.Rule rule = buildFile.getRuleByName(entry.getKey());
+      if (rule == null) {
+        continue;
+      }
       for (Map.Entry<String, List<String>> subentry : entry.getValue().entrySet()) {
-        String attr = subentry.getKey();
-        List<String> values = subentry.getValue();
-        buildozer.batchRemoveAttribute(buildBazelPath, ruleName, attr);
-        for (String value : values) {
-          buildozer.batchAddAttribute(buildBazelPath, ruleName, attr, value);
-        }
+        rule.setListAttribute(subentry.getKey(), subentry.getValue());
       }
     }
-    buildozer.commit();
-
-    String updatedContent = new String(Files.readAllBytes(buildBazelPath), StandardCharsets.UTF_8);
-
-    buildBazel.delete();
-    tempdir.delete();
 
-    return updatedContent;
+    return buildFile.getContent();
   }
 }
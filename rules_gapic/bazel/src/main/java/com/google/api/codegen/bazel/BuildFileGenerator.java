@@ -2,6 +2,8 @@ package com.google.api.codegen.bazel;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 // To run from bazel and overwrite existing BUILD.bazel files:
 //    bazel run //rules_gapic/bazel:build_file_generator -- \
@@ -22,11 +24,24 @@ public class BuildFileGenerator {
   }
 
   void generateBuildFiles(ApisVisitor visitor) throws IOException {
-    System.out.println("\n\n========== READING INPUT DIRECTORY ==========");
-    Files.walkFileTree(visitor.getSrcDir(), visitor);
-    visitor.setWriterMode(true);
-    System.out.println("\n\n========== WRITING GENERATED FILES ==========");
-    Files.walkFileTree(visitor.getSrcDir(), visitor);
+    ExecutorService executor =
+        visitor.getThreads() > 1 ? Executors.newFixedThreadPool(visitor.getThreads()) : null;
+    visitor.setExecutor(executor);
+    try {
+      System.out.println("\n\n========== READING INPUT DIRECTORY ==========");
+      Files.walkFileTree(visitor.getSrcDir(), visitor);
+      visitor.awaitPendingTasks();
+      visitor.setWriterMode(true);
+      System.out.println("\n\n========== WRITING GENERATED FILES ==========");
+      Files.walkFileTree(visitor.getSrcDir(), visitor);
+      visitor.awaitPendingTasks();
+      visitor.saveCache();
+    } finally {
+      visitor.setExecutor(null);
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
 
     System.out.println("\nBUILD.bazel file generation completed successfully\n");
   }
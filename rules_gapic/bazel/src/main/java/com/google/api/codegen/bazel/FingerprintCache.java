@@ -0,0 +1,101 @@
+package com.google.api.codegen.bazel;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Remembers, for each directory, a fingerprint of the inputs which its BUILD.bazel file was last
+// generated from, so that the directories whose inputs have not changed can be skipped.
+//
+// The cache file starts with a fingerprint of the generator settings (templates and flags), and
+// then has one "<fingerprint> <directory>" line per directory, relative to the source directory.
+// The whole cache is ignored if the settings have changed since it was written.
+class FingerprintCache {
+  private final Path cacheFile;
+  private final String settingsFingerprint;
+  private final Map<String, String> previousFingerprints = new HashMap<>();
+  // Filled by the tasks of the visitor, possibly from several threads.
+  private final Map<String, String> currentFingerprints = new ConcurrentHashMap<>();
+
+  FingerprintCache(Path cacheFile, String settingsFingerprint) throws IOException {
+    this.cacheFile = cacheFile;
+    this.settingsFingerprint = settingsFingerprint;
+    if (!Files.exists(cacheFile)) {
+      return;
+    }
+    List<String> lines = Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+    if (lines.isEmpty() || !lines.get(0).equals(settingsFingerprint)) {
+      return;
+    }
+    for (String line : lines.subList(1, lines.size())) {
+      int separator = line.indexOf(' ');
+      if (separator > 0) {
+        previousFingerprints.put(line.substring(separator + 1), line.substring(0, separator));
+      }
+    }
+  }
+
+  // Returns true if the directory had the same fingerprint in the previous run, in which case the
+  // fingerprint is kept for the next run too.
+  boolean isUnchanged(String dir, String fingerprint) {
+    if (!fingerprint.equals(previousFingerprints.get(dir))) {
+      return false;
+    }
+    currentFingerprints.put(dir, fingerprint);
+    return true;
+  }
+
+  void put(String dir, String fingerprint) {
+    currentFingerprints.put(dir, fingerprint);
+  }
+
+  // Writes the fingerprints recorded in this run. Directories which were not visited are dropped.
+  void save() throws IOException {
+    StringBuilder sb = new StringBuilder(settingsFingerprint).append('\n');
+    for (Map.Entry<String, String> entry : new TreeMap<>(currentFingerprints).entrySet()) {
+      sb.append(entry.getValue()).append(' ').append(entry.getKey()).append('\n');
+    }
+    Path parent = cacheFile.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Files.write(cacheFile, sb.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  // Returns the hex SHA-256 digest of the given parts. Each part is prefixed with its length, so
+  // that different splits of the same bytes do not collide.
+  static String fingerprint(byte[]... parts) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    for (byte[] part : parts) {
+      digest.update(Integer.toString(part.length).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) ':');
+      digest.update(part);
+    }
+    StringBuilder hex = new StringBuilder();
+    for (byte b : digest.digest()) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+
+  static String fingerprint(String... parts) {
+    byte[][] bytes = new byte[parts.length][];
+    for (int i = 0; i < parts.length; ++i) {
+      bytes[i] = parts[i].getBytes(StandardCharsets.UTF_8);
+    }
+    return fingerprint(bytes);
+  }
+}
@@ -1,11 +1,17 @@
 package com.google.api.codegen.bazel;
 
+import static java.nio.file.StandardOpenOption.APPEND;
+
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -135,6 +141,62 @@ public class BuildFileGeneratorTest {
         ApisVisitor.readFile(rawBuildFilePath));
   }
 
+  @Test
+  public void testIncrementalRegeneration() throws IOException, InterruptedException {
+    Path tempDirPath = getTemporaryDirectory();
+    Path fixturesPath = Paths.get(PATH_PREFIX, SRC_DIR);
+    new ProcessBuilder(new String[] {"cp", "-r", fixturesPath.toString(), tempDirPath.toString()})
+        .start()
+        .waitFor();
+
+    Path copiedGoogleapis = Paths.get(tempDirPath.toString(), "googleapis");
+    Path cachePath = Paths.get(tempDirPath.toString(), "build_file_generator.cache");
+    ArgsParser args =
+        new ArgsParser(new String[] {"--src=" + copiedGoogleapis, "--cache=" + cachePath});
+    Path fileBodyPathPrefix =
+        Paths.get(copiedGoogleapis.toString(), "google", "example", "library");
+    Path gapicBuildFilePath = Paths.get(fileBodyPathPrefix.toString(), "v1", "BUILD.bazel");
+    Path rawBuildFilePath = Paths.get(fileBodyPathPrefix.toString(), "BUILD.bazel");
+
+    // The first run generates everything
+    FileWriter fw = new DiskFileWriter();
+    new BuildFileGenerator().generateBuildFiles(args.createApisVisitor(fw, null));
+    Assert.assertEquals(2, fw.files.size());
+    Assert.assertEquals(
+        ApisVisitor.readFile(gapicBuildFilePath.toString() + ".baseline"),
+        ApisVisitor.readFile(gapicBuildFilePath.toString()));
+
+    // Nothing has changed, so nothing is written
+    fw = new DiskFileWriter();
+    new BuildFileGenerator().generateBuildFiles(args.createApisVisitor(fw, null));
+    Assert.assertEquals(0, fw.files.size());
+
+    // A changed proto only regenerates its own directory
+    Path protoPath = Paths.get(fileBodyPathPrefix.toString(), "v1", "library.proto");
+    Files.write(protoPath, "// changed\n".getBytes(StandardCharsets.UTF_8), APPEND);
+    fw = new DiskFileWriter();
+    new BuildFileGenerator().generateBuildFiles(args.createApisVisitor(fw, null));
+    Assert.assertEquals(Collections.singleton(gapicBuildFilePath.toString()), fw.files.keySet());
+
+    // A changed top level service yaml also regenerates the versioned directories below it
+    Path yamlPath = Paths.get(fileBodyPathPrefix.toString(), "library_example_v1.yaml");
+    Files.write(yamlPath, "# changed\n".getBytes(StandardCharsets.UTF_8), APPEND);
+    fw = new DiskFileWriter();
+    new BuildFileGenerator().generateBuildFiles(args.createApisVisitor(fw, null));
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList(gapicBuildFilePath.toString(), rawBuildFilePath.toString())),
+        fw.files.keySet());
+
+    // A BUILD.bazel file edited by hand is regenerated, and the other one is not
+    Files.write(gapicBuildFilePath, "# changed\n".getBytes(StandardCharsets.UTF_8), APPEND);
+    fw = new DiskFileWriter();
+    new BuildFileGenerator().generateBuildFiles(args.createApisVisitor(fw, null));
+    Assert.assertEquals(Collections.singleton(gapicBuildFilePath.toString()), fw.files.keySet());
+    Assert.assertEquals(
+        ApisVisitor.readFile(gapicBuildFilePath.toString() + ".baseline"),
+        ApisVisitor.readFile(gapicBuildFilePath.toString()));
+  }
+
   @Test
   public void testBuildozer() throws IOException {
     Path tempDirPath = getTemporaryDirectory();
@@ -182,10 +244,163 @@ public class BuildFileGeneratorTest {
     Assert.assertEquals(null, buildozer.getAttribute(buildBazel, "rule1", "to_be_removed_b"));
   }
 
+  @Test
+  public void testBazelBuildFile() throws IOException {
+    Path templateFile = Paths.get(PATH_PREFIX, "buildozer", "BUILD.bazel.template");
+    BazelBuildFile buildFile = BazelBuildFile.parse(ApisVisitor.readFile(templateFile.toString()));
+
+    // Read the rules and their attributes
+    Assert.assertEquals(2, buildFile.getRules().size());
+    BazelBuildFile.Rule rule1 = buildFile.getRuleByKind("some_rule");
+    Assert.assertEquals("rule1", rule1.getName());
+    Assert.assertEquals("attr_value", rule1.getStringAttribute("attr"));
+    Assert.assertEquals(null, rule1.getStringAttribute("missing_attr"));
+    BazelBuildFile.Rule rule2 = buildFile.getRuleByName("rule2");
+    Assert.assertEquals("some_other_rule", rule2.getKind());
+    Assert.assertEquals(Arrays.asList("value1", "value2"), rule2.getListAttribute("list_attr"));
+
+    // Edit existing and new attributes, and read the result back
+    rule1.setStringAttribute("name", "renamed_rule1");
+    rule1.setStringAttribute("attr", "new \"quoted\" value");
+    rule1.setListAttribute("new_list_attr", Arrays.asList("a", "b"));
+    rule2.setListAttribute("list_attr", Collections.singletonList("value3"));
+    BazelBuildFile edited = BazelBuildFile.parse(buildFile.getContent());
+    BazelBuildFile.Rule editedRule1 = edited.getRuleByKind("some_rule");
+    Assert.assertEquals("renamed_rule1", editedRule1.getName());
+    Assert.assertEquals("new \"quoted\" value", editedRule1.getStringAttribute("attr"));
+    Assert.assertEquals("remove_a", editedRule1.getStringAttribute("to_be_removed_a"));
+    Assert.assertEquals(Arrays.asList("a", "b"), editedRule1.getListAttribute("new_list_attr"));
+    Assert.assertEquals(
+        Collections.singletonList("value3"),
+        edited.getRuleByName("rule2").getListAttribute("list_attr"));
+    // Comments and untouched rules are kept as they are
+    Assert.assertTrue(edited.getContent().startsWith("## This is a test BUILD.bazel file"));
+  }
+
+  @Test
+  public void testParseProtoAndYamlFiles() {
+    ApiVersionedDir bp = new ApiVersionedDir();
+    bp.parseProtoFile(
+        "library.proto",
+        String.join(
+            "\n",
+            "// package ignored.in.comment;",
+            "syntax = \"proto3\";",
+            "",
+            "package google.example.library.v1;",
+            "",
+            "import \"google/api/annotations.proto\";",
+            "import \"google/protobuf/empty.proto\";",
+            "",
+            "option go_package = \"google.golang.org/genproto/library/v1;library\";",
+            "option java_package = \"com.google.example.library.v1\";",
+            "",
+            "message Book {",
+            "  option java_package = \"nested.option.Ignored\";",
+            "  string name = 1;",
+            "}",
+            "",
+            "service LibraryService {",
+            "  rpc GetBook(Book) returns (Book);",
+            "}",
+            "",
+            "// service CommentedService {",
+            "service ArchiveService {",
+            "}"));
+    Assert.assertEquals("google.example.library.v1", bp.getProtoPackage());
+    Assert.assertEquals("library", bp.getName());
+    Assert.assertEquals("v1", bp.getVersion());
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList("google/api/annotations.proto", "google/protobuf/empty.proto")),
+        bp.getImports());
+    Assert.assertEquals("com.google.example.library.v1", bp.getLangProtoPackages().get("java"));
+    Assert.assertEquals(
+        "google.golang.org/genproto/library/v1;library", bp.getLangProtoPackages().get("go"));
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList("LibraryService", "ArchiveService")), bp.getServices());
+
+    // Top-level statements are found even after the first definition of the file
+    ApiVersionedDir late = new ApiVersionedDir();
+    late.parseProtoFile(
+        "archive.proto",
+        String.join(
+            "\n",
+            "syntax = \"proto3\";",
+            "",
+            "message Archive {",
+            "  string name = 1;",
+            "}",
+            "",
+            "package google.example.archive.v2;",
+            "",
+            "import \"google/protobuf/empty.proto\";",
+            "",
+            "option java_package = \"com.google.example.archive.v2\";",
+            "",
+            "enum State {",
+            "  STATE_UNSPECIFIED = 0;",
+            "}",
+            "",
+            "import \"google/api/client.proto\";",
+            "option csharp_namespace = \"Google.Example.Archive.V2\";"));
+    Assert.assertEquals("google.example.archive.v2", late.getProtoPackage());
+    Assert.assertEquals("v2", late.getVersion());
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList("google/protobuf/empty.proto", "google/api/client.proto")),
+        late.getImports());
+    Assert.assertEquals("com.google.example.archive.v2", late.getLangProtoPackages().get("java"));
+    Assert.assertEquals("Google.Example.Archive.V2", late.getLangProtoPackages().get("csharp"));
+
+    // Statements split across lines are matched up to their terminating ';' or '{'
+    ApiVersionedDir split = new ApiVersionedDir();
+    split.parseProtoFile(
+        "split.proto",
+        String.join(
+            "\n",
+            "syntax = \"proto3\";",
+            "",
+            "package google.example.split.v1;",
+            "",
+            "option java_package =",
+            "    \"com.google.example.split.v1\";",
+            "option go_package",
+            "    = \"google.golang.org/genproto/split/v1;split\";",
+            "",
+            "service SplitService",
+            "{",
+            "  rpc GetBook(Book) returns (Book);",
+            "}",
+            "",
+            "service OtherService",
+            "    {",
+            "}"));
+    Assert.assertEquals("com.google.example.split.v1", split.getLangProtoPackages().get("java"));
+    Assert.assertEquals(
+        "google.golang.org/genproto/split/v1;split", split.getLangProtoPackages().get("go"));
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList("SplitService", "OtherService")), split.getServices());
+
+    // The top-level type key is found even after a "types" key
+    bp.parseYamlFile(
+        "library_v1.yaml",
+        String.join(
+            "\n",
+            "types:",
+            "- name: google.example.library.v1.Book",
+            "type: google.api.Service",
+            "config_version: 3",
+            "  canonical_scopes: https://www.googleapis.com/auth/cloud-platform"));
+    Assert.assertEquals("library_v1.yaml", bp.getServiceYamlPath());
+    Assert.assertTrue(bp.getCloudScope());
+    bp.parseYamlFile("other.yaml", "types:\n- name: Foo\n");
+    Assert.assertEquals(null, bp.getGapicYamlPath());
+  }
+
   // Not using mocking libraries to keep this tool as simple as possible (currently it does not use
   // any dependencies). Tests depend only on JUnit.
+  // The generator writes files from several threads, hence the concurrent map.
   private static class FileWriter implements ApisVisitor.FileWriter {
-    private final Map<String, String> files = new HashMap<>();
+    private final Map<String, String> files = new ConcurrentHashMap<>();
 
     @Override
     public void write(Path dest, String fileBody) throws IOException {
@@ -193,6 +408,15 @@ public class BuildFileGeneratorTest {
     }
   }
 
+  // Writes the files to disk, like the default writer, and records which ones were written.
+  private static class DiskFileWriter extends FileWriter {
+    @Override
+    public void write(Path dest, String fileBody) throws IOException {
+      super.write(dest, fileBody);
+      Files.write(dest, fileBody.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
   // Get a path to some temporary directory.
   // If we are run by "bazel test", we expect to have TEST_TMPDIR defined by bazel
   // and we're free to use it. Otherwise, just get some temporary directory.
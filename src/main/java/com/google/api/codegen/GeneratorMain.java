@@ -227,6 +227,29 @@ public class GeneratorMain {
     options.addOption(DESCRIPTOR_SET_OPTION);
     options.addOption(SERVICE_YAML_OPTION);
     options.addOption(OUTPUT_OPTION);
+    Option threadCountOption =
+        Option.builder()
+            .longOpt("thread_count")
+            .desc(
+                "Optional. The number of threads on which the interfaces of the API are "
+                    + "generated in parallel. Defaults to 1.")
+            .hasArg()
+            .argName("THREAD_COUNT")
+            .required(false)
+            .build();
+    options.addOption(threadCountOption);
+    Option latencyProfileOption =
+        Option.builder()
+            .longOpt("latency_profile")
+            .desc(
+                "Optional. A CSV or JSON file of the observed latency percentiles and error code "
+                    + "rates of methods, from which their retry and timeout settings are "
+                    + "synthesized.")
+            .hasArg()
+            .argName("LATENCY-PROFILE")
+            .required(false)
+            .build();
+    options.addOption(latencyProfileOption);
 
     CommandLine cl = (new DefaultParser()).parse(options, args);
     if (cl.hasOption("help")) {
@@ -242,6 +265,16 @@ public class GeneratorMain {
     toolOptions.set(
         ToolOptions.CONFIG_FILES,
         Lists.newArrayList(cl.getOptionValues(SERVICE_YAML_OPTION.getLongOpt())));
+    if (cl.hasOption(threadCountOption.getLongOpt())) {
+      toolOptions.set(
+          GapicConfigGeneratorApp.THREAD_COUNT,
+          Integer.parseInt(cl.getOptionValue(threadCountOption.getLongOpt())));
+    }
+    if (cl.hasOption(latencyProfileOption.getLongOpt())) {
+      toolOptions.set(
+          GapicConfigGeneratorApp.LATENCY_PROFILE,
+          cl.getOptionValue(latencyProfileOption.getLongOpt()));
+    }
     GapicConfigGeneratorApp configGen = new GapicConfigGeneratorApp(toolOptions);
     int exitCode = configGen.run();
     System.exit(exitCode);
@@ -282,6 +315,16 @@ public class GeneratorMain {
             .build();
     options.addOption(devSamplesOption);
 
+    Option acronymsOption =
+        Option.builder()
+            .longOpt("acronyms")
+            .desc("Optional. Additional upper-case acronyms to recognize when splitting names.")
+            .hasArg()
+            .argName("ACRONYMS")
+            .required(false)
+            .build();
+    options.addOption(acronymsOption);
+
     CommandLine cl = (new DefaultParser()).parse(options, args);
     if (cl.hasOption("help")) {
       HelpFormatter formatter = new HelpFormatter();
@@ -347,6 +390,12 @@ public class GeneratorMain {
 
     toolOptions.set(GapicGeneratorApp.DEV_SAMPLES, cl.hasOption(devSamplesOption.getLongOpt()));
 
+    if (cl.getOptionValues(acronymsOption.getLongOpt()) != null) {
+      toolOptions.set(
+          GapicGeneratorApp.ACRONYMS,
+          Lists.newArrayList(cl.getOptionValues(acronymsOption.getLongOpt())));
+    }
+
     String outputPath = toolOptions.get(GapicGeneratorApp.OUTPUT_FILE);
     GapicGeneratorApp codeGen =
         new GapicGeneratorApp(toolOptions, artifactType, new FileGapicWriter(outputPath));
@@ -407,6 +456,17 @@ public class GeneratorMain {
             .required(false)
             .build();
     options.addOption(artifactTypeOption);
+    Option linkFilesOption =
+        Option.builder()
+            .longOpt("link_files")
+            .desc(
+                "Optional. Hard link the gRPC source files into the output directory instead of "
+                    + "copying them, when both are on the same file system. The linked files must "
+                    + "not be edited in place.")
+            .argName("LINK-FILES")
+            .required(false)
+            .build();
+    options.addOption(linkFilesOption);
 
     CommandLine cl = (new DefaultParser()).parse(options, args);
     if (cl.hasOption("help")) {
@@ -439,6 +499,7 @@ public class GeneratorMain {
           PackageGeneratorApp.ARTIFACT_TYPE,
           PackagingArtifactType.of(cl.getOptionValue(artifactTypeOption.getLongOpt())));
     }
+    toolOptions.set(PackageGeneratorApp.LINK_FILES, cl.hasOption(linkFilesOption.getLongOpt()));
 
     PackageGeneratorApp generator = new PackageGeneratorApp(toolOptions);
     int exitCode = generator.run();
@@ -450,6 +511,26 @@ public class GeneratorMain {
     options.addOption("h", "help", false, "show usage");
     options.addOption(DISCOVERY_DOC_OPTION);
     options.addOption(OUTPUT_OPTION);
+    Option previousDiscoveryDocOption =
+        Option.builder()
+            .longOpt("previous_discovery_doc")
+            .desc(
+                "Optional. The Discovery doc from which previous_config was generated. If both are "
+                    + "given, only the interfaces of changed resources are regenerated.")
+            .hasArg()
+            .argName("PREVIOUS-DISCOVERY-DOC")
+            .required(false)
+            .build();
+    options.addOption(previousDiscoveryDocOption);
+    Option previousConfigOption =
+        Option.builder()
+            .longOpt("previous_config")
+            .desc("Optional. The GAPIC config previously generated from previous_discovery_doc.")
+            .hasArg()
+            .argName("PREVIOUS-CONFIG")
+            .required(false)
+            .build();
+    options.addOption(previousConfigOption);
 
     CommandLine cl = (new DefaultParser()).parse(options, args);
     if (cl.hasOption("help")) {
@@ -463,6 +544,15 @@ public class GeneratorMain {
     toolOptions.set(
         DiscoConfigGeneratorApp.DISCOVERY_DOC,
         cl.getOptionValue(DISCOVERY_DOC_OPTION.getLongOpt()));
+    if (cl.hasOption(previousDiscoveryDocOption.getLongOpt())
+        && cl.hasOption(previousConfigOption.getLongOpt())) {
+      toolOptions.set(
+          DiscoConfigGeneratorApp.PREVIOUS_DISCOVERY_DOC,
+          cl.getOptionValue(previousDiscoveryDocOption.getLongOpt()));
+      toolOptions.set(
+          DiscoConfigGeneratorApp.PREVIOUS_CONFIG,
+          cl.getOptionValue(previousConfigOption.getLongOpt()));
+    }
     DiscoConfigGeneratorApp configGen = new DiscoConfigGeneratorApp(toolOptions);
     int exitCode = configGen.run();
     System.exit(exitCode);
@@ -489,6 +579,17 @@ public class GeneratorMain {
             .required(false)
             .build();
     options.addOption(enabledArtifactsOption);
+    Option shardCountOption =
+        Option.builder()
+            .longOpt("shard_count")
+            .desc(
+                "Optional. The number of shards in which to generate the resources of the API in "
+                    + "parallel. Defaults to 1.")
+            .hasArg()
+            .argName("SHARD_COUNT")
+            .required(false)
+            .build();
+    options.addOption(shardCountOption);
 
     CommandLine cl = (new DefaultParser()).parse(options, args);
     if (cl.hasOption("help")) {
@@ -516,6 +617,11 @@ public class GeneratorMain {
           GapicGeneratorApp.ENABLED_ARTIFACTS,
           Lists.newArrayList(cl.getOptionValues(enabledArtifactsOption.getLongOpt())));
     }
+    if (cl.hasOption(shardCountOption.getLongOpt())) {
+      toolOptions.set(
+          DiscoGapicGeneratorApp.SHARD_COUNT,
+          Integer.parseInt(cl.getOptionValue(shardCountOption.getLongOpt())));
+    }
     DiscoGapicGeneratorApp codeGen = new DiscoGapicGeneratorApp(toolOptions, artifactType);
     int exitCode = codeGen.run();
     System.exit(exitCode);
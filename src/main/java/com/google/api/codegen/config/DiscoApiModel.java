@@ -15,11 +15,25 @@
 package com.google.api.codegen.config;
 
 import com.google.api.codegen.discovery.Document;
+import com.google.api.codegen.discovery.Method;
+import com.google.api.codegen.discovery.Schema;
 import com.google.api.codegen.util.Name;
 import com.google.api.tools.framework.model.BoundedDiagCollector;
 import com.google.api.tools.framework.model.DiagCollector;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 /**
  * Utility class that provides data from a Discovery document.
@@ -31,6 +45,18 @@ public class DiscoApiModel implements ApiModel {
   private final DiagCollector diagCollector;
   private ImmutableList<DiscoInterfaceModel> interfaceModels;
   private final String defaultPackageName;
+  // The canonical DiscoveryField of each schema node, keyed by schema identity. Each shard has its
+  // own fields, which are released with the shard.
+  private final ConcurrentMap<Schema, DiscoveryField> discoveryFields;
+  private final DiscoveryField.SchemaNamer schemaNamer;
+  // For a shard of the model, the names of the resources, interfaces and top-level schemas that the
+  // shard generates, the names of the interfaces of all the resources, and whether the shard
+  // generates the interfaces which match no resource; null for the whole model.
+  @Nullable private final ImmutableSet<String> shardResources;
+  @Nullable private final ImmutableSet<String> shardInterfaces;
+  @Nullable private final ImmutableSet<String> resourceInterfaces;
+  @Nullable private final ImmutableSet<String> shardSchemas;
+  private final boolean isFirstShard;
 
   @Override
   public String getServiceName() {
@@ -55,17 +81,144 @@ public class DiscoApiModel implements ApiModel {
 
     ImmutableList.Builder<DiscoInterfaceModel> builder = ImmutableList.builder();
     for (String resource : document.resources().keySet()) {
-      String ownerName = document.ownerDomain().split("\\.")[0];
-      String resourceName = Name.anyCamel(resource).toUpperCamel();
-      String interfaceName =
-          String.format(
-              "%s.%s.%s.%s", ownerName, document.name(), document.version(), resourceName);
-      builder.add(new DiscoInterfaceModel(interfaceName, this));
+      if (shardResources == null || shardResources.contains(resource)) {
+        builder.add(new DiscoInterfaceModel(getInterfaceName(resource), this));
+      }
     }
     interfaceModels = builder.build();
     return interfaceModels;
   }
 
+  /** Returns the fully qualified name of the interface generated for the given resource. */
+  public String getInterfaceName(String resource) {
+    String ownerName = document.ownerDomain().split("\\.")[0];
+    String resourceName = Name.anyCamel(resource).toUpperCamel();
+    return String.format(
+        "%s.%s.%s.%s", ownerName, document.name(), document.version(), resourceName);
+  }
+
+  /**
+   * Returns true if this model generates the interface with the given name. A shard generates the
+   * interfaces of its resources, and the first shard also generates the configured interfaces which
+   * match no resource.
+   */
+  public boolean generatesInterface(String interfaceName) {
+    if (shardResources == null) {
+      return true;
+    }
+    return shardInterfaces.contains(interfaceName)
+        || (isFirstShard && !resourceInterfaces.contains(interfaceName));
+  }
+
+  /** Returns the top-level schemas of the document which this model generates. */
+  public Collection<Schema> getGeneratedSchemas() {
+    if (shardSchemas == null) {
+      return document.schemas().values();
+    }
+    return document
+        .schemas()
+        .entrySet()
+        .stream()
+        .filter(entry -> shardSchemas.contains(entry.getKey()))
+        .map(Map.Entry::getValue)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Splits this model into at most {@code shardCount} shards, which can generate their code
+   * independently. The resources are partitioned into contiguous groups. Each shard generates the
+   * interfaces of its resources and the top-level schemas that they reach first; the first shard
+   * also generates the schemas which no resource reaches.
+   *
+   * <p>The shards share the message type names of this model, which are all reserved up front in
+   * document order, so the generated code does not depend on the order in which the shards run.
+   * Each shard creates its own DiscoveryFields as it generates, so a shard which is no longer
+   * referenced does not keep them alive.
+   */
+  public List<DiscoApiModel> shard(int shardCount) {
+    Preconditions.checkArgument(shardCount > 0, "shard count must be positive: %s", shardCount);
+    for (Schema schema : document.schemas().values()) {
+      reserveMessageTypeNames(schema);
+    }
+
+    List<String> resources = new ArrayList<>(document.resources().keySet());
+    int shardSize = Math.max(1, (resources.size() + shardCount - 1) / shardCount);
+    Set<String> reachedSchemas = new HashSet<>();
+    List<ImmutableSet<String>> shardResourceSets = new ArrayList<>();
+    List<Set<String>> shardSchemaSets = new ArrayList<>();
+    for (int start = 0; start < Math.max(resources.size(), 1); start += shardSize) {
+      ImmutableSet<String> shardResourceSet =
+          ImmutableSet.copyOf(
+              resources.subList(start, Math.min(start + shardSize, resources.size())));
+      Set<String> shardSchemaSet = new HashSet<>();
+      for (String resource : shardResourceSet) {
+        for (Method method : document.resources().get(resource)) {
+          addReachedSchemas(method.request(), reachedSchemas, shardSchemaSet);
+          addReachedSchemas(method.response(), reachedSchemas, shardSchemaSet);
+          for (Schema parameter : method.parameters().values()) {
+            addReachedSchemas(parameter, reachedSchemas, shardSchemaSet);
+          }
+        }
+      }
+      shardResourceSets.add(shardResourceSet);
+      shardSchemaSets.add(shardSchemaSet);
+    }
+    for (String schemaName : document.schemas().keySet()) {
+      if (!reachedSchemas.contains(schemaName)) {
+        shardSchemaSets.get(0).add(schemaName);
+      }
+    }
+
+    ImmutableSet<String> resourceInterfaces =
+        resources.stream().map(this::getInterfaceName).collect(ImmutableSet.toImmutableSet());
+    ImmutableList.Builder<DiscoApiModel> shards = ImmutableList.builder();
+    for (int i = 0; i < shardResourceSets.size(); i++) {
+      shards.add(
+          new DiscoApiModel(
+              this,
+              shardResourceSets.get(i),
+              resourceInterfaces,
+              ImmutableSet.copyOf(shardSchemaSets.get(i)),
+              i == 0));
+    }
+    return shards.build();
+  }
+
+  // Reserves the message type names of a schema and of its properties in the order in which the
+  // schema views are generated, which determines the names of message types that only differ by
+  // case.
+  private void reserveMessageTypeNames(Schema schema) {
+    DiscoveryField.reserveTypeName(schema, this);
+    List<Schema> properties = new ArrayList<>(schema.properties().values());
+    if (schema.items() != null) {
+      properties.addAll(schema.items().properties().values());
+    }
+    for (Schema property : properties) {
+      reserveMessageTypeNames(property);
+    }
+  }
+
+  // Adds the names of the top-level schemas reached from the given schema which are not yet in
+  // reachedSchemas to both sets.
+  private void addReachedSchemas(
+      @Nullable Schema schema, Set<String> reachedSchemas, Set<String> shardSchemaSet) {
+    if (schema == null) {
+      return;
+    }
+    if (!Strings.isNullOrEmpty(schema.reference())) {
+      Schema referenced = document.schemas().get(schema.reference());
+      if (referenced != null && reachedSchemas.add(schema.reference())) {
+        shardSchemaSet.add(schema.reference());
+        addReachedSchemas(referenced, reachedSchemas, shardSchemaSet);
+      }
+    }
+    addReachedSchemas(schema.items(), reachedSchemas, shardSchemaSet);
+    addReachedSchemas(schema.additionalProperties(), reachedSchemas, shardSchemaSet);
+    for (Schema property : schema.properties().values()) {
+      addReachedSchemas(property, reachedSchemas, shardSchemaSet);
+    }
+  }
+
   @Override
   public List<? extends TypeModel> getAdditionalTypes() {
     throw new UnsupportedOperationException("Discovery does not support additional types");
@@ -80,6 +233,32 @@ public class DiscoApiModel implements ApiModel {
     this.document = document;
     this.diagCollector = new BoundedDiagCollector();
     this.defaultPackageName = defaultPackageName;
+    this.discoveryFields = new MapMaker().weakKeys().makeMap();
+    this.schemaNamer = new DiscoveryField.SchemaNamer();
+    this.shardResources = null;
+    this.shardInterfaces = null;
+    this.resourceInterfaces = null;
+    this.shardSchemas = null;
+    this.isFirstShard = true;
+  }
+
+  private DiscoApiModel(
+      DiscoApiModel model,
+      ImmutableSet<String> shardResources,
+      ImmutableSet<String> resourceInterfaces,
+      ImmutableSet<String> shardSchemas,
+      boolean isFirstShard) {
+    this.document = model.document;
+    this.diagCollector = model.diagCollector;
+    this.defaultPackageName = model.defaultPackageName;
+    this.discoveryFields = new MapMaker().weakKeys().makeMap();
+    this.schemaNamer = model.schemaNamer;
+    this.shardResources = shardResources;
+    this.shardInterfaces =
+        shardResources.stream().map(this::getInterfaceName).collect(ImmutableSet.toImmutableSet());
+    this.resourceInterfaces = resourceInterfaces;
+    this.shardSchemas = shardSchemas;
+    this.isFirstShard = isFirstShard;
   }
 
   public Document getDocument() {
@@ -114,4 +293,12 @@ public class DiscoApiModel implements ApiModel {
   public String getDefaultPackageName() {
     return defaultPackageName;
   }
+
+  ConcurrentMap<Schema, DiscoveryField> getDiscoveryFields() {
+    return discoveryFields;
+  }
+
+  DiscoveryField.SchemaNamer getSchemaNamer() {
+    return schemaNamer;
+  }
 }
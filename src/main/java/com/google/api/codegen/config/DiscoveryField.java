@@ -32,7 +32,6 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -44,7 +43,8 @@ import javax.annotation.Nullable;
 public class DiscoveryField implements FieldModel, TypeModel {
   private static final String DEFAULT_NAMESPACE = "com.google.api.codegen.discovery";
 
-  private final List<DiscoveryField> properties;
+  // Fields of the properties of the dereferenced schema, created on first use.
+  private volatile List<DiscoveryField> properties;
   private final DiscoApiModel apiModel;
   private final String namespace;
   // Dereferenced schema to use for rendering type names and determining properties, type, and
@@ -57,6 +57,9 @@ public class DiscoveryField implements FieldModel, TypeModel {
   // For message-type Fields, this will be unique per namespace, as defined by apiModel.
   private final String typeName;
 
+  // Name of this field as a parameter, created on first use.
+  private volatile Name nameAsParameter;
+
   // Comparator for Schemas that have children schemas.
   private static Comparator<Schema> messageSchemaComparator =
       Comparator.comparing(Schema::getIdentifier);
@@ -64,10 +67,6 @@ public class DiscoveryField implements FieldModel, TypeModel {
   private static Comparator<String> caseInsensitiveComparator =
       (String s1, String s2) -> s1.compareToIgnoreCase(s2);
 
-  // For each namespace, stores the symbol table and table of schemas and their names to
-  // ensure unique message type names for each namespace.
-  private static Map<String, SchemaNamer> namespaceToSchemaNamer = new HashMap<>();
-
   /**
    * Create a FieldModel object from a non-null Schema object, and internally dereference the input
    * schema.
@@ -89,26 +88,50 @@ public class DiscoveryField implements FieldModel, TypeModel {
     this.namespace = apiModel == null ? DEFAULT_NAMESPACE : apiModel.getDefaultPackageName();
     if (isTopLevelSchema(schema) && apiModel != null) {
       // Within this namespace, get a unique name for this message-type schema.
-      SchemaNamer messageNamer =
-          namespaceToSchemaNamer.computeIfAbsent(namespace, k -> new SchemaNamer());
-      simpleName = messageNamer.getSchemaName(schema, simpleName);
+      simpleName = apiModel.getSchemaNamer().getSchemaName(schema, simpleName);
     }
     this.typeName = simpleName;
-
-    ImmutableList.Builder<DiscoveryField> propertiesBuilder = ImmutableList.builder();
-    for (Schema child : this.schema.properties().values()) {
-      propertiesBuilder.add(DiscoveryField.create(child, apiModel));
-    }
-    this.properties = propertiesBuilder.build();
   }
 
-  /** Create a FieldModel object from a non-null Schema object. */
-  public static synchronized DiscoveryField create(Schema schema, DiscoApiModel rootApiModel) {
-    if (!Strings.isNullOrEmpty(schema.reference()) && rootApiModel != null) {
+  /**
+   * Create a FieldModel object from a non-null Schema object.
+   *
+   * <p>Fields backed by a DiscoApiModel are canonical: the model holds one DiscoveryField per
+   * schema node, which is shared by all the callers.
+   */
+  public static DiscoveryField create(Schema schema, DiscoApiModel rootApiModel) {
+    if (rootApiModel == null) {
+      return new DiscoveryField(schema, null);
+    }
+    Map<Schema, DiscoveryField> fields = rootApiModel.getDiscoveryFields();
+    DiscoveryField field = fields.get(schema);
+    if (field != null) {
+      return field;
+    }
+    if (!Strings.isNullOrEmpty(schema.reference())) {
       // First create a DiscoveryField for the underlying referenced Schema.
       create(schema.dereference(), rootApiModel);
     }
-    return new DiscoveryField(schema, rootApiModel);
+    field = new DiscoveryField(schema, rootApiModel);
+    DiscoveryField existing = fields.putIfAbsent(schema, field);
+    return existing == null ? field : existing;
+  }
+
+  /**
+   * Reserves the message type names of a schema and of the schema it references, in the order in
+   * which creating its DiscoveryField would, without creating the field.
+   */
+  static void reserveTypeName(Schema schema, DiscoApiModel apiModel) {
+    if (!Strings.isNullOrEmpty(schema.reference())) {
+      reserveTypeName(schema.dereference(), apiModel);
+    }
+    Schema dereferenced = schema.dereference();
+    if (isTopLevelSchema(dereferenced)) {
+      apiModel
+          .getSchemaNamer()
+          .getSchemaName(
+              dereferenced, DiscoGapicParser.stringToName(schema.getIdentifier()).toLowerCamel());
+    }
   }
 
   /** @return the JSON identifier for this field, unchanged from the Discovery doc. */
@@ -148,7 +171,12 @@ public class DiscoveryField implements FieldModel, TypeModel {
 
   @Override
   public Name getNameAsParameterName() {
-    return DiscoGapicParser.getFieldNameAsParameter(this);
+    Name name = nameAsParameter;
+    if (name == null) {
+      name = DiscoGapicParser.getFieldNameAsParameter(this);
+      nameAsParameter = name;
+    }
+    return name;
   }
 
   @Override
@@ -337,7 +365,16 @@ public class DiscoveryField implements FieldModel, TypeModel {
 
   @Override
   public List<DiscoveryField> getFields() {
-    return properties;
+    List<DiscoveryField> fields = properties;
+    if (fields == null) {
+      ImmutableList.Builder<DiscoveryField> propertiesBuilder = ImmutableList.builder();
+      for (Schema child : schema.properties().values()) {
+        propertiesBuilder.add(DiscoveryField.create(child, apiModel));
+      }
+      fields = propertiesBuilder.build();
+      properties = fields;
+    }
+    return fields;
   }
 
   @Override
@@ -482,14 +519,15 @@ public class DiscoveryField implements FieldModel, TypeModel {
         && getParentFullName().equals(((DiscoveryField) o).getParentFullName());
   }
 
-  // Util class for getting unique names within namespaces for message type schemas.
-  private class SchemaNamer {
-    private SymbolTable idSymbolTable = new SymbolTable(caseInsensitiveComparator);
+  // Util class for getting unique names within the namespace of a DiscoApiModel for message type
+  // schemas.
+  static class SchemaNamer {
+    private final SymbolTable idSymbolTable = new SymbolTable(caseInsensitiveComparator);
 
     // Stores the escaped name for each message-type schema.
-    private Map<Schema, String> messageNames = new TreeMap<>(messageSchemaComparator);
+    private final Map<Schema, String> messageNames = new TreeMap<>(messageSchemaComparator);
 
-    String getSchemaName(Schema schema, String basename) {
+    synchronized String getSchemaName(Schema schema, String basename) {
       return messageNames.computeIfAbsent(schema, k -> idSymbolTable.getNewSymbol(basename));
     }
   }
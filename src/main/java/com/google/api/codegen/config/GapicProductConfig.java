@@ -28,25 +28,32 @@ import com.google.api.codegen.VisibilityProto;
 import com.google.api.codegen.common.TargetLanguage;
 import com.google.api.codegen.configgen.mergers.LanguageSettingsMerger;
 import com.google.api.codegen.grpc.ServiceConfig;
+import com.google.api.codegen.metacode.InitCodeTreeCache;
 import com.google.api.codegen.samplegen.v1p2.SampleConfigProto;
+import com.google.api.codegen.transformer.DocLinesCache;
 import com.google.api.codegen.util.ConfigVersionValidator;
 import com.google.api.codegen.util.LicenseHeaderUtil;
 import com.google.api.codegen.util.Name;
 import com.google.api.codegen.util.ProtoParser;
 import com.google.api.tools.framework.model.*;
 import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.MapMaker;
 import com.google.protobuf.Api;
 import com.google.protobuf.DescriptorProtos;
 import java.util.*;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 
@@ -119,6 +126,50 @@ public abstract class GapicProductConfig implements ProductConfig {
 
   public abstract Date getGenerationTimestamp();
 
+  /**
+   * Returns the cache of formatted doc lines shared by all the code generators that use this
+   * config.
+   */
+  @Memoized
+  public DocLinesCache getDocLinesCache() {
+    return new DocLinesCache();
+  }
+
+  /**
+   * Returns the cache of typed init code trees shared by all the code generators that use this
+   * config.
+   */
+  @Memoized
+  public InitCodeTreeCache getInitCodeTreeCache() {
+    return new InitCodeTreeCache();
+  }
+
+  /** Method analyses keyed by the identity of their method config. */
+  @Memoized
+  ConcurrentMap<MethodConfig, MethodAnalysis> getMethodAnalyses() {
+    return new MapMaker().weakKeys().makeMap();
+  }
+
+  /**
+   * Returns the language-neutral analysis of the method with the given config. The analysis is
+   * computed once and shared by all the code generators that use this config.
+   */
+  public MethodAnalysis getMethodAnalysis(MethodConfig methodConfig) {
+    return getMethodAnalyses().computeIfAbsent(methodConfig, MethodAnalysis::create);
+  }
+
+  /** Returns the full names of the return and metadata messages of all long-running methods. */
+  @Memoized
+  public ImmutableSet<String> getLongRunningMessageNames() {
+    return getAllLongRunningConfigs()
+        .stream()
+        .flatMap(lro -> Stream.of(lro.getReturnType(), lro.getMetadataType()))
+        .map(t -> ((ProtoTypeRef) t).getProtoType())
+        .map(TypeRef::getMessageType)
+        .map(MessageType::getFullName)
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
   public GapicProductConfig withPackageName(String packageName) {
     return new AutoValue_GapicProductConfig(
         getInterfaceConfigMap(),
@@ -0,0 +1,165 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.config;
+
+import com.google.api.tools.framework.model.Field;
+import com.google.api.tools.framework.model.MessageType;
+import com.google.api.tools.framework.model.Method;
+import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * MethodAnalysis holds the language-neutral facts about a method which are derived from its
+ * MethodConfig: its header request params, paging, long-running, batching and flattening facts. It
+ * is computed once per method and cached on the {@link GapicProductConfig}, and each fact is
+ * memoized, so the transformers of each language only apply naming and type mapping to it.
+ */
+@AutoValue
+public abstract class MethodAnalysis {
+
+  public abstract MethodConfig getMethodConfig();
+
+  static MethodAnalysis create(MethodConfig methodConfig) {
+    return new AutoValue_MethodAnalysis(methodConfig);
+  }
+
+  /**
+   * Returns the request fields referenced by each header request param, keyed by the dotted param
+   * name and ordered from the outermost field to the innermost one. The map is empty for methods
+   * which cannot send header request params.
+   *
+   * @throws IllegalArgumentException if a param references an unknown field.
+   */
+  @Memoized
+  public ImmutableMap<String, ImmutableList<FieldModel>> getHeaderRequestParamFields() {
+    if (!(getMethodConfig() instanceof GapicMethodConfig)) {
+      return ImmutableMap.of();
+    }
+    GapicMethodConfig methodConfig = (GapicMethodConfig) getMethodConfig();
+    Method method = methodConfig.getMethod();
+    if (method.getInputType() == null
+        || !method.getInputType().isMessage()
+        // Request header parameters not supported for methods that stream requests.
+        || method.getRequestStreaming()) {
+      return ImmutableMap.of();
+    }
+
+    MessageType inputMessageType = method.getInputType().getMessageType();
+    ImmutableMap.Builder<String, ImmutableList<FieldModel>> paramFields = ImmutableMap.builder();
+    for (String headerRequestParam : methodConfig.getHeaderRequestParams()) {
+      paramFields.put(
+          headerRequestParam, resolveHeaderRequestParam(headerRequestParam, inputMessageType));
+    }
+    return paramFields.build();
+  }
+
+  /**
+   * Returns the optional field configs of the request, without the request page token field of
+   * page-streaming methods.
+   */
+  @Memoized
+  public ImmutableList<FieldConfig> getOptionalFieldConfigsWithoutPageToken() {
+    MethodConfig methodConfig = getMethodConfig();
+    if (!methodConfig.isPageStreaming()) {
+      return ImmutableList.copyOf(methodConfig.getOptionalFieldConfigs());
+    }
+    FieldModel requestTokenField = methodConfig.getPageStreaming().getRequestTokenField();
+    return methodConfig
+        .getOptionalFieldConfigs()
+        .stream()
+        .filter(fieldConfig -> !fieldConfig.getField().equals(requestTokenField))
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /** Returns true if the method is long-running and its operation has an empty response type. */
+  @Memoized
+  public boolean isEmptyLongRunningResponse() {
+    LongRunningConfig lroConfig = getMethodConfig().getLroConfig();
+    return lroConfig != null && lroConfig.getReturnType().isEmptyType();
+  }
+
+  /** Returns true if the method is long-running and its operation has an empty metadata type. */
+  @Memoized
+  public boolean isEmptyLongRunningMetadata() {
+    LongRunningConfig lroConfig = getMethodConfig().getLroConfig();
+    return lroConfig != null && lroConfig.getMetadataType().isEmptyType();
+  }
+
+  /** Returns the param names of the batching discriminator fields, or an empty list. */
+  @Memoized
+  public ImmutableList<String> getBatchingDiscriminatorParamNames() {
+    if (!getMethodConfig().isBatching()) {
+      return ImmutableList.of();
+    }
+    return getMethodConfig()
+        .getBatching()
+        .getDiscriminatorFields()
+        .stream()
+        .map(GenericFieldSelector::getParamName)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /** Returns the fields selected by the batching discriminators, or an empty list. */
+  @Memoized
+  public ImmutableList<FieldModel> getBatchingPartitionKeyFields() {
+    if (!getMethodConfig().isBatching()) {
+      return ImmutableList.of();
+    }
+    return getMethodConfig()
+        .getBatching()
+        .getDiscriminatorFields()
+        .stream()
+        .map(GenericFieldSelector::getLastField)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /**
+   * Returns the flattening configs of the method, with the repeated resource name fields using
+   * their resource name type in samples only.
+   */
+  @Memoized
+  public ImmutableList<FlatteningConfig> getFlatteningConfigsWithRepeatedResourceInSampleOnly() {
+    if (!getMethodConfig().isFlattening()) {
+      return ImmutableList.of();
+    }
+    return ImmutableList.copyOf(
+        FlatteningConfig.withRepeatedResourceInSampleOnly(
+            getMethodConfig().getFlatteningConfigs()));
+  }
+
+  private static ImmutableList<FieldModel> resolveHeaderRequestParam(
+      String headerRequestParam, MessageType inputMessageType) {
+    ImmutableList.Builder<FieldModel> fields = ImmutableList.builder();
+    MessageType subMessageType = inputMessageType;
+    for (String fieldNameToken : headerRequestParam.split("\\.")) {
+      Field matchingField = subMessageType.lookupField(fieldNameToken);
+      if (matchingField == null) {
+        throw new IllegalArgumentException(
+            "Unknown field name token '"
+                + fieldNameToken
+                + "' in header request param '"
+                + headerRequestParam
+                + "'");
+      }
+      fields.add(new ProtoField(matchingField));
+      if (matchingField.getType() != null && matchingField.getType().isMessage()) {
+        subMessageType = matchingField.getType().getMessageType();
+      }
+    }
+    return fields.build();
+  }
+}
@@ -23,64 +23,92 @@ import com.google.api.codegen.configgen.nodes.ScalarConfigNode;
 import com.google.api.tools.framework.util.VisitsBefore;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
-/** Generates the text of the gapic yaml file from a ConfigNode representation. */
+/**
+ * Generates the text of the gapic yaml file from a ConfigNode representation.
+ *
+ * <p>The text is streamed to a writer line by line, in a single pass over the nodes. The layout of
+ * list items is applied to the lines of their children as they are written, instead of rendering
+ * each child separately and re-indenting its text.
+ */
 public class ConfigGenerator extends NodeVisitor {
   private static final int MAX_LINE_WIDTH = 78;
 
   private static final int TAB_WIDTH = 2;
 
-  private final int indent;
+  private static final String SPACES = Strings.repeat(" ", 64);
+
+  private final Writer writer;
 
-  private final StringBuilder configBuilder = new StringBuilder();
+  private final LineWriter lineWriter;
+
+  private int indent;
 
   public ConfigGenerator(int indent) {
+    this(indent, new StringWriter());
+  }
+
+  /**
+   * Creates a generator writing to the given writer. The last line is only written by {@link
+   * #flush()}.
+   */
+  public ConfigGenerator(int indent, Writer writer) {
     this.indent = indent;
+    this.writer = writer;
+    this.lineWriter = new LineWriter(writer);
   }
 
   @VisitsBefore
   void generate(FieldConfigNode node) {
     appendComment(node.getComment().generate());
-    appendIndent();
+    ConfigNode child = node.getChild();
 
     if (node.getText().isEmpty()) {
-      configBuilder.append(visitFieldValue(indent, node.getChild()).trim());
+      // The value is written in place of the key, without its surrounding whitespace.
+      lineWriter.startTrimmedValue(spaces(indent));
+      if (child.isPresent()) {
+        visit(child);
+      } else {
+        lineWriter.writeLine("[]");
+      }
+      lineWriter.endTrimmedValue(false);
+    } else if (!child.isPresent()) {
+      lineWriter.writeLine(spaces(indent) + node.getText() + ": []");
+    } else if (child instanceof ScalarConfigNode) {
+      lineWriter.startTrimmedValue(spaces(indent) + node.getText() + ": ");
+      visitChild(child);
+      lineWriter.endTrimmedValue(true);
     } else {
-      configBuilder
-          .append(node.getText())
-          .append(":")
-          .append(visitFieldValue(indent + TAB_WIDTH, node.getChild()));
+      lineWriter.writeLine(spaces(indent) + node.getText() + ":");
+      visitChild(child);
     }
   }
 
   @VisitsBefore
   void generate(ListItemConfigNode node) {
     appendComment(node.getComment().generate());
-    ConfigGenerator childGenerator = new ConfigGenerator(indent);
-    childGenerator.visit(node.getChild());
-    String child = childGenerator.toString().trim();
-    boolean isFirst = true;
-    for (String line : Splitter.on(System.lineSeparator()).split(child)) {
-      if (!isFirst) {
-        configBuilder.append(whitespace().trimTrailingFrom(line));
-      } else if (line.trim().startsWith("#")) {
-        configBuilder.append(whitespace().trimTrailingFrom(line));
-      } else {
-        configBuilder
-            .append(Strings.repeat(" ", indent - TAB_WIDTH))
-            .append("- ")
-            .append(line.trim());
-        isFirst = false;
-      }
-      configBuilder.append(System.lineSeparator());
-    }
+    lineWriter.startListItem(spaces(indent - TAB_WIDTH) + "- ");
+    visit(node.getChild());
+    lineWriter.endListItem();
   }
 
   @VisitsBefore
   void generate(ScalarConfigNode node) {
-    appendIndent().append(node.getText()).append(System.lineSeparator());
+    lineWriter.writeLine(spaces(indent) + node.getText());
+  }
+
+  private void visitChild(ConfigNode child) {
+    indent += TAB_WIDTH;
+    visit(child);
+    indent -= TAB_WIDTH;
   }
 
   private void appendComment(String comment) {
@@ -91,13 +119,12 @@ public class ConfigGenerator extends NodeVisitor {
     for (String commentLine : Splitter.on("\n").split(comment)) {
       int startIndex = whitespace().negate().indexIn(commentLine);
       if (startIndex < 0) {
-        appendIndent().append("#").append(System.lineSeparator());
+        lineWriter.writeLine(spaces(indent) + "#");
         continue;
       }
 
       for (String line : breakLine(commentLine.trim(), MAX_LINE_WIDTH - indent - startIndex)) {
-        appendIndent().append("# ");
-        appendIndent(startIndex).append(line).append(System.lineSeparator());
+        lineWriter.writeLine(spaces(indent) + "# " + spaces(startIndex) + line);
       }
     }
   }
@@ -127,31 +154,192 @@ public class ConfigGenerator extends NodeVisitor {
     return line.length();
   }
 
-  private StringBuilder appendIndent() {
-    return appendIndent(indent);
+  private static String spaces(int count) {
+    return count <= SPACES.length() ? SPACES.substring(0, count) : Strings.repeat(" ", count);
+  }
+
+  /** Writes the last line, which is held back until it is known how it ends. */
+  public void flush() {
+    lineWriter.flush();
+  }
+
+  /** Returns the generated text, if this generator writes to a string. */
+  @Override
+  public String toString() {
+    flush();
+    return writer.toString();
+  }
+
+  /**
+   * Writes lines, applying the layout of the list items and trimmed values they are nested in.
+   *
+   * <p>A list item removes the leading whitespace of the first line of its child, keeps the comment
+   * lines before the first other line, puts that line after its "- " marker, and removes the
+   * trailing whitespace of the following lines. A trimmed value removes the leading whitespace of
+   * its first line and the trailing whitespace of its last one, which may be left unterminated.
+   * Only the innermost layouts which have not yet seen their first line change a line, so each line
+   * is written in constant time regardless of the nesting depth.
+   */
+  private static class LineWriter {
+    private final Writer writer;
+
+    /** The layouts being applied, innermost first. */
+    private final Deque<Layout> layouts = new ArrayDeque<>();
+
+    private int listItemCount;
+
+    private String heldLine;
+
+    private boolean joinNextLine;
+
+    LineWriter(Writer writer) {
+      this.writer = writer;
+    }
+
+    void startListItem(String marker) {
+      layouts.push(new ListItemLayout(marker));
+      ++listItemCount;
+    }
+
+    void endListItem() {
+      ListItemLayout listItem = (ListItemLayout) layouts.pop();
+      --listItemCount;
+      if (listItem.firstLine) {
+        // The child was empty, so the line is just the marker.
+        writeLine(listItem.marker);
+      }
+    }
+
+    void startTrimmedValue(String prefix) {
+      layouts.push(new TrimmedValueLayout(prefix));
+    }
+
+    void endTrimmedValue(boolean terminated) {
+      layouts.pop();
+      if (heldLine != null) {
+        heldLine = whitespace().trimTrailingFrom(heldLine);
+        joinNextLine = !terminated;
+      }
+    }
+
+    void writeLine(String text) {
+      if (text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+        writeSingleLine(text);
+        return;
+      }
+      for (String line : Splitter.on(System.lineSeparator()).split(text)) {
+        writeSingleLine(line);
+      }
+    }
+
+    private void writeSingleLine(String line) {
+      int passThroughListItems = listItemCount;
+      for (Layout layout : layouts) {
+        if (!layout.isPending()) {
+          if (layout instanceof ListItemLayout) {
+            // Every layout beyond has seen its first line too.
+            break;
+          }
+          continue;
+        }
+        if (layout instanceof ListItemLayout) {
+          --passThroughListItems;
+        }
+        line = layout.apply(line);
+      }
+      if (passThroughListItems > 0) {
+        line = whitespace().trimTrailingFrom(line);
+      }
+
+      if (joinNextLine) {
+        heldLine += line;
+        joinNextLine = false;
+        return;
+      }
+      if (heldLine != null) {
+        write(heldLine);
+        write(System.lineSeparator());
+      }
+      heldLine = line;
+    }
+
+    void flush() {
+      if (heldLine != null) {
+        write(heldLine);
+        if (!joinNextLine) {
+          write(System.lineSeparator());
+        }
+        heldLine = null;
+        joinNextLine = false;
+      }
+      try {
+        writer.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private void write(String text) {
+      try {
+        writer.write(text);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
   }
 
-  private StringBuilder appendIndent(int indent) {
-    return configBuilder.append(Strings.repeat(" ", indent));
+  private interface Layout {
+    /** Returns true if the layout may still change the lines written into it. */
+    boolean isPending();
+
+    String apply(String line);
   }
 
-  private String visitFieldValue(int indent, ConfigNode childNode) {
-    if (!childNode.isPresent()) {
-      return String.format(" []%n");
+  private static class ListItemLayout implements Layout {
+    private final String marker;
+    private boolean firstLine = true;
+    private boolean pending = true;
+
+    ListItemLayout(String marker) {
+      this.marker = marker;
     }
 
-    ConfigGenerator childGenerator = new ConfigGenerator(indent);
-    childGenerator.visit(childNode);
-    String child = childGenerator.toString();
-    if (childNode instanceof ScalarConfigNode) {
-      return String.format(" %s%n", child.trim());
+    @Override
+    public boolean isPending() {
+      return pending;
     }
 
-    return System.lineSeparator() + child;
+    @Override
+    public String apply(String line) {
+      if (firstLine) {
+        line = whitespace().trimLeadingFrom(line);
+        firstLine = false;
+      }
+      if (line.trim().startsWith("#")) {
+        return whitespace().trimTrailingFrom(line);
+      }
+      pending = false;
+      return marker + line.trim();
+    }
   }
 
-  @Override
-  public String toString() {
-    return configBuilder.toString();
+  private static class TrimmedValueLayout implements Layout {
+    private final String prefix;
+    private boolean pending = true;
+
+    TrimmedValueLayout(String prefix) {
+      this.prefix = prefix;
+    }
+
+    @Override
+    public boolean isPending() {
+      return pending;
+    }
+
+    @Override
+    public String apply(String line) {
+      pending = false;
+      return prefix + whitespace().trimLeadingFrom(line);
+    }
   }
 }
@@ -35,7 +35,9 @@ public class ConfigHelper {
   }
 
   public int getErrorCount() {
-    return diag.getErrorCount();
+    synchronized (diag) {
+      return diag.getErrorCount();
+    }
   }
 
   public void error(Node node, String message, Object... params) {
@@ -55,7 +57,10 @@ public class ConfigHelper {
   }
 
   public void error(Location location, String message, Object... params) {
-    diag.addDiag(Diag.error(location, message, params));
+    // The interfaces of a config may be merged on several threads.
+    synchronized (diag) {
+      diag.addDiag(Diag.error(location, message, params));
+    }
   }
 
   public int getStartLine(Node node) {
@@ -16,10 +16,13 @@ package com.google.api.codegen.configgen;
 
 import com.google.api.codegen.common.GeneratedResult;
 import com.google.api.codegen.config.DiscoApiModel;
+import com.google.api.codegen.configgen.mergers.DiscoConfigMerger;
 import com.google.api.codegen.configgen.transformer.DiscoConfigTransformer;
 import com.google.api.codegen.discogapic.DiscoGapicGeneratorApp;
 import com.google.api.codegen.discogapic.DocumentGenerator;
+import com.google.api.codegen.discogapic.transformer.DiscoGapicParser;
 import com.google.api.codegen.discovery.Document;
+import com.google.api.codegen.discovery.Method;
 import com.google.api.codegen.rendering.CommonSnippetSetRunner;
 import com.google.api.codegen.util.CommonRenderingUtil;
 import com.google.api.codegen.viewmodel.ViewModel;
@@ -31,9 +34,20 @@ import com.google.api.tools.framework.tools.GenericToolDriverBase;
 import com.google.api.tools.framework.tools.ToolOptions;
 import com.google.api.tools.framework.tools.ToolOptions.Option;
 import com.google.api.tools.framework.tools.ToolUtil;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -51,6 +65,21 @@ public class DiscoConfigGeneratorApp extends GenericToolDriverBase {
       ToolOptions.createOption(
           String.class, "output_file", "The path of the output file to put generated config.", "");
 
+  public static final Option<String> PREVIOUS_DISCOVERY_DOC =
+      ToolOptions.createOption(
+          String.class,
+          "previous_discovery_doc",
+          "The Discovery doc from which the previous config was generated. If set together with "
+              + "previous_config, only the interfaces of changed resources are regenerated.",
+          "");
+
+  public static final Option<String> PREVIOUS_CONFIG =
+      ToolOptions.createOption(
+          String.class,
+          "previous_config",
+          "The config previously generated from previous_discovery_doc.",
+          "");
+
   /** Constructs a config generator api based on given options. */
   public DiscoConfigGeneratorApp(ToolOptions options) {
     super(options);
@@ -63,11 +92,66 @@ public class DiscoConfigGeneratorApp extends GenericToolDriverBase {
     ToolUtil.writeFiles(outputFiles, "");
   }
 
-  private Map<String, Doc> generateConfig(String outputPath) {
-    Document document =
-        setupDocument(options.get(DiscoGapicGeneratorApp.DISCOVERY_DOC), getDiagCollector());
-    ViewModel viewModel =
-        new DiscoConfigTransformer().generateConfig(new DiscoApiModel(document, ""), outputPath);
+  private Map<String, Doc> generateConfig(String outputPath) throws IOException {
+    String discoveryDocPath = options.get(DiscoGapicGeneratorApp.DISCOVERY_DOC);
+    Document document = setupDocument(discoveryDocPath, getDiagCollector());
+    DiscoApiModel model = new DiscoApiModel(document, "");
+    String previousDocPath = options.get(PREVIOUS_DISCOVERY_DOC);
+    String previousConfigPath = options.get(PREVIOUS_CONFIG);
+    if (Strings.isNullOrEmpty(previousDocPath) || Strings.isNullOrEmpty(previousConfigPath)) {
+      return renderConfig(model, outputPath, document.resources().keySet());
+    }
+
+    DiscoConfigMerger previousConfig =
+        DiscoConfigMerger.parse(
+            new String(Files.readAllBytes(Paths.get(previousConfigPath)), StandardCharsets.UTF_8));
+    DiscoveryDocumentDiff diff;
+    try (Reader previousDoc = Files.newBufferedReader(Paths.get(previousDocPath));
+        Reader currentDoc = Files.newBufferedReader(Paths.get(discoveryDocPath))) {
+      diff = DiscoveryDocumentDiff.from(previousDoc, currentDoc);
+    }
+    Document previousDocument = setupDocument(previousDocPath, getDiagCollector());
+    if (previousConfig == null || previousDocument == null || diff.hasDocumentChanges()) {
+      // The previous config cannot be reused, so regenerate it from scratch.
+      return renderConfig(model, outputPath, document.resources().keySet());
+    }
+
+    // A resource is also regenerated if the entity names of its collections changed, even if the
+    // diff of its methods is empty.
+    DiscoConfigTransformer transformer = new DiscoConfigTransformer();
+    Map<String, Map<String, String>> previousCollections =
+        transformer.getResourceCollections(previousDocument);
+    Map<String, Map<String, String>> collections = transformer.getResourceCollections(document);
+
+    Set<String> changedResources = new HashSet<>(diff.getChangedResources());
+    List<String> interfaceNames = new ArrayList<>();
+    List<String> messageNames = new ArrayList<>();
+    for (Map.Entry<String, List<Method>> resource : document.resources().entrySet()) {
+      String resourceName = resource.getKey();
+      String interfaceName = model.getInterfaceName(resourceName);
+      if (!previousConfig.hasInterface(interfaceName)
+          || !collections.get(resourceName).equals(previousCollections.get(resourceName))) {
+        changedResources.add(resourceName);
+      }
+      interfaceNames.add(interfaceName);
+      for (Method method : resource.getValue()) {
+        if (!Strings.isNullOrEmpty(method.path())) {
+          messageNames.add(DiscoGapicParser.getRequestName(method).toUpperCamel());
+        }
+      }
+    }
+
+    Doc regeneratedDoc = renderConfig(model, outputPath, changedResources).get(outputPath);
+    DiscoConfigMerger regeneratedConfig = DiscoConfigMerger.parse(regeneratedDoc.prettyPrint());
+    Preconditions.checkState(regeneratedConfig != null, "Failed to parse the generated config.");
+    String mergedConfig =
+        previousConfig.mergeConfig(regeneratedConfig, interfaceNames, messageNames);
+    return ImmutableMap.of(outputPath, Doc.text(mergedConfig));
+  }
+
+  private Map<String, Doc> renderConfig(
+      DiscoApiModel model, String outputPath, Set<String> resources) {
+    ViewModel viewModel = new DiscoConfigTransformer().generateConfig(model, outputPath, resources);
     Map<String, GeneratedResult<Doc>> generatedConfig =
         new CommonSnippetSetRunner(new CommonRenderingUtil(), true).generate(viewModel);
     return GeneratedResult.extractBodies(generatedConfig);
@@ -0,0 +1,135 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.configgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares two revisions of a Discovery document to find the top-level resources whose generated
+ * config may differ between them.
+ *
+ * <p>The comparison is made on the raw JSON trees, since the parsed Discovery model compares
+ * methods and schemas by name only. A resource is changed if its own subtree changed, or if any
+ * schema it references, directly or transitively, changed.
+ */
+public class DiscoveryDocumentDiff {
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+  /** Top-level properties which are either compared per resource or do not affect the config. */
+  private static final ImmutableSet<String> PER_RESOURCE_PROPERTIES =
+      ImmutableSet.of("resources", "schemas", "revision", "etag");
+
+  private static final String REF_PROPERTY = "$ref";
+
+  private final JsonNode previous;
+  private final JsonNode current;
+
+  private DiscoveryDocumentDiff(JsonNode previous, JsonNode current) {
+    this.previous = previous;
+    this.current = current;
+  }
+
+  public static DiscoveryDocumentDiff from(Reader previous, Reader current) throws IOException {
+    return new DiscoveryDocumentDiff(JSON_MAPPER.readTree(previous), JSON_MAPPER.readTree(current));
+  }
+
+  /**
+   * Returns true if a property shared by every interface changed, such as the document name or its
+   * top-level methods. Every resource must then be regenerated.
+   */
+  public boolean hasDocumentChanges() {
+    return !withoutPerResourceProperties(previous).equals(withoutPerResourceProperties(current));
+  }
+
+  /** Returns the resources of the current document which were added or changed, in order. */
+  public Set<String> getChangedResources() {
+    Set<String> changedSchemas = getChangedSchemas();
+    Set<String> changedResources = new LinkedHashSet<>();
+    Iterator<Map.Entry<String, JsonNode>> resources = current.path("resources").fields();
+    while (resources.hasNext()) {
+      Map.Entry<String, JsonNode> resource = resources.next();
+      JsonNode previousResource = previous.path("resources").get(resource.getKey());
+      if (!resource.getValue().equals(previousResource)
+          || referencesAny(resource.getValue(), changedSchemas)) {
+        changedResources.add(resource.getKey());
+      }
+    }
+    return changedResources;
+  }
+
+  private Set<String> getChangedSchemas() {
+    Set<String> changedSchemas = new HashSet<>();
+    Iterator<Map.Entry<String, JsonNode>> schemas = current.path("schemas").fields();
+    while (schemas.hasNext()) {
+      Map.Entry<String, JsonNode> schema = schemas.next();
+      if (!schema.getValue().equals(previous.path("schemas").get(schema.getKey()))) {
+        changedSchemas.add(schema.getKey());
+      }
+    }
+    return changedSchemas;
+  }
+
+  /**
+   * Returns true if root references one of the given schemas, following references transitively.
+   */
+  private boolean referencesAny(JsonNode root, Set<String> schemaNames) {
+    if (schemaNames.isEmpty()) {
+      return false;
+    }
+    Set<String> visited = new HashSet<>();
+    Deque<JsonNode> pending = new ArrayDeque<>();
+    pending.push(root);
+    while (!pending.isEmpty()) {
+      JsonNode node = pending.pop();
+      JsonNode ref = node.get(REF_PROPERTY);
+      if (ref != null && ref.isTextual() && visited.add(ref.asText())) {
+        if (schemaNames.contains(ref.asText())) {
+          return true;
+        }
+        JsonNode schema = current.path("schemas").get(ref.asText());
+        if (schema != null) {
+          pending.push(schema);
+        }
+      }
+      for (JsonNode child : node) {
+        if (child.isContainerNode()) {
+          pending.push(child);
+        }
+      }
+    }
+    return false;
+  }
+
+  private static JsonNode withoutPerResourceProperties(JsonNode root) {
+    if (!root.isObject()) {
+      return root;
+    }
+    ObjectNode copy = ((ObjectNode) root).deepCopy();
+    copy.remove(PER_RESOURCE_PROPERTIES);
+    return copy;
+  }
+}
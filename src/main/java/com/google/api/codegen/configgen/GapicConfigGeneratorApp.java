@@ -21,9 +21,15 @@ import com.google.api.tools.framework.model.stages.Merged;
 import com.google.api.tools.framework.tools.ToolDriverBase;
 import com.google.api.tools.framework.tools.ToolOptions;
 import com.google.api.tools.framework.tools.ToolOptions.Option;
-import com.google.api.tools.framework.tools.ToolUtil;
-import com.google.common.collect.ImmutableMap;
-import java.util.Map;
+import com.google.common.base.Strings;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
 
 /** Main class for the config generator. */
 public class GapicConfigGeneratorApp extends ToolDriverBase {
@@ -32,6 +38,21 @@ public class GapicConfigGeneratorApp extends ToolDriverBase {
       ToolOptions.createOption(
           String.class, "output_file", "The path of the output file to put generated config.", "");
 
+  public static final Option<Integer> THREAD_COUNT =
+      ToolOptions.createOption(
+          Integer.class,
+          "thread_count",
+          "The number of threads on which the interfaces of the API are generated in parallel.",
+          1);
+
+  public static final Option<String> LATENCY_PROFILE =
+      ToolOptions.createOption(
+          String.class,
+          "latency_profile",
+          "A CSV or JSON file of the observed latency percentiles and error code rates of methods, "
+              + "from which their retry and timeout settings are synthesized.",
+          "");
+
   /** Constructs a config generator api based on given options. */
   public GapicConfigGeneratorApp(ToolOptions options) {
     super(options);
@@ -40,22 +61,73 @@ public class GapicConfigGeneratorApp extends ToolDriverBase {
   @Override
   protected void process() throws Exception {
     model.establishStage(Merged.KEY);
-    if (model.getDiagReporter().getDiagCollector().getErrorCount() > 0) {
-      for (Diag diag : model.getDiagReporter().getDiagCollector().getDiags()) {
-        System.err.println(diag.toString());
-      }
+    if (reportErrors()) {
       return;
     }
 
     String outputPath = options.get(OUTPUT_FILE);
-    Map<String, String> outputFiles = generateConfig(outputPath);
-    ToolUtil.writeFiles(outputFiles, "");
+    String latencyProfilePath = options.get(LATENCY_PROFILE);
+    LatencyProfile latencyProfile =
+        Strings.isNullOrEmpty(latencyProfilePath)
+            ? LatencyProfile.empty()
+            : LatencyProfile.read(Paths.get(latencyProfilePath));
+    ConfigNode node =
+        new ProtoConfigMerger()
+            .mergeConfig(model, outputPath, options.get(THREAD_COUNT), latencyProfile);
+    // Nothing is written if the config could not be merged, so an existing config is kept.
+    if (reportErrors() || node == null) {
+      return;
+    }
+
+    Path outputFile = Paths.get(outputPath).toAbsolutePath();
+    Files.createDirectories(outputFile.getParent());
+    // Stream into a temporary file next to the output, so that a failure does not leave a
+    // partially written config behind.
+    Path tempFile = createTempFile(outputFile);
+    try {
+      try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        ConfigGenerator configGenerator = new ConfigGenerator(0, writer);
+        configGenerator.visit(node);
+        configGenerator.flush();
+      }
+      Files.move(tempFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Creates a temporary file next to the given output file. Its permissions are those of the output
+   * file if it exists, and the default ones for a new file otherwise, rather than the owner-only
+   * permissions of {@link Files#createTempFile}.
+   */
+  private static Path createTempFile(Path outputFile) throws IOException {
+    Path directory = outputFile.getParent();
+    String prefix = outputFile.getFileName().toString();
+    if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      return Files.createTempFile(directory, prefix, ".tmp");
+    }
+    // The umask is applied to the requested permissions, as for any new file.
+    Path tempFile =
+        Files.createTempFile(
+            directory,
+            prefix,
+            ".tmp",
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-rw-rw-")));
+    if (Files.exists(outputFile)) {
+      Files.setPosixFilePermissions(tempFile, Files.getPosixFilePermissions(outputFile));
+    }
+    return tempFile;
   }
 
-  private Map<String, String> generateConfig(String outputPath) {
-    ConfigNode node = new ProtoConfigMerger().mergeConfig(model, outputPath);
-    ConfigGenerator configGenerator = new ConfigGenerator(0);
-    configGenerator.visit(node);
-    return ImmutableMap.of(outputPath, configGenerator.toString());
+  /** Prints the errors reported so far, and returns true if there were any. */
+  private boolean reportErrors() {
+    if (model.getDiagReporter().getDiagCollector().getErrorCount() == 0) {
+      return false;
+    }
+    for (Diag diag : model.getDiagReporter().getDiagCollector().getDiags()) {
+      System.err.println(diag.toString());
+    }
+    return true;
   }
 }
@@ -0,0 +1,298 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.configgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.grpc.Status;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/**
+ * The observed latency percentiles and error code rates of the methods of an API, from which
+ * per-method retry and timeout settings are synthesized.
+ *
+ * <p>The profile is read from a CSV file, or from a JSON file if its name ends with ".json". A CSV
+ * file starts with a header line naming its columns: "method", "p99_millis", optionally
+ * "p50_millis", and one column per gRPC status code, such as "UNAVAILABLE", holding the fraction of
+ * the calls which failed with that code:
+ *
+ * <pre>
+ * method,p50_millis,p99_millis,UNAVAILABLE,RESOURCE_EXHAUSTED
+ * google.example.library.v1.LibraryService.GetBook,20,250,0.002,0
+ * </pre>
+ *
+ * <p>A JSON file maps each method to the same values, with the error code rates in an object:
+ *
+ * <pre>
+ * {"google.example.library.v1.LibraryService.GetBook":
+ *     {"p50_millis": 20, "p99_millis": 250, "error_rates": {"UNAVAILABLE": 0.002}}}
+ * </pre>
+ *
+ * <p>Methods are named by their fully qualified name; the gRPC form "package.Service/Method" is
+ * accepted too.
+ */
+public class LatencyProfile {
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+  private static final String METHOD_COLUMN = "method";
+  private static final String P50_COLUMN = "p50_millis";
+  private static final String P99_COLUMN = "p99_millis";
+  private static final String ERROR_RATES_FIELD = "error_rates";
+
+  private final String fileName;
+  private final ImmutableMap<String, MethodLatency> methods;
+
+  private LatencyProfile(String fileName, Map<String, MethodLatency> methods) {
+    this.fileName = fileName;
+    this.methods = ImmutableMap.copyOf(methods);
+  }
+
+  /** Returns a profile without any method, for which the default retry settings are used. */
+  public static LatencyProfile empty() {
+    return new LatencyProfile("", ImmutableMap.<String, MethodLatency>of());
+  }
+
+  public static LatencyProfile read(Path path) throws IOException {
+    String content = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    return path.toString().endsWith(".json")
+        ? parseJson(content, path.toString())
+        : parseCsv(content, path.toString());
+  }
+
+  /** Returns the profile of the method with the given fully qualified name, if any. */
+  @Nullable
+  public MethodLatency getMethodLatency(String methodFullName) {
+    return methods.get(methodFullName);
+  }
+
+  /** Returns the name of the file the profile was read from, or an empty string. */
+  public String getFileName() {
+    return fileName;
+  }
+
+  /**
+   * Returns the methods of the profile which are not among the given fully qualified method names,
+   * in name order. Such methods are most likely misspelled, and would silently get the default
+   * retry settings.
+   */
+  public List<String> getUnknownMethods(Set<String> methodFullNames) {
+    List<String> unknownMethods = new ArrayList<>();
+    for (String method : methods.keySet()) {
+      if (!methodFullNames.contains(method)) {
+        unknownMethods.add(method);
+      }
+    }
+    return unknownMethods;
+  }
+
+  static LatencyProfile parseCsv(String content, String fileName) {
+    List<String> lines = Splitter.onPattern("\r?\n").omitEmptyStrings().splitToList(content);
+    if (lines.isEmpty()) {
+      return new LatencyProfile(fileName, ImmutableMap.<String, MethodLatency>of());
+    }
+
+    List<String> columns = splitCsvLine(lines.get(0));
+    int methodIndex = columns.indexOf(METHOD_COLUMN);
+    int p99Index = columns.indexOf(P99_COLUMN);
+    if (methodIndex < 0 || p99Index < 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "%s: the header must name the '%s' and '%s' columns",
+              fileName, METHOD_COLUMN, P99_COLUMN));
+    }
+    for (String column : columns) {
+      if (!column.equals(METHOD_COLUMN)
+          && !column.equals(P50_COLUMN)
+          && !column.equals(P99_COLUMN)) {
+        checkStatusCode(column, fileName + ":1");
+      }
+    }
+
+    Map<String, MethodLatency> methods = new TreeMap<>();
+    for (int lineIndex = 1; lineIndex < lines.size(); ++lineIndex) {
+      String location = fileName + ":" + (lineIndex + 1);
+      List<String> values = splitCsvLine(lines.get(lineIndex));
+      if (values.size() != columns.size()) {
+        throw new IllegalArgumentException(
+            String.format(
+                "%s: expected %d values, found %d", location, columns.size(), values.size()));
+      }
+
+      MethodLatency.Builder latency = MethodLatency.newBuilder();
+      ImmutableMap.Builder<String, Double> errorRates = ImmutableMap.builder();
+      for (int i = 0; i < columns.size(); ++i) {
+        String column = columns.get(i);
+        String value = values.get(i);
+        if (i == methodIndex || value.isEmpty()) {
+          continue;
+        }
+        if (column.equals(P50_COLUMN)) {
+          latency.p50Millis(parseMillis(value, location));
+        } else if (column.equals(P99_COLUMN)) {
+          latency.p99Millis(parseMillis(value, location));
+        } else {
+          errorRates.put(column, parseRate(value, location));
+        }
+      }
+      putMethod(methods, values.get(methodIndex), latency.errorRates(errorRates.build()), location);
+    }
+    return new LatencyProfile(fileName, methods);
+  }
+
+  static LatencyProfile parseJson(String content, String fileName) {
+    JsonNode root;
+    try {
+      root = JSON_MAPPER.readTree(content);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(fileName + ": invalid JSON: " + e.getMessage(), e);
+    }
+    if (root == null) {
+      return new LatencyProfile(fileName, ImmutableMap.<String, MethodLatency>of());
+    }
+    if (!root.isObject()) {
+      throw new IllegalArgumentException(fileName + ": expected an object of methods");
+    }
+
+    Map<String, MethodLatency> methods = new TreeMap<>();
+    for (Iterator<Map.Entry<String, JsonNode>> it = root.fields(); it.hasNext(); ) {
+      Map.Entry<String, JsonNode> method = it.next();
+      String location = fileName + ": method " + method.getKey();
+      JsonNode values = method.getValue();
+      MethodLatency.Builder latency = MethodLatency.newBuilder();
+      if (values.has(P50_COLUMN)) {
+        latency.p50Millis(parseMillis(values.get(P50_COLUMN).asText(), location));
+      }
+      if (values.has(P99_COLUMN)) {
+        latency.p99Millis(parseMillis(values.get(P99_COLUMN).asText(), location));
+      }
+      ImmutableMap.Builder<String, Double> errorRates = ImmutableMap.builder();
+      JsonNode errorRatesNode = values.path(ERROR_RATES_FIELD);
+      for (Iterator<Map.Entry<String, JsonNode>> rates = errorRatesNode.fields();
+          rates.hasNext(); ) {
+        Map.Entry<String, JsonNode> rate = rates.next();
+        checkStatusCode(rate.getKey(), location);
+        errorRates.put(rate.getKey(), parseRate(rate.getValue().asText(), location));
+      }
+      putMethod(methods, method.getKey(), latency.errorRates(errorRates.build()), location);
+    }
+    return new LatencyProfile(fileName, methods);
+  }
+
+  private static void putMethod(
+      Map<String, MethodLatency> methods,
+      String methodName,
+      MethodLatency.Builder latency,
+      String location) {
+    String fullName = methodName.replace('/', '.');
+    if (Strings.isNullOrEmpty(fullName)) {
+      throw new IllegalArgumentException(location + ": missing method name");
+    }
+    if (methods.containsKey(fullName)) {
+      throw new IllegalArgumentException(location + ": duplicate method " + fullName);
+    }
+    try {
+      methods.put(fullName, latency.build());
+    } catch (IllegalStateException e) {
+      throw new IllegalArgumentException(location + ": missing " + P99_COLUMN, e);
+    }
+  }
+
+  private static List<String> splitCsvLine(String line) {
+    return ImmutableList.copyOf(Splitter.on(',').trimResults().split(line));
+  }
+
+  private static void checkStatusCode(String code, String location) {
+    try {
+      Status.Code.valueOf(code);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+          String.format("%s: '%s' is neither a column nor a gRPC status code", location, code));
+    }
+  }
+
+  private static long parseMillis(String value, String location) {
+    try {
+      long millis = Math.round(Double.parseDouble(value));
+      if (millis >= 0) {
+        return millis;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below.
+    }
+    throw new IllegalArgumentException(String.format("%s: invalid latency '%s'", location, value));
+  }
+
+  private static double parseRate(String value, String location) {
+    try {
+      double rate = Double.parseDouble(value);
+      if (rate >= 0 && rate <= 1) {
+        return rate;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below.
+    }
+    throw new IllegalArgumentException(
+        String.format(
+            "%s: invalid error rate '%s', expected a fraction of calls", location, value));
+  }
+
+  /** The observed latency percentiles and error code rates of a method. */
+  @AutoValue
+  public abstract static class MethodLatency {
+    /** The median latency in milliseconds, or 0 if unknown. */
+    public abstract long p50Millis();
+
+    /** The 99th percentile latency in milliseconds. */
+    public abstract long p99Millis();
+
+    /** The fraction of the calls which failed, by gRPC status code name. */
+    public abstract ImmutableMap<String, Double> errorRates();
+
+    public double getErrorRate(Status.Code code) {
+      Double rate = errorRates().get(code.name());
+      return rate == null ? 0 : rate;
+    }
+
+    public static Builder newBuilder() {
+      return new AutoValue_LatencyProfile_MethodLatency.Builder().p50Millis(0);
+    }
+
+    @AutoValue.Builder
+    public abstract static class Builder {
+      public abstract Builder p50Millis(long val);
+
+      public abstract Builder p99Millis(long val);
+
+      public abstract Builder errorRates(ImmutableMap<String, Double> val);
+
+      public abstract MethodLatency build();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.configgen.mergers;
+
+import com.google.api.codegen.config.FieldModel;
+import com.google.api.codegen.config.MethodModel;
+import com.google.api.codegen.configgen.ListTransformer;
+import com.google.api.codegen.configgen.NodeFinder;
+import com.google.api.codegen.configgen.PageStreamingTransformer;
+import com.google.api.codegen.configgen.nodes.ConfigNode;
+import com.google.api.codegen.configgen.nodes.FieldConfigNode;
+import com.google.api.codegen.configgen.nodes.metadata.FixmeComment;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges batching properties from a MethodModel into a ConfigNode.
+ *
+ * <p>A method is considered for batching if its request has exactly one repeated field, which is
+ * the batched field, and its response has exactly one repeated field, which is the subresponse
+ * field, as in publish or write style methods. The singular request fields which hold resource
+ * names are used as discriminator fields, so that only requests for the same resource are batched
+ * together. Streaming, paged and long running methods are never batched.
+ */
+public class BatchingMerger {
+  // Default thresholds, favoring throughput while bounding the latency added by batching.
+  private static final ImmutableMap<String, String> DEFAULT_THRESHOLDS =
+      ImmutableMap.<String, String>builder()
+          .put("element_count_threshold", "100")
+          .put("request_byte_threshold", "1048576")
+          .put("delay_threshold_millis", "10")
+          .put("element_count_limit", "1000")
+          .put("request_byte_limit", "10485760")
+          .put("flow_control_element_limit", "10000")
+          .put("flow_control_byte_limit", "104857600")
+          .put("flow_control_limit_exceeded_behavior", "BLOCK")
+          .build();
+
+  private final PageStreamingTransformer pageStreamingTransformer;
+
+  public BatchingMerger(PageStreamingTransformer pageStreamingTransformer) {
+    this.pageStreamingTransformer = pageStreamingTransformer;
+  }
+
+  public ConfigNode generateBatchingNode(
+      ConfigNode prevNode, MethodModel method, Map<String, String> collectionNameMap) {
+    if (!isBatchingCandidate(method)) {
+      return prevNode;
+    }
+
+    FieldModel batchedField = getSingleRepeatedField(method.getInputFields());
+    FieldModel subresponseField = getSingleRepeatedField(method.getOutputFields());
+    if (batchedField == null || subresponseField == null) {
+      return prevNode;
+    }
+
+    ConfigNode batchingNode =
+        new FieldConfigNode(NodeFinder.getNextLine(prevNode), "batching")
+            .setComment(
+                new FixmeComment("Configure the batching thresholds and flow control limits."));
+    ConfigNode thresholdsNode = generateThresholdsNode(batchingNode);
+    generateBatchDescriptorNode(
+        thresholdsNode,
+        batchedField.getSimpleName(),
+        getDiscriminatorFields(method, batchedField, collectionNameMap),
+        subresponseField.getSimpleName());
+    prevNode.insertNext(batchingNode);
+    return batchingNode;
+  }
+
+  private boolean isBatchingCandidate(MethodModel method) {
+    if (method.getRequestStreaming() || method.getResponseStreaming()) {
+      return false;
+    }
+
+    if (method.getOutputType().toString().contains("google.longrunning.Operation")) {
+      return false;
+    }
+
+    // A paged list method also has a repeated response field, but it is not batchable.
+    return method.getInputField(pageStreamingTransformer.getNameForPageToken()) == null;
+  }
+
+  private static FieldModel getSingleRepeatedField(List<? extends FieldModel> fields) {
+    FieldModel repeatedField = null;
+    for (FieldModel field : fields) {
+      if (field.isRepeated() && !field.isMap()) {
+        if (repeatedField != null) {
+          return null;
+        }
+        repeatedField = field;
+      }
+    }
+    return repeatedField;
+  }
+
+  private static List<String> getDiscriminatorFields(
+      MethodModel method, FieldModel batchedField, Map<String, String> collectionNameMap) {
+    List<String> discriminatorFields = new ArrayList<>();
+    for (String fieldName : method.getResourcePatternNameMap(collectionNameMap).keySet()) {
+      FieldModel field = method.getInputField(fieldName);
+      if (field != null
+          && !field.isRepeated()
+          && !field.getSimpleName().equals(batchedField.getSimpleName())) {
+        discriminatorFields.add(fieldName);
+      }
+    }
+    return discriminatorFields;
+  }
+
+  private ConfigNode generateThresholdsNode(ConfigNode parentNode) {
+    ConfigNode thresholdsNode =
+        new FieldConfigNode(NodeFinder.getNextLine(parentNode), "thresholds");
+    parentNode.setChild(thresholdsNode);
+    ListTransformer.generateList(
+        DEFAULT_THRESHOLDS.entrySet(),
+        thresholdsNode,
+        (startLine, entry) ->
+            FieldConfigNode.createStringPair(startLine, entry.getKey(), entry.getValue()));
+    return thresholdsNode;
+  }
+
+  private void generateBatchDescriptorNode(
+      ConfigNode prevNode,
+      String batchedField,
+      List<String> discriminatorFields,
+      String subresponseField) {
+    ConfigNode batchDescriptorNode =
+        new FieldConfigNode(NodeFinder.getNextLine(prevNode), "batch_descriptor");
+    prevNode.insertNext(batchDescriptorNode);
+    ConfigNode batchedFieldNode =
+        FieldConfigNode.createStringPair(
+            NodeFinder.getNextLine(batchDescriptorNode), "batched_field", batchedField);
+    batchDescriptorNode.setChild(batchedFieldNode);
+    ConfigNode lastNode = batchedFieldNode;
+    ConfigNode discriminatorFieldsNode =
+        new FieldConfigNode(NodeFinder.getNextLine(batchedFieldNode), "discriminator_fields");
+    if (ListTransformer.generateStringList(discriminatorFields, discriminatorFieldsNode)
+        .isPresent()) {
+      lastNode.insertNext(discriminatorFieldsNode);
+      lastNode = discriminatorFieldsNode;
+    }
+    lastNode.insertNext(
+        FieldConfigNode.createStringPair(
+            NodeFinder.getNextLine(lastNode), "subresponse_field", subresponseField));
+  }
+}
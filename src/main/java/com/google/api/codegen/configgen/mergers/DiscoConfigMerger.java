@@ -0,0 +1,154 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.configgen.mergers;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Splices the interfaces regenerated from the changed resources of a Discovery document into a
+ * previously generated discogapic config.
+ *
+ * <p>The config is handled as text in the layout written by the discogapic config template: a
+ * header ending with the interfaces key, one block per interface and then one block per resource
+ * name generation. Blocks of unchanged interfaces are copied from the previous config, so any edits
+ * made to them by hand are kept.
+ */
+public class DiscoConfigMerger {
+  private static final String INTERFACES_KEY = "interfaces:";
+  private static final String RESOURCE_NAME_GENERATION_KEY = "resource_name_generation:";
+  private static final String INTERFACE_PREFIX = "- name: ";
+  private static final String RESOURCE_NAME_PREFIX = "- message_name: ";
+
+  private final List<String> header;
+  private final Map<String, List<String>> interfaces;
+  private final Map<String, List<String>> resourceNames;
+
+  private DiscoConfigMerger(
+      List<String> header,
+      Map<String, List<String>> interfaces,
+      Map<String, List<String>> resourceNames) {
+    this.header = header;
+    this.interfaces = interfaces;
+    this.resourceNames = resourceNames;
+  }
+
+  /**
+   * Splits a generated config into its blocks. Returns null if the config does not have the layout
+   * of the discogapic config template.
+   */
+  @Nullable
+  public static DiscoConfigMerger parse(String config) {
+    List<String> lines =
+        Splitter.on('\n').splitToList(CharMatcher.is('\n').trimTrailingFrom(config));
+    int index = lines.indexOf(INTERFACES_KEY);
+    if (index < 0) {
+      return null;
+    }
+    List<String> header = new ArrayList<>(lines.subList(0, index + 1));
+    Map<String, List<String>> interfaces = new LinkedHashMap<>();
+    index = parseBlocks(lines, index + 1, INTERFACE_PREFIX, interfaces);
+    Map<String, List<String>> resourceNames = new LinkedHashMap<>();
+    if (index < lines.size() && lines.get(index).equals(RESOURCE_NAME_GENERATION_KEY)) {
+      index = parseBlocks(lines, index + 1, RESOURCE_NAME_PREFIX, resourceNames);
+    }
+    if (index < lines.size()) {
+      return null;
+    }
+    return new DiscoConfigMerger(header, interfaces, resourceNames);
+  }
+
+  /**
+   * Collects the blocks starting with the given prefix, together with the column-0 comments
+   * preceding them, into blocks. Returns the index of the first line after the blocks.
+   */
+  private static int parseBlocks(
+      List<String> lines, int index, String prefix, Map<String, List<String>> blocks) {
+    List<String> block = null;
+    List<String> comments = new ArrayList<>();
+    for (; index < lines.size(); index++) {
+      String line = lines.get(index);
+      if (line.isEmpty() && block == null) {
+        comments.add(line);
+      } else if (line.isEmpty() || line.startsWith(" ")) {
+        if (block == null) {
+          return index;
+        }
+        block.addAll(comments);
+        comments.clear();
+        block.add(line);
+      } else if (line.startsWith("#")) {
+        comments.add(line);
+      } else if (line.startsWith(prefix)) {
+        block = new ArrayList<>(comments);
+        comments.clear();
+        block.add(line);
+        blocks.put(line.substring(prefix.length()).trim(), block);
+      } else {
+        break;
+      }
+    }
+    return index - comments.size();
+  }
+
+  /** Returns true if the config has a block for the given interface. */
+  public boolean hasInterface(String interfaceName) {
+    return interfaces.containsKey(interfaceName);
+  }
+
+  /**
+   * Returns the merged config text. The header is taken from this config. Each interface and
+   * resource name generation is taken from the regenerated config if it has one, and from this
+   * config otherwise, in the order given.
+   */
+  public String mergeConfig(
+      DiscoConfigMerger regenerated, List<String> interfaceNames, List<String> messageNames) {
+    StringBuilder config = new StringBuilder();
+    appendLines(config, header);
+    for (String interfaceName : interfaceNames) {
+      appendLines(config, pickBlock(interfaceName, regenerated.interfaces, interfaces));
+    }
+    StringBuilder resourceNameConfig = new StringBuilder();
+    for (String messageName : messageNames) {
+      appendLines(
+          resourceNameConfig, pickBlock(messageName, regenerated.resourceNames, resourceNames));
+    }
+    if (resourceNameConfig.length() > 0) {
+      config.append(RESOURCE_NAME_GENERATION_KEY).append('\n').append(resourceNameConfig);
+    }
+    return config.toString();
+  }
+
+  @Nullable
+  private static List<String> pickBlock(
+      String name, Map<String, List<String>> regenerated, Map<String, List<String>> previous) {
+    List<String> block = regenerated.get(name);
+    return block != null ? block : previous.get(name);
+  }
+
+  private static void appendLines(StringBuilder builder, @Nullable List<String> lines) {
+    if (lines == null) {
+      return;
+    }
+    for (String line : lines) {
+      builder.append(line).append('\n');
+    }
+  }
+}
@@ -24,7 +24,14 @@ import com.google.api.codegen.configgen.nodes.ConfigNode;
 import com.google.api.codegen.configgen.nodes.FieldConfigNode;
 import com.google.api.codegen.configgen.nodes.ListItemConfigNode;
 import com.google.api.codegen.configgen.nodes.metadata.DefaultComment;
+import com.google.common.base.Throwables;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /** Merges the interfaces property from an ApiModel into a ConfigNode. */
 public class InterfaceMerger {
@@ -32,16 +39,34 @@ public class InterfaceMerger {
   private final RetryMerger retryMerger;
   private final MethodMerger methodMerger;
   private final InterfaceTransformer interfaceTransformer;
+  private final int threadCount;
 
   public InterfaceMerger(
       CollectionMerger collectionMerger,
       RetryMerger retryMerger,
       MethodMerger methodMerger,
       InterfaceTransformer interfaceTransformer) {
+    this(collectionMerger, retryMerger, methodMerger, interfaceTransformer, 1);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param threadCount The number of threads on which the nodes of the interfaces are generated in
+   *     parallel. They are linked into the config in the order of the model afterwards, so the
+   *     config does not depend on the thread count.
+   */
+  public InterfaceMerger(
+      CollectionMerger collectionMerger,
+      RetryMerger retryMerger,
+      MethodMerger methodMerger,
+      InterfaceTransformer interfaceTransformer,
+      int threadCount) {
     this.collectionMerger = collectionMerger;
     this.retryMerger = retryMerger;
     this.methodMerger = methodMerger;
     this.interfaceTransformer = interfaceTransformer;
+    this.threadCount = threadCount;
   }
 
   public void mergeInterfaces(ApiModel model, ConfigNode configNode) {
@@ -51,14 +76,55 @@ public class InterfaceMerger {
       return;
     }
 
-    ConfigNode interfacesValueNode =
-        ListTransformer.generateList(
-            model.getInterfaces(null), interfacesNode, this::generateInterfaceNode);
+    List<? extends InterfaceModel> interfaces = model.getInterfaces(null);
+    ConfigNode interfacesValueNode;
+    if (threadCount > 1 && interfaces.size() > 1) {
+      interfacesValueNode =
+          ListTransformer.generateList(
+              generateInterfaceNodes(interfaces, NodeFinder.getNextLine(interfacesNode)),
+              interfacesNode,
+              (startLine, interfaceNode) -> interfaceNode);
+    } else {
+      interfacesValueNode =
+          ListTransformer.generateList(interfaces, interfacesNode, this::generateInterfaceNode);
+    }
     interfacesNode
         .setChild(interfacesValueNode)
         .setComment(new DefaultComment("A list of API interface configurations."));
   }
 
+  /**
+   * Generates the nodes of the interfaces on a thread pool. Each interface node starts with a
+   * single line holding its name, so the start line of every interface is known before the previous
+   * one is generated, and matches the one ListTransformer computes.
+   */
+  private List<ListItemConfigNode> generateInterfaceNodes(
+      List<? extends InterfaceModel> interfaces, int firstLine) {
+    List<ListItemConfigNode> interfaceNodes = new ArrayList<>(interfaces.size());
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(interfaces.size(), threadCount));
+    try {
+      List<Future<ListItemConfigNode>> futures = new ArrayList<>(interfaces.size());
+      for (int i = 0; i < interfaces.size(); ++i) {
+        int startLine = firstLine + i;
+        InterfaceModel apiInterface = interfaces.get(i);
+        futures.add(executor.submit(() -> generateInterfaceNode(startLine, apiInterface)));
+      }
+      for (Future<ListItemConfigNode> future : futures) {
+        interfaceNodes.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while generating the interfaces", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return interfaceNodes;
+  }
+
   private ListItemConfigNode generateInterfaceNode(int startLine, InterfaceModel apiInterface) {
     Map<String, String> collectionNameMap =
         interfaceTransformer.getResourceToEntityNameMap(apiInterface);
@@ -69,7 +135,8 @@ public class InterfaceMerger {
     interfaceNode.setChild(nameNode);
     ConfigNode collectionsNode =
         collectionMerger.generateCollectionsNode(nameNode, collectionNameMap);
-    ConfigNode retryParamsDefNode = retryMerger.generateRetryDefinitionsNode(collectionsNode);
+    ConfigNode retryParamsDefNode =
+        retryMerger.generateRetryDefinitionsNode(collectionsNode, apiInterface);
     methodMerger.generateMethodsNode(interfaceNode, apiInterface, collectionNameMap);
     return interfaceNode;
   }
@@ -67,6 +67,11 @@ public class MethodMerger {
           + "token_field and a resources_field. The token_field is the name of the field in the "
           + "response containing the next page token. The resources_field is the name of the field "
           + "in the response containing the list of resources belonging to the page.\n\n"
+          + "  batching - Specifies the configuration for batching.\n"
+          + "  Describes the thresholds which trigger sending a batch of requests, the flow control "
+          + "limits of the pending requests, and the batched_field, discriminator_fields and "
+          + "subresponse_field which determine how requests are combined and how the response is "
+          + "split.\n\n"
           + "  retry_codes_name - Specifies the configuration for retryable codes. The name must "
           + "be defined in interfaces.retry_codes_def.\n\n"
           + "  retry_params_name - Specifies the configuration for retry/backoff parameters. The "
@@ -79,14 +84,17 @@ public class MethodMerger {
 
   private final RetryMerger retryMerger;
   private final PageStreamingMerger pageStreamingMerger;
+  private final BatchingMerger batchingMerger;
   private final MethodTransformer methodTransformer;
 
   public MethodMerger(
       RetryMerger retryMerger,
       PageStreamingMerger pageStreamingMerger,
+      BatchingMerger batchingMerger,
       MethodTransformer methodTransformer) {
     this.retryMerger = retryMerger;
     this.pageStreamingMerger = pageStreamingMerger;
+    this.batchingMerger = batchingMerger;
     this.methodTransformer = methodTransformer;
   }
 
@@ -118,6 +126,7 @@ public class MethodMerger {
     methodNode.setChild(nameNode);
     ConfigNode prevNode = generateField(nameNode, method);
     prevNode = pageStreamingMerger.generatePageStreamingNode(prevNode, method);
+    prevNode = batchingMerger.generateBatchingNode(prevNode, method, collectionNameMap);
     prevNode = retryMerger.generateRetryNamesNode(prevNode, method);
     prevNode = generateFieldNamePatterns(prevNode, method, collectionNameMap);
     if (method.getOutputType().toString().contains("google.longrunning.Operation")) {
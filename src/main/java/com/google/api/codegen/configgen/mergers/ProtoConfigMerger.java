@@ -15,28 +15,70 @@
 package com.google.api.codegen.configgen.mergers;
 
 import com.google.api.codegen.config.GapicProductConfig;
+import com.google.api.codegen.config.InterfaceModel;
+import com.google.api.codegen.config.MethodModel;
 import com.google.api.codegen.config.ProtoApiModel;
 import com.google.api.codegen.configgen.ConfigHelper;
 import com.google.api.codegen.configgen.InterfaceTransformer;
+import com.google.api.codegen.configgen.LatencyProfile;
 import com.google.api.codegen.configgen.ProtoInterfaceTransformer;
 import com.google.api.codegen.configgen.ProtoMethodTransformer;
 import com.google.api.codegen.configgen.ProtoPageStreamingTransformer;
 import com.google.api.codegen.configgen.nodes.ConfigNode;
 import com.google.api.tools.framework.model.Model;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /** Merges the gapic config from a proto Model into a ConfigNode. */
 public class ProtoConfigMerger {
 
   public ConfigNode mergeConfig(Model model, String fileName) {
-    ConfigMerger configMerger = createMerger(model, fileName);
+    return mergeConfig(model, fileName, 1);
+  }
+
+  /**
+   * Merges the config, generating the nodes of the interfaces on the given number of threads. The
+   * result does not depend on the thread count.
+   */
+  public ConfigNode mergeConfig(Model model, String fileName, int threadCount) {
+    return mergeConfig(model, fileName, threadCount, LatencyProfile.empty());
+  }
+
+  /**
+   * Merges the config, generating the nodes of the interfaces on the given number of threads, and
+   * synthesizing the retry settings of the methods in the latency profile.
+   */
+  public ConfigNode mergeConfig(
+      Model model, String fileName, int threadCount, LatencyProfile latencyProfile) {
+    ConfigMerger configMerger = createMerger(model, fileName, threadCount, latencyProfile);
     if (configMerger == null) {
       return null;
     }
 
-    return configMerger.mergeConfig(new ProtoApiModel(model));
+    ProtoApiModel apiModel = new ProtoApiModel(model);
+    Set<String> methodFullNames = new HashSet<>();
+    for (InterfaceModel apiInterface : apiModel.getInterfaces(null)) {
+      for (MethodModel method : apiInterface.getMethods()) {
+        methodFullNames.add(method.getFullName());
+      }
+    }
+    List<String> unknownMethods = latencyProfile.getUnknownMethods(methodFullNames);
+    if (!unknownMethods.isEmpty()) {
+      new ConfigHelper(model.getDiagReporter().getDiagCollector(), fileName)
+          .error(
+              model.getLocation(),
+              "The latency profile %s names methods which are not in the API: %s",
+              latencyProfile.getFileName(),
+              String.join(", ", unknownMethods));
+      return null;
+    }
+
+    return configMerger.mergeConfig(apiModel);
   }
 
-  private ConfigMerger createMerger(Model model, String fileName) {
+  private ConfigMerger createMerger(
+      Model model, String fileName, int threadCount, LatencyProfile latencyProfile) {
     ConfigHelper helper = new ConfigHelper(model.getDiagReporter().getDiagCollector(), fileName);
     String packageName = GapicProductConfig.getPackageName(model);
     if (packageName == null) {
@@ -45,15 +87,19 @@ public class ProtoConfigMerger {
     }
 
     CollectionMerger collectionMerger = new CollectionMerger();
-    RetryMerger retryMerger = new RetryMerger();
+    RetryMerger retryMerger = new RetryMerger(latencyProfile);
+    ProtoPageStreamingTransformer pageStreamingTransformer = new ProtoPageStreamingTransformer();
     PageStreamingMerger pageStreamingMerger =
-        new PageStreamingMerger(new ProtoPageStreamingTransformer(), helper);
+        new PageStreamingMerger(pageStreamingTransformer, helper);
+    BatchingMerger batchingMerger = new BatchingMerger(pageStreamingTransformer);
     MethodMerger methodMerger =
-        new MethodMerger(retryMerger, pageStreamingMerger, new ProtoMethodTransformer());
+        new MethodMerger(
+            retryMerger, pageStreamingMerger, batchingMerger, new ProtoMethodTransformer());
     LanguageSettingsMerger languageSettingsMerger = new LanguageSettingsMerger();
     InterfaceTransformer interfaceTranformer = new ProtoInterfaceTransformer();
     InterfaceMerger interfaceMerger =
-        new InterfaceMerger(collectionMerger, retryMerger, methodMerger, interfaceTranformer);
+        new InterfaceMerger(
+            collectionMerger, retryMerger, methodMerger, interfaceTranformer, threadCount);
     return new ConfigMerger(languageSettingsMerger, interfaceMerger, packageName, helper);
   }
 }
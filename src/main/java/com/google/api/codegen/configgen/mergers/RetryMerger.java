@@ -14,18 +14,14 @@
  */
 package com.google.api.codegen.configgen.mergers;
 
-import static com.google.api.codegen.configgen.transformer.RetryTransformer.DEFAULT_INITIAL_RETRY_DELAY;
-import static com.google.api.codegen.configgen.transformer.RetryTransformer.DEFAULT_INITIAL_RPC_TIMEOUT_MULTIPLIER;
-import static com.google.api.codegen.configgen.transformer.RetryTransformer.DEFAULT_MAX_RETRY_DELAY;
-import static com.google.api.codegen.configgen.transformer.RetryTransformer.DEFAULT_MAX_RPC_TIMEOUT_MILLIS;
-import static com.google.api.codegen.configgen.transformer.RetryTransformer.DEFAULT_RETRY_DELAY_MULTIPLIER;
-import static com.google.api.codegen.configgen.transformer.RetryTransformer.DEFAULT_RPC_TIMEOUT_MULTIPLIER;
-import static com.google.api.codegen.configgen.transformer.RetryTransformer.DEFAULT_TOTAL_TIMEOUT_MILLIS;
 import static com.google.api.codegen.configgen.transformer.RetryTransformer.RETRY_CODES_IDEMPOTENT_NAME;
 import static com.google.api.codegen.configgen.transformer.RetryTransformer.RETRY_CODES_NON_IDEMPOTENT_NAME;
 import static com.google.api.codegen.configgen.transformer.RetryTransformer.RETRY_PARAMS_DEFAULT_NAME;
 
+import com.google.api.codegen.config.InterfaceModel;
 import com.google.api.codegen.config.MethodModel;
+import com.google.api.codegen.configgen.LatencyProfile;
+import com.google.api.codegen.configgen.LatencyProfile.MethodLatency;
 import com.google.api.codegen.configgen.ListTransformer;
 import com.google.api.codegen.configgen.NodeFinder;
 import com.google.api.codegen.configgen.nodes.ConfigNode;
@@ -33,9 +29,13 @@ import com.google.api.codegen.configgen.nodes.FieldConfigNode;
 import com.google.api.codegen.configgen.nodes.ListItemConfigNode;
 import com.google.api.codegen.configgen.nodes.metadata.DefaultComment;
 import com.google.api.codegen.configgen.nodes.metadata.FixmeComment;
+import com.google.api.codegen.configgen.transformer.RetryTransformer;
+import com.google.api.codegen.configgen.viewmodel.RetryCodeView;
+import com.google.api.codegen.configgen.viewmodel.RetryParamView;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.grpc.Status;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -57,104 +57,129 @@ public class RetryMerger {
           RETRY_CODES_NON_IDEMPOTENT_NAME,
           ImmutableList.of());
 
-  public ConfigNode generateRetryDefinitionsNode(ConfigNode prevNode) {
+  private final RetryTransformer retryTransformer = new RetryTransformer();
+  private final LatencyProfile latencyProfile;
+
+  public RetryMerger() {
+    this(LatencyProfile.empty());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param latencyProfile The observed latencies and error rates of methods. Each method of the
+   *     profile gets retry params, and possibly retry codes, of its own, named after the method.
+   */
+  public RetryMerger(LatencyProfile latencyProfile) {
+    this.latencyProfile = latencyProfile;
+  }
+
+  public ConfigNode generateRetryDefinitionsNode(ConfigNode prevNode, InterfaceModel apiInterface) {
+    List<RetryCodeView> retryCodesDef =
+        new ArrayList<>(
+            retryTransformer.generateRetryCodes(
+                DEFAULT_RETRY_CODES.get(RETRY_CODES_IDEMPOTENT_NAME),
+                DEFAULT_RETRY_CODES.get(RETRY_CODES_NON_IDEMPOTENT_NAME)));
+    List<RetryParamView> retryParamsDef = new ArrayList<>(retryTransformer.generateRetryParams());
+    for (MethodModel method : apiInterface.getMethods()) {
+      MethodLatency latency = latencyProfile.getMethodLatency(method.getFullName());
+      if (latency == null) {
+        continue;
+      }
+
+      String name = getProfiledRetryName(method);
+      List<String> retryCodes = getProfiledRetryCodes(method, latency);
+      if (!retryCodes.equals(DEFAULT_RETRY_CODES.get(getDefaultRetryCodesName(method)))) {
+        retryCodesDef.add(RetryCodeView.newBuilder().name(name).retryCodes(retryCodes).build());
+      }
+      retryParamsDef.add(retryTransformer.generateRetryParams(name, latency, retryCodes));
+    }
+
     FieldConfigNode retryCodesDefNode =
         new FieldConfigNode(NodeFinder.getNextLine(prevNode), "retry_codes_def")
             .setComment(new DefaultComment("Definition for retryable codes."));
     prevNode.insertNext(retryCodesDefNode);
-    generateRetryCodesDefValueNode(retryCodesDefNode);
+    ListTransformer.generateList(retryCodesDef, retryCodesDefNode, this::generateRetryCodeDefNode);
     FieldConfigNode retryParamsDefNode =
         new FieldConfigNode(NodeFinder.getNextLine(retryCodesDefNode), "retry_params_def")
             .setComment(new DefaultComment("Definition for retry/backoff parameters."));
     retryCodesDefNode.insertNext(retryParamsDefNode);
-    generateRetryParamsDefValueNode(retryParamsDefNode);
+    ListTransformer.generateList(
+        retryParamsDef, retryParamsDefNode, this::generateRetryParamDefNode);
     return retryParamsDefNode;
   }
 
-  private void generateRetryCodesDefValueNode(ConfigNode parentNode) {
-    ConfigNode idempotentNode =
-        generateRetryCodeDefNode(
-            NodeFinder.getNextLine(parentNode),
-            RETRY_CODES_IDEMPOTENT_NAME,
-            DEFAULT_RETRY_CODES.get(RETRY_CODES_IDEMPOTENT_NAME));
-    parentNode.setChild(idempotentNode);
-    ConfigNode nonIdempotentNode =
-        generateRetryCodeDefNode(
-            NodeFinder.getNextLine(idempotentNode),
-            RETRY_CODES_NON_IDEMPOTENT_NAME,
-            DEFAULT_RETRY_CODES.get(RETRY_CODES_NON_IDEMPOTENT_NAME));
-    idempotentNode.insertNext(nonIdempotentNode);
-  }
-
-  private ConfigNode generateRetryCodeDefNode(int startLine, String name, List<String> codes) {
+  private ConfigNode generateRetryCodeDefNode(int startLine, RetryCodeView retryCodeDef) {
     ConfigNode retryCodeDefNode = new ListItemConfigNode(startLine);
-    ConfigNode nameNode = FieldConfigNode.createStringPair(startLine, "name", name);
+    ConfigNode nameNode = FieldConfigNode.createStringPair(startLine, "name", retryCodeDef.name());
     retryCodeDefNode.setChild(nameNode);
     ConfigNode retryCodesNode =
         new FieldConfigNode(NodeFinder.getNextLine(nameNode), "retry_codes");
     nameNode.insertNext(retryCodesNode);
-    ListTransformer.generateStringList(codes, retryCodesNode);
+    ListTransformer.generateStringList(retryCodeDef.retryCodes(), retryCodesNode);
     return retryCodeDefNode;
   }
 
-  private void generateRetryParamsDefValueNode(ConfigNode parentNode) {
-    ConfigNode defaultNode =
-        generateRetryParamDefNode(NodeFinder.getNextLine(parentNode), RETRY_PARAMS_DEFAULT_NAME);
-    parentNode.setChild(defaultNode);
-  }
-
-  private ConfigNode generateRetryParamDefNode(int startLine, String name) {
+  private ConfigNode generateRetryParamDefNode(int startLine, RetryParamView retryParamDef) {
     ConfigNode retryParamDefNode = new ListItemConfigNode(startLine);
-    ConfigNode nameNode = FieldConfigNode.createStringPair(startLine, "name", name);
+    ConfigNode nameNode = FieldConfigNode.createStringPair(startLine, "name", retryParamDef.name());
     retryParamDefNode.setChild(nameNode);
     ConfigNode initialRetryDelayMillisNode =
         FieldConfigNode.createStringPair(
             NodeFinder.getNextLine(nameNode),
             INITIAL_RETRY_DELAY_NAME,
-            String.valueOf(DEFAULT_INITIAL_RETRY_DELAY));
+            retryParamDef.initialRetryDelayMillis());
     nameNode.insertNext(initialRetryDelayMillisNode);
     ConfigNode retryDelayMultiplierNode =
         FieldConfigNode.createStringPair(
             NodeFinder.getNextLine(initialRetryDelayMillisNode),
             RETRY_DELAY_MULTIPLIER_NAME,
-            String.valueOf(DEFAULT_RETRY_DELAY_MULTIPLIER));
+            retryParamDef.retryDelayMultiplier());
     initialRetryDelayMillisNode.insertNext(retryDelayMultiplierNode);
     ConfigNode maxRetryDelayMillisNode =
         FieldConfigNode.createStringPair(
             NodeFinder.getNextLine(retryDelayMultiplierNode),
             MAX_RETRY_DELAY_NAME,
-            String.valueOf(DEFAULT_MAX_RETRY_DELAY));
+            retryParamDef.maxRetryDelayMillis());
     retryDelayMultiplierNode.insertNext(maxRetryDelayMillisNode);
     ConfigNode initialRpcTimeoutMillisNode =
         FieldConfigNode.createStringPair(
             NodeFinder.getNextLine(maxRetryDelayMillisNode),
             INITIAL_RPC_TIMEOUT_NAME,
-            String.valueOf(DEFAULT_INITIAL_RPC_TIMEOUT_MULTIPLIER));
+            retryParamDef.initialRpcTimeoutMillis());
     maxRetryDelayMillisNode.insertNext(initialRpcTimeoutMillisNode);
     ConfigNode rpcTimeoutMultiplierNode =
         FieldConfigNode.createStringPair(
             NodeFinder.getNextLine(initialRpcTimeoutMillisNode),
             RPC_TIMEOUT_MULTIPLIER_NAME,
-            String.valueOf(DEFAULT_RPC_TIMEOUT_MULTIPLIER));
+            retryParamDef.rpcTimeoutMultiplier());
     initialRpcTimeoutMillisNode.insertNext(rpcTimeoutMultiplierNode);
     ConfigNode maxRpcTimeoutMillisNode =
         FieldConfigNode.createStringPair(
             NodeFinder.getNextLine(rpcTimeoutMultiplierNode),
             MAX_RPC_TIMEOUT_NAME,
-            String.valueOf(DEFAULT_MAX_RPC_TIMEOUT_MILLIS));
+            retryParamDef.maxRpcTimeoutMillis());
     rpcTimeoutMultiplierNode.insertNext(maxRpcTimeoutMillisNode);
     ConfigNode totalTimeoutMillisNode =
         FieldConfigNode.createStringPair(
             NodeFinder.getNextLine(maxRpcTimeoutMillisNode),
             TOTAL_TIMEOUT_NAME,
-            String.valueOf(DEFAULT_TOTAL_TIMEOUT_MILLIS));
+            retryParamDef.totalTimeoutMillis());
     maxRpcTimeoutMillisNode.insertNext(totalTimeoutMillisNode);
     return retryParamDefNode;
   }
 
   ConfigNode generateRetryNamesNode(ConfigNode prevNode, MethodModel method) {
-    String retryCodesName =
-        method.isIdempotent() ? RETRY_CODES_IDEMPOTENT_NAME : RETRY_CODES_NON_IDEMPOTENT_NAME;
+    String retryCodesName = getDefaultRetryCodesName(method);
+    String retryParamsName = RETRY_PARAMS_DEFAULT_NAME;
+    MethodLatency latency = latencyProfile.getMethodLatency(method.getFullName());
+    if (latency != null) {
+      retryParamsName = getProfiledRetryName(method);
+      if (!getProfiledRetryCodes(method, latency).equals(DEFAULT_RETRY_CODES.get(retryCodesName))) {
+        retryCodesName = retryParamsName;
+      }
+    }
+
     ConfigNode retryCodesNameNode =
         FieldConfigNode.createStringPair(
                 NodeFinder.getNextLine(prevNode), "retry_codes_name", retryCodesName)
@@ -162,11 +187,28 @@ public class RetryMerger {
     prevNode.insertNext(retryCodesNameNode);
     ConfigNode retryParamsNameNode =
         FieldConfigNode.createStringPair(
-                NodeFinder.getNextLine(retryCodesNameNode),
-                "retry_params_name",
-                RETRY_PARAMS_DEFAULT_NAME)
+                NodeFinder.getNextLine(retryCodesNameNode), "retry_params_name", retryParamsName)
             .setComment(new FixmeComment("Configure the retryable params for this method."));
     retryCodesNameNode.insertNext(retryParamsNameNode);
     return retryParamsNameNode;
   }
+
+  private static String getDefaultRetryCodesName(MethodModel method) {
+    return method.isIdempotent() ? RETRY_CODES_IDEMPOTENT_NAME : RETRY_CODES_NON_IDEMPOTENT_NAME;
+  }
+
+  private List<String> getProfiledRetryCodes(MethodModel method, MethodLatency latency) {
+    return retryTransformer.generateRetryCodes(
+        latency, DEFAULT_RETRY_CODES.get(getDefaultRetryCodesName(method)), method.isIdempotent());
+  }
+
+  /** Returns the name of the retry definitions of a method in the latency profile. */
+  private static String getProfiledRetryName(MethodModel method) {
+    String name = method.asName().toLowerUnderscore();
+    if (DEFAULT_RETRY_CODES.containsKey(name) || name.equals(RETRY_PARAMS_DEFAULT_NAME)) {
+      // Do not shadow the default definitions.
+      return name + "_method";
+    }
+    return name;
+  }
 }
@@ -31,8 +31,10 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 /** Generates the config view object using a model and output path. */
@@ -48,35 +50,70 @@ public class DiscoConfigTransformer {
       new MethodTransformer(new DiscoveryMethodTransformer());
 
   public ViewModel generateConfig(DiscoApiModel model, String outputPath) {
-    // Map of methods to unique, fully qualified resource names.
-    Map<Method, Name> methodToResourceName = new HashMap<>();
-
-    // Map of Methods to resource name patterns.
-    ImmutableMap.Builder<Method, String> methodToNamePattern = ImmutableMap.builder();
-
-    for (Method method : model.getDocument().methods()) {
-      String namePattern = DiscoGapicParser.getCanonicalPath(method.flatPath());
-      methodToNamePattern.put(method, namePattern);
-      Name qualifiedResourceName = DiscoGapicParser.getQualifiedResourceIdentifier(namePattern);
-      methodToResourceName.put(method, qualifiedResourceName);
-    }
+    return generateConfig(model, outputPath, model.getDocument().resources().keySet());
+  }
 
-    // Map of base resource identifiers to all canonical name patterns that use that identifier.
+  /**
+   * Generates a config whose interfaces only cover the given resources of the model. The resource
+   * name generations still cover every resource, and resource names are still chosen among all the
+   * methods of the model, so the generated sections match those of a config generated for every
+   * resource.
+   */
+  public ViewModel generateConfig(DiscoApiModel model, String outputPath, Set<String> resources) {
+    Document document = model.getDocument();
+    ImmutableMap<Method, String> methodToNamePattern = getMethodToNamePatterns(document);
     ImmutableMap<Method, Name> methodToResourceNames =
-        ImmutableMap.<Method, Name>builder().putAll(methodToResourceName).build();
+        getMethodToResourceNames(methodToNamePattern);
 
     return ConfigView.newBuilder()
         .templateFileName(CONFIG_TEMPLATE_FILE)
         .outputPath(outputPath)
         .type(CONFIG_PROTO_TYPE)
         .configSchemaVersion(DEFAULT_CONFIG_SCHEMA_VERSION)
-        .languageSettings(generateLanguageSettings(model.getDocument()))
-        .interfaces(generateInterfaces(model, methodToNamePattern.build(), methodToResourceNames))
-        .resourceNameGeneration(
-            generateResourceNameGenerations(model.getDocument(), methodToResourceNames))
+        .languageSettings(generateLanguageSettings(document))
+        .interfaces(
+            generateInterfaces(model, resources, methodToNamePattern, methodToResourceNames))
+        .resourceNameGeneration(generateResourceNameGenerations(document, methodToResourceNames))
         .build();
   }
 
+  /**
+   * Returns the collections of each resource of the document, as maps from the canonical resource
+   * paths used by its methods to their entity names.
+   */
+  public Map<String, Map<String, String>> getResourceCollections(Document document) {
+    ImmutableMap<Method, String> methodToNamePattern = getMethodToNamePatterns(document);
+    ImmutableMap<Method, Name> methodToResourceNames =
+        getMethodToResourceNames(methodToNamePattern);
+    Map<String, Map<String, String>> collections = new LinkedHashMap<>();
+    for (Map.Entry<String, List<Method>> resource : document.resources().entrySet()) {
+      collections.put(
+          resource.getKey(),
+          getResourceToEntityNameMap(
+              resource.getValue(), methodToNamePattern, methodToResourceNames));
+    }
+    return collections;
+  }
+
+  private static ImmutableMap<Method, String> getMethodToNamePatterns(Document document) {
+    ImmutableMap.Builder<Method, String> methodToNamePattern = ImmutableMap.builder();
+    for (Method method : document.methods()) {
+      methodToNamePattern.put(method, DiscoGapicParser.getCanonicalPath(method.flatPath()));
+    }
+    return methodToNamePattern.build();
+  }
+
+  /** Returns the fully qualified resource name of each method. */
+  private static ImmutableMap<Method, Name> getMethodToResourceNames(
+      Map<Method, String> methodToNamePattern) {
+    ImmutableMap.Builder<Method, Name> methodToResourceNames = ImmutableMap.builder();
+    for (Map.Entry<Method, String> entry : methodToNamePattern.entrySet()) {
+      methodToResourceNames.put(
+          entry.getKey(), DiscoGapicParser.getQualifiedResourceIdentifier(entry.getValue()));
+    }
+    return methodToResourceNames.build();
+  }
+
   private List<LanguageSettingView> generateLanguageSettings(Document model) {
     String packageName = getPackageName(model);
     Preconditions.checkNotNull(packageName, "No interface found.");
@@ -92,22 +129,20 @@ public class DiscoConfigTransformer {
 
   private List<InterfaceView> generateInterfaces(
       DiscoApiModel model,
+      Set<String> resources,
       Map<Method, String> methodToNamePatterns,
       Map<Method, Name> methodToResourceNames) {
     ImmutableList.Builder<InterfaceView> interfaces = ImmutableList.builder();
     for (String resource : model.getDocument().resources().keySet()) {
+      if (!resources.contains(resource)) {
+        continue;
+      }
       List<Method> interfaceMethods = model.getDocument().resources().get(resource);
 
       Map<String, String> collectionNameMap =
           getResourceToEntityNameMap(interfaceMethods, methodToNamePatterns, methodToResourceNames);
       InterfaceView.Builder interfaceView = InterfaceView.newBuilder();
-
-      String ownerName = model.getDocument().ownerDomain().split("\\.")[0];
-      String resourceName = Name.anyCamel(resource).toUpperCamel();
-      interfaceView.name(
-          String.format(
-              "%s.%s.%s.%s",
-              ownerName, model.getDocument().name(), model.getDocument().version(), resourceName));
+      interfaceView.name(model.getInterfaceName(resource));
 
       retryTransformer.generateRetryDefinitions(
           interfaceView,
@@ -128,8 +163,8 @@ public class DiscoConfigTransformer {
    * configuration). Each resource path is merely a string describing the fields in the entity, and
    * the resource path might not be the same as the RPC endpoint URI. The resource identifier is
    * globally unique within each API. Many methods may use the same resource collection. The
-   * resource identifier will be fully qualified iff there are two or more resource identifiers with
-   * different canonical resource paths.
+   * resource identifier is the qualified identifier of the canonical resource path, so it only
+   * depends on that path.
    */
   private Map<String, String> getResourceToEntityNameMap(
       List<Method> interfaceMethods,
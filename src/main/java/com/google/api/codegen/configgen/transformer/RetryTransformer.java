@@ -14,10 +14,14 @@
  */
 package com.google.api.codegen.configgen.transformer;
 
+import com.google.api.codegen.configgen.LatencyProfile.MethodLatency;
 import com.google.api.codegen.configgen.viewmodel.InterfaceView;
 import com.google.api.codegen.configgen.viewmodel.RetryCodeView;
 import com.google.api.codegen.configgen.viewmodel.RetryParamView;
 import com.google.common.collect.ImmutableList;
+import io.grpc.Status;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /** Generates view objects for the retry codes def and retry params def. */
@@ -34,6 +38,23 @@ public class RetryTransformer {
   public static final int DEFAULT_MAX_RPC_TIMEOUT_MILLIS = 20000;
   public static final int DEFAULT_TOTAL_TIMEOUT_MILLIS = 600000;
 
+  // Bounds and factors of the settings synthesized from observed latencies. The timeouts leave room
+  // above the 99th percentile latency, so that slow calls are not cut off and retried needlessly.
+  private static final long MILLIS_GRANULARITY = 100;
+  private static final long MIN_RPC_TIMEOUT_MILLIS = 1000;
+  private static final long MIN_TOTAL_TIMEOUT_MILLIS = 60000;
+  private static final int INITIAL_RPC_TIMEOUT_P99_FACTOR = 2;
+  private static final int MAX_RPC_TIMEOUT_P99_FACTOR = 5;
+  private static final int TOTAL_TIMEOUT_MAX_RPC_TIMEOUT_FACTOR = 4;
+  private static final double GROWING_RPC_TIMEOUT_MULTIPLIER = 1.5;
+  // Methods failing this often with retryable codes back off faster, to not overload the server.
+  private static final double HIGH_RETRYABLE_ERROR_RATE = 0.05;
+  private static final double HIGH_ERROR_RATE_RETRY_DELAY_MULTIPLIER = 2.0;
+  // Transient codes which are retried for an idempotent method if it fails with them this often.
+  private static final double MIN_RETRYABLE_ERROR_RATE = 0.001;
+  private static final ImmutableList<Status.Code> TRANSIENT_CODES =
+      ImmutableList.of(Status.Code.ABORTED, Status.Code.RESOURCE_EXHAUSTED);
+
   void generateRetryDefinitions(
       InterfaceView.Builder interfaceView,
       List<String> idempotentRetryCodes,
@@ -42,7 +63,7 @@ public class RetryTransformer {
     interfaceView.retryParamsDef(generateRetryParams());
   }
 
-  private List<RetryCodeView> generateRetryCodes(
+  public List<RetryCodeView> generateRetryCodes(
       List<String> idempotentRetryCodes, List<String> nonIdempotentRetryCodes) {
     ImmutableList.Builder<RetryCodeView> retryCodes = ImmutableList.builder();
     retryCodes.add(
@@ -58,7 +79,7 @@ public class RetryTransformer {
     return retryCodes.build();
   }
 
-  private List<RetryParamView> generateRetryParams() {
+  public List<RetryParamView> generateRetryParams() {
     return ImmutableList.of(
         RetryParamView.newBuilder()
             .name(RETRY_PARAMS_DEFAULT_NAME)
@@ -71,4 +92,84 @@ public class RetryTransformer {
             .totalTimeoutMillis(String.valueOf(DEFAULT_TOTAL_TIMEOUT_MILLIS))
             .build());
   }
+
+  /**
+   * Returns the retryable codes of a method, given its observed error rates. An idempotent method
+   * retries the default codes, and the transient codes it often fails with. A non-idempotent method
+   * retries the default codes only, since a retried call may be executed twice.
+   */
+  public List<String> generateRetryCodes(
+      MethodLatency latency, List<String> defaultRetryCodes, boolean isIdempotent) {
+    List<Status.Code> codes = new ArrayList<>();
+    for (String code : defaultRetryCodes) {
+      codes.add(Status.Code.valueOf(code));
+    }
+    if (isIdempotent) {
+      for (Status.Code code : TRANSIENT_CODES) {
+        if (!codes.contains(code) && latency.getErrorRate(code) >= MIN_RETRYABLE_ERROR_RATE) {
+          codes.add(code);
+        }
+      }
+    }
+    codes.sort(Comparator.comparingInt(Status.Code::value));
+
+    ImmutableList.Builder<String> retryCodes = ImmutableList.builder();
+    for (Status.Code code : codes) {
+      retryCodes.add(code.name());
+    }
+    return retryCodes.build();
+  }
+
+  /**
+   * Returns the retry params of a method, given its observed latencies and error rates. The RPC
+   * timeout starts at twice the 99th percentile latency and grows up to five times that, and the
+   * first retry waits for about the median latency.
+   */
+  public RetryParamView generateRetryParams(
+      String name, MethodLatency latency, List<String> retryCodes) {
+    long initialRpcTimeout =
+        roundUp(
+            Math.max(INITIAL_RPC_TIMEOUT_P99_FACTOR * latency.p99Millis(), MIN_RPC_TIMEOUT_MILLIS));
+    long maxRpcTimeout =
+        roundUp(Math.max(MAX_RPC_TIMEOUT_P99_FACTOR * latency.p99Millis(), initialRpcTimeout));
+    double rpcTimeoutMultiplier =
+        maxRpcTimeout > initialRpcTimeout
+            ? GROWING_RPC_TIMEOUT_MULTIPLIER
+            : DEFAULT_RPC_TIMEOUT_MULTIPLIER;
+    long totalTimeout =
+        roundUp(
+            Math.max(
+                TOTAL_TIMEOUT_MAX_RPC_TIMEOUT_FACTOR * maxRpcTimeout, MIN_TOTAL_TIMEOUT_MILLIS));
+
+    double retryableErrorRate = 0;
+    for (String code : retryCodes) {
+      retryableErrorRate += latency.getErrorRate(Status.Code.valueOf(code));
+    }
+    double retryDelayMultiplier =
+        retryableErrorRate >= HIGH_RETRYABLE_ERROR_RATE
+            ? HIGH_ERROR_RATE_RETRY_DELAY_MULTIPLIER
+            : DEFAULT_RETRY_DELAY_MULTIPLIER;
+    long initialRetryDelay = roundUp(Math.max(latency.p50Millis(), DEFAULT_INITIAL_RETRY_DELAY));
+
+    return RetryParamView.newBuilder()
+        .name(name)
+        .initialRetryDelayMillis(String.valueOf(initialRetryDelay))
+        .retryDelayMultiplier(formatMultiplier(retryDelayMultiplier))
+        .maxRetryDelayMillis(String.valueOf(Math.max(DEFAULT_MAX_RETRY_DELAY, initialRetryDelay)))
+        .initialRpcTimeoutMillis(String.valueOf(initialRpcTimeout))
+        .rpcTimeoutMultiplier(formatMultiplier(rpcTimeoutMultiplier))
+        .maxRpcTimeoutMillis(String.valueOf(maxRpcTimeout))
+        .totalTimeoutMillis(String.valueOf(totalTimeout))
+        .build();
+  }
+
+  private static long roundUp(long millis) {
+    return (millis + MILLIS_GRANULARITY - 1) / MILLIS_GRANULARITY * MILLIS_GRANULARITY;
+  }
+
+  private static String formatMultiplier(double multiplier) {
+    return multiplier == Math.rint(multiplier)
+        ? String.valueOf((long) multiplier)
+        : String.valueOf(multiplier);
+  }
 }
@@ -22,16 +22,25 @@ import com.google.api.codegen.rendering.CommonSnippetSetRunner;
 import com.google.api.codegen.transformer.ModelToViewTransformer;
 import com.google.api.codegen.viewmodel.ViewModel;
 import com.google.api.tools.framework.snippet.Doc;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.internal.LinkedTreeMap;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /** CodeGenerator for discogapic, the GAPIC library surface for Discovery documents. */
 public class DiscoGapicGenerator implements CodeGenerator<Doc> {
   private final DiscoApiModel model;
   private final GapicProductConfig productConfig;
   private final CommonSnippetSetRunner snippetSetRunner;
+  private final List<ModelToViewTransformer<DiscoApiModel>> shardedTransformers;
+  private final int shardCount;
   private final List<ModelToViewTransformer<DiscoApiModel>> transformers;
 
   private final List<String> snippetFileNames;
@@ -40,13 +49,20 @@ public class DiscoGapicGenerator implements CodeGenerator<Doc> {
       DiscoApiModel model,
       GapicProductConfig productConfig,
       CommonSnippetSetRunner snippetSetRunner,
+      List<ModelToViewTransformer<DiscoApiModel>> shardedTransformers,
+      int shardCount,
       List<ModelToViewTransformer<DiscoApiModel>> transformers) {
     this.model = model;
     this.productConfig = productConfig;
     this.snippetSetRunner = snippetSetRunner;
+    this.shardedTransformers = shardedTransformers;
+    this.shardCount = shardCount;
     this.transformers = transformers;
 
     ImmutableList.Builder<String> snippetFileNames = ImmutableList.builder();
+    for (ModelToViewTransformer<DiscoApiModel> transformer : shardedTransformers) {
+      snippetFileNames.addAll(transformer.getTemplateFileNames());
+    }
     for (ModelToViewTransformer<DiscoApiModel> transformer : transformers) {
       snippetFileNames.addAll(transformer.getTemplateFileNames());
     }
@@ -59,9 +75,92 @@ public class DiscoGapicGenerator implements CodeGenerator<Doc> {
   }
 
   @Override
-  public Map<String, GeneratedResult<Doc>> generate() {
+  public Map<String, GeneratedResult<Doc>> generate() throws IOException {
     Map<String, GeneratedResult<Doc>> results = new LinkedTreeMap<>();
+    generate(
+        batch -> {
+          for (Map.Entry<String, GeneratedResult<Doc>> result : batch.entrySet()) {
+            GeneratedResult<Doc> previous = results.putIfAbsent(result.getKey(), result.getValue());
+            if (previous != null) {
+              checkSameContent(result.getKey(), previous.getBody(), result.getValue().getBody());
+            }
+          }
+        });
+    return results;
+  }
+
+  private static void checkSameContent(String fileName, Doc first, Doc second) {
+    if (!first.prettyPrint().equals(second.prettyPrint())) {
+      throw new IllegalStateException(
+          "The file " + fileName + " was generated with different contents by several shards.");
+    }
+  }
+
+  /**
+   * Runs code generation, passing the generated files to the sink in batches instead of returning
+   * them all at once. When the model is sharded, the shards run in batches of at most one shard per
+   * processor, and the files of each batch are passed to the sink before the next batch starts, so
+   * that only the output and DiscoveryFields of one batch are held in memory at a time. More shards
+   * therefore mean a lower peak memory.
+   */
+  public void generate(ResultSink sink) throws IOException {
+    if (shardCount > 1 && !shardedTransformers.isEmpty()) {
+      generateShards(sink);
+    } else {
+      Map<String, GeneratedResult<Doc>> results = new LinkedTreeMap<>();
+      generate(model, shardedTransformers, results);
+      sink.accept(results);
+    }
+    Map<String, GeneratedResult<Doc>> results = new LinkedTreeMap<>();
+    generate(model, transformers, results);
+    sink.accept(results);
+  }
 
+  /**
+   * Renders the sharded transformers for each shard of the model, running one batch of shards in
+   * parallel at a time. The files of each shard are passed to the sink separately, in shard order,
+   * so a file generated by several shards is passed once for each of them. The sink must check that
+   * the copies have the same content.
+   */
+  private void generateShards(ResultSink sink) throws IOException {
+    List<DiscoApiModel> shards = new ArrayList<>(model.shard(shardCount));
+    int batchSize = Math.min(shards.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(batchSize);
+    try {
+      for (int start = 0; start < shards.size(); start += batchSize) {
+        int end = Math.min(start + batchSize, shards.size());
+        List<Future<Map<String, GeneratedResult<Doc>>>> shardResults = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+          DiscoApiModel shard = shards.get(i);
+          // Release the shard once it has run, along with the DiscoveryFields it created.
+          shards.set(i, null);
+          shardResults.add(
+              executor.submit(
+                  () -> {
+                    Map<String, GeneratedResult<Doc>> shardResult = new LinkedTreeMap<>();
+                    generate(shard, shardedTransformers, shardResult);
+                    return shardResult;
+                  }));
+        }
+        for (Future<Map<String, GeneratedResult<Doc>>> shardResult : shardResults) {
+          sink.accept(shardResult.get());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while generating " + model.getTitle(), e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void generate(
+      DiscoApiModel model,
+      List<ModelToViewTransformer<DiscoApiModel>> transformers,
+      Map<String, GeneratedResult<Doc>> results) {
     for (ModelToViewTransformer<DiscoApiModel> transformer : transformers) {
       List<ViewModel> surfaceDocs = transformer.transform(model, productConfig);
 
@@ -69,8 +168,14 @@ public class DiscoGapicGenerator implements CodeGenerator<Doc> {
         results.putAll(snippetSetRunner.generate(surfaceDoc));
       }
     }
+  }
 
-    return results;
+  /**
+   * Receives the files generated by a DiscoGapicGenerator, one batch at a time. A file may be
+   * received in several batches, with the same content.
+   */
+  public interface ResultSink {
+    void accept(Map<String, GeneratedResult<Doc>> results) throws IOException;
   }
 
   public static Builder newBuilder() {
@@ -81,7 +186,9 @@ public class DiscoGapicGenerator implements CodeGenerator<Doc> {
     private DiscoApiModel model;
     private GapicProductConfig productConfig;
     private CommonSnippetSetRunner snippetSetRunner;
-    private List<ModelToViewTransformer<DiscoApiModel>> transformers;
+    private List<ModelToViewTransformer<DiscoApiModel>> shardedTransformers = ImmutableList.of();
+    private int shardCount = 1;
+    private List<ModelToViewTransformer<DiscoApiModel>> transformers = ImmutableList.of();
 
     private Builder() {}
 
@@ -106,8 +213,21 @@ public class DiscoGapicGenerator implements CodeGenerator<Doc> {
       return this;
     }
 
+    /**
+     * Sets transformers which run on each of {@code shardCount} shards of the model, in parallel
+     * batches, before the transformers that run on the whole model. Their output for the model must
+     * be the union of their outputs for its shards.
+     */
+    public Builder setShardedModelToViewTransformers(
+        List<ModelToViewTransformer<DiscoApiModel>> shardedTransformers, int shardCount) {
+      this.shardedTransformers = shardedTransformers;
+      this.shardCount = shardCount;
+      return this;
+    }
+
     public DiscoGapicGenerator build() {
-      return new DiscoGapicGenerator(model, productConfig, snippetSetRunner, transformers);
+      return new DiscoGapicGenerator(
+          model, productConfig, snippetSetRunner, shardedTransformers, shardCount, transformers);
     }
   }
 }
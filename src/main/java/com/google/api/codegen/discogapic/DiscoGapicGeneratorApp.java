@@ -14,8 +14,6 @@
  */
 package com.google.api.codegen.discogapic;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.api.codegen.ArtifactType;
 import com.google.api.codegen.ConfigProto;
 import com.google.api.codegen.common.CodeGenerator;
@@ -27,13 +25,13 @@ import com.google.api.codegen.config.DiscoApiModel;
 import com.google.api.codegen.config.GapicProductConfig;
 import com.google.api.codegen.config.PackageMetadataConfig;
 import com.google.api.codegen.config.PackagingConfig;
-import com.google.api.codegen.discovery.DiscoveryNode;
 import com.google.api.codegen.discovery.Document;
 import com.google.api.codegen.gapic.ArtifactFlags;
 import com.google.api.codegen.util.MultiYamlReader;
 import com.google.api.tools.framework.model.ConfigSource;
 import com.google.api.tools.framework.model.DiagCollector;
 import com.google.api.tools.framework.model.SimpleDiagCollector;
+import com.google.api.tools.framework.snippet.Doc;
 import com.google.api.tools.framework.tools.ToolOptions;
 import com.google.api.tools.framework.tools.ToolOptions.Option;
 import com.google.api.tools.framework.tools.ToolUtil;
@@ -42,16 +40,25 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.inject.TypeLiteral;
 import com.google.protobuf.Message;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import javax.annotation.Nullable;
 
 public class DiscoGapicGeneratorApp {
   public static final Option<String> LANGUAGE =
@@ -88,6 +95,13 @@ public class DiscoGapicGeneratorApp {
           "The artifacts to be generated by the code generator.",
           ImmutableList.of());
 
+  public static final Option<Integer> SHARD_COUNT =
+      ToolOptions.createOption(
+          Integer.class,
+          "shard_count",
+          "The number of shards in which to generate the resources of the API in parallel.",
+          1);
+
   private final ToolOptions options;
   private final ArtifactType artifactType;
 
@@ -108,13 +122,38 @@ public class DiscoGapicGeneratorApp {
       List<String> enabledArtifacts,
       ArtifactType artifactType)
       throws IOException {
+    return getGenerators(
+        discoveryDocPath,
+        configFileNames,
+        packageConfig2File,
+        dependencyConfigFile,
+        languageStr,
+        enabledArtifacts,
+        artifactType,
+        1);
+  }
+
+  /**
+   * From config file paths, constructs the DiscoGapicGenerators to run, generating the resources of
+   * the API in the given number of shards.
+   */
+  public static List<CodeGenerator<?>> getGenerators(
+      String discoveryDocPath,
+      List<String> configFileNames,
+      String packageConfig2File,
+      String dependencyConfigFile,
+      String languageStr,
+      List<String> enabledArtifacts,
+      ArtifactType artifactType,
+      int shardCount)
+      throws IOException {
     if (!new File(discoveryDocPath).exists()) {
       throw new IOException("File not found: " + discoveryDocPath);
     }
-    Reader reader = new InputStreamReader(new FileInputStream(new File(discoveryDocPath)));
-
-    ObjectMapper mapper = new ObjectMapper();
-    JsonNode root = mapper.readTree(reader);
+    Document document;
+    try (Reader reader = new InputStreamReader(new FileInputStream(new File(discoveryDocPath)))) {
+      document = Document.from(reader);
+    }
 
     // Read the YAML config and convert it to proto.
     if (configFileNames.size() == 0) {
@@ -152,14 +191,13 @@ public class DiscoGapicGeneratorApp {
     String defaultPackageName =
         configProto.getLanguageSettingsMap().get(languageStr).getPackageName();
 
-    DiscoApiModel model =
-        new DiscoApiModel(Document.from(new DiscoveryNode(root)), defaultPackageName);
+    DiscoApiModel model = new DiscoApiModel(document, defaultPackageName);
 
     GapicProductConfig productConfig = GapicProductConfig.create(model, configProto, language);
 
     ArtifactFlags artifactFlags = new ArtifactFlags(enabledArtifacts, artifactType, false);
     return DiscoGapicGeneratorFactory.create(
-        language, model, productConfig, packageConfig, artifactFlags);
+        language, model, productConfig, packageConfig, artifactFlags, shardCount);
   }
 
   public int run() throws Exception {
@@ -178,8 +216,13 @@ public class DiscoGapicGeneratorApp {
             null,
             languageStr,
             enabledArtifacts,
-            artifactType);
+            artifactType,
+            options.get(SHARD_COUNT));
 
+    if (options.get(SHARD_COUNT) > 1) {
+      writeCodeGenOutputIncrementally(generators, options.get(OUTPUT_FILE));
+      return 0;
+    }
     Map<String, Object> outputFiles = Maps.newHashMap();
     for (CodeGenerator<?> generator : generators) {
       outputFiles.putAll(GeneratedResult.extractBodies(generator.generate()));
@@ -197,6 +240,74 @@ public class DiscoGapicGeneratorApp {
     }
   }
 
+  /**
+   * Writes the output of each generator as it is produced, so that a sharded generator does not
+   * hold the output of all its shards in memory. A file which is generated several times is only
+   * written once, and the generation fails if its copies have different contents.
+   */
+  private void writeCodeGenOutputIncrementally(List<CodeGenerator<?>> generators, String outputPath)
+      throws IOException {
+    boolean isJar = outputPath.endsWith(".jar") || outputPath.endsWith(".srcjar");
+    try (JarOutputStream jar =
+        isJar ? new JarOutputStream(new FileOutputStream(outputPath)) : null) {
+      // The hash of the content of each written file, to check the later copies against.
+      Map<String, HashCode> writtenFiles = new HashMap<>();
+      for (CodeGenerator<?> generator : generators) {
+        if (generator instanceof DiscoGapicGenerator) {
+          ((DiscoGapicGenerator) generator)
+              .generate(
+                  results ->
+                      writeOutputFiles(
+                          GeneratedResult.extractBodies(results), outputPath, jar, writtenFiles));
+        } else {
+          writeOutputFiles(
+              GeneratedResult.extractBodies(generator.generate()), outputPath, jar, writtenFiles);
+        }
+      }
+    }
+  }
+
+  private static void writeOutputFiles(
+      Map<String, ?> outputFiles,
+      String outputPath,
+      @Nullable JarOutputStream jar,
+      Map<String, HashCode> writtenFiles)
+      throws IOException {
+    Map<String, byte[]> newFiles = new LinkedHashMap<>();
+    for (Map.Entry<String, ?> outputFile : outputFiles.entrySet()) {
+      byte[] content = toBytes(outputFile.getValue());
+      HashCode hash = Hashing.sha256().hashBytes(content);
+      HashCode previousHash = writtenFiles.putIfAbsent(outputFile.getKey(), hash);
+      if (previousHash == null) {
+        newFiles.put(outputFile.getKey(), content);
+      } else if (!previousHash.equals(hash)) {
+        throw new IllegalStateException(
+            "The file " + outputFile.getKey() + " was generated with different contents.");
+      }
+    }
+    if (jar == null) {
+      ToolUtil.writeFiles(newFiles, outputPath);
+      return;
+    }
+    for (Map.Entry<String, byte[]> newFile : newFiles.entrySet()) {
+      jar.putNextEntry(new JarEntry(newFile.getKey()));
+      jar.write(newFile.getValue());
+      jar.closeEntry();
+    }
+  }
+
+  private static byte[] toBytes(Object body) {
+    if (body instanceof Doc) {
+      return ((Doc) body).prettyPrint().getBytes(StandardCharsets.UTF_8);
+    } else if (body instanceof String) {
+      return ((String) body).getBytes(StandardCharsets.UTF_8);
+    } else if (body instanceof byte[]) {
+      return (byte[]) body;
+    } else {
+      throw new IllegalArgumentException("Unsupported output type: " + body.getClass());
+    }
+  }
+
   private static List<File> pathsToFiles(List<String> configFileNames) {
     List<File> files = new ArrayList<>();
 
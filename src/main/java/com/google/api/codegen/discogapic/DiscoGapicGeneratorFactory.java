@@ -49,6 +49,20 @@ public class DiscoGapicGeneratorFactory {
       GapicProductConfig productConfig,
       PackageMetadataConfig packageConfig,
       ArtifactFlags artifactFlags) {
+    return create(language, model, productConfig, packageConfig, artifactFlags, 1);
+  }
+
+  /**
+   * Create the DiscoGapicGenerator based on the given id, generating the resource name, message and
+   * request classes of the model in the given number of shards.
+   */
+  public static List<CodeGenerator<?>> create(
+      TargetLanguage language,
+      DiscoApiModel model,
+      GapicProductConfig productConfig,
+      PackageMetadataConfig packageConfig,
+      ArtifactFlags artifactFlags,
+      int shardCount) {
 
     ArrayList<CodeGenerator<?>> generators = new ArrayList<>();
 
@@ -61,17 +75,20 @@ public class DiscoGapicGeneratorFactory {
                   .setPrefix("src/main/java")
                   .setShouldAppendPackage(true)
                   .build();
-          List<ModelToViewTransformer<DiscoApiModel>> transformers =
+          // The surface is not sharded, since its package-info covers every service of the API.
+          List<ModelToViewTransformer<DiscoApiModel>> shardedTransformers =
               Arrays.asList(
                   new JavaDiscoGapicResourceNameToViewTransformer(javaPathMapper),
                   new JavaDiscoGapicSchemaToViewTransformer(javaPathMapper),
-                  new JavaDiscoGapicRequestToViewTransformer(javaPathMapper),
-                  new JavaDiscoGapicSurfaceTransformer(javaPathMapper));
+                  new JavaDiscoGapicRequestToViewTransformer(javaPathMapper));
+          List<ModelToViewTransformer<DiscoApiModel>> transformers =
+              Collections.singletonList(new JavaDiscoGapicSurfaceTransformer(javaPathMapper));
           DiscoGapicGenerator generator =
               DiscoGapicGenerator.newBuilder()
                   .setDiscoApiModel(model)
                   .setProductConfig(productConfig)
                   .setSnippetSetRunner(new CommonSnippetSetRunner(new JavaRenderingUtil()))
+                  .setShardedModelToViewTransformers(shardedTransformers, shardCount)
                   .setModelToViewTransformers(transformers)
                   .build();
 
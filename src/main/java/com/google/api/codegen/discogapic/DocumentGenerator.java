@@ -14,9 +14,6 @@
  */
 package com.google.api.codegen.discogapic;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.api.codegen.discovery.DiscoveryNode;
 import com.google.api.codegen.discovery.Document;
 import com.google.api.tools.framework.model.Diag;
 import com.google.api.tools.framework.model.DiagCollector;
@@ -35,10 +32,9 @@ public class DocumentGenerator {
       throw new FileNotFoundException("Discovery document filepath not found.");
     }
 
-    Reader reader = new InputStreamReader(new FileInputStream(new File(discoveryDocPath)));
-    ObjectMapper mapper = new ObjectMapper();
-    JsonNode root = mapper.readTree(reader);
-    return Document.from(new DiscoveryNode(root));
+    try (Reader reader = new InputStreamReader(new FileInputStream(new File(discoveryDocPath)))) {
+      return Document.from(reader);
+    }
   }
 
   public static Document createDocumentAndLog(String discoveryDocPath, DiagCollector diagCollector)
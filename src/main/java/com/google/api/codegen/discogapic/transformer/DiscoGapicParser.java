@@ -18,28 +18,87 @@ import com.google.api.codegen.config.DiscoveryField;
 import com.google.api.codegen.config.ResourceNameConfig;
 import com.google.api.codegen.discovery.Method;
 import com.google.api.codegen.discovery.Schema;
+import com.google.api.codegen.util.CommonAcronyms;
 import com.google.api.codegen.util.Inflector;
 import com.google.api.codegen.util.Name;
 import com.google.common.base.Strings;
-import java.util.regex.Pattern;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 /**
  * Utility class for parsing Discovery document fields into canonical inputs for the discogapic
  * transformer pipeline.
+ *
+ * <p>The names derived from identifiers, paths and methods are cached, since the namers, fields and
+ * interface configs of a Discovery API convert the same identifiers many times. The cache is shared
+ * by all callers and is dropped whenever the recognized acronyms change.
  */
 public class DiscoGapicParser {
-  private static final String REGEX_DELIMITER = "\\.";
-  private static final String PATH_DELIMITER = "/";
+  private static final char ID_DELIMITER = '.';
+  private static final char PATH_DELIMITER = '/';
+
+  private static volatile NameCache nameCache = new NameCache(CommonAcronyms.getAcronyms());
+
+  /** Names derived under one set of recognized acronyms. */
+  private static class NameCache {
+    private final ImmutableSet<String> acronyms;
+    private final ConcurrentMap<String, Name> identifierNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Name> resourceIdentifiers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Name> qualifiedResourceIdentifiers =
+        new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Name> interfaceNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Method, Name> requestNames = new MapMaker().weakKeys().makeMap();
+    private final ConcurrentMap<Method, Name> methodNames = new MapMaker().weakKeys().makeMap();
+
+    private NameCache(ImmutableSet<String> acronyms) {
+      this.acronyms = acronyms;
+    }
+  }
 
-  private static final Pattern UNBRACKETED_PATH_SEGMENTS_PATTERN =
-      Pattern.compile("\\}/((?:[a-zA-Z]+/){2,})\\{");
+  private static NameCache nameCache() {
+    NameCache cache = nameCache;
+    ImmutableSet<String> acronyms = CommonAcronyms.getAcronyms();
+    if (cache.acronyms != acronyms) {
+      cache = new NameCache(acronyms);
+      nameCache = cache;
+    }
+    return cache;
+  }
+
+  private static <K> Name getOrParse(
+      ConcurrentMap<K, Name> names, K key, Function<K, Name> parser) {
+    Name name = names.get(key);
+    if (name == null) {
+      name = parser.apply(key);
+      Name existing = names.putIfAbsent(key, name);
+      if (existing != null) {
+        name = existing;
+      }
+    }
+    return name;
+  }
 
   public static Name stringToName(String fieldName) {
-    if (fieldName.contains("_")) {
-      return Name.anyCamel(fieldName.split("_"));
-    } else {
+    return getOrParse(nameCache().identifierNames, fieldName, DiscoGapicParser::parseIdentifier);
+  }
+
+  private static Name parseIdentifier(String fieldName) {
+    if (fieldName.indexOf('_') < 0) {
       return Name.anyCamel(fieldName);
     }
+    List<String> pieces = new ArrayList<>();
+    int start = 0;
+    for (int end = fieldName.indexOf('_'); end >= 0; end = fieldName.indexOf('_', start)) {
+      pieces.add(fieldName.substring(start, end));
+      start = end + 1;
+    }
+    pieces.add(fieldName.substring(start));
+    return Name.anyCamel(pieces.toArray(new String[0]));
   }
 
   /**
@@ -73,9 +132,15 @@ public class DiscoGapicParser {
 
   /** Get the request type name from a method. */
   public static Name getRequestName(Method method) {
-    String[] pieces = method.id().split(REGEX_DELIMITER);
-    String methodName = pieces[pieces.length - 1];
-    String resourceName = pieces[pieces.length - 2];
+    return getOrParse(nameCache().requestNames, method, DiscoGapicParser::parseRequestName);
+  }
+
+  private static Name parseRequestName(Method method) {
+    String id = method.id();
+    int methodStart = id.lastIndexOf(ID_DELIMITER) + 1;
+    String methodName = id.substring(methodStart);
+    String resourceName =
+        id.substring(id.lastIndexOf(ID_DELIMITER, methodStart - 2) + 1, methodStart - 1);
     if (!method.isPluralMethod()) {
       resourceName = Inflector.singularize(resourceName);
     }
@@ -97,18 +162,25 @@ public class DiscoGapicParser {
   }
 
   public static Name getInterfaceName(String defaultInterfaceName) {
-    String[] pieces = defaultInterfaceName.split(REGEX_DELIMITER);
-    String resource = pieces[pieces.length - 1];
-    return Name.anyCamel(Inflector.singularize(resource));
+    return getOrParse(
+        nameCache().interfaceNames, defaultInterfaceName, DiscoGapicParser::parseInterfaceName);
+  }
+
+  private static Name parseInterfaceName(String defaultInterfaceName) {
+    return Name.anyCamel(Inflector.singularize(getSimpleInterfaceName(defaultInterfaceName)));
   }
 
   public static String getSimpleInterfaceName(String interfaceName) {
-    String[] pieces = interfaceName.split(REGEX_DELIMITER);
-    return pieces[pieces.length - 1];
+    return interfaceName.substring(interfaceName.lastIndexOf(ID_DELIMITER) + 1);
   }
 
   /** Return the name of the unqualified resource from a given method's path. */
   public static Name getResourceIdentifier(String methodPath) {
+    return getOrParse(
+        nameCache().resourceIdentifiers, methodPath, DiscoGapicParser::parseResourceIdentifier);
+  }
+
+  private static Name parseResourceIdentifier(String methodPath) {
     // Assumes the resource is the last curly-bracketed String in the path.
     String baseResource =
         methodPath.substring(methodPath.lastIndexOf('{') + 1, methodPath.lastIndexOf('}'));
@@ -120,33 +192,56 @@ public class DiscoGapicParser {
    * "[api].[resource].[function]".
    */
   public static Name methodAsName(Method method) {
-    String[] pieces = method.id().split(REGEX_DELIMITER);
-    String resourceLastName = pieces[pieces.length - 2];
+    return getOrParse(nameCache().methodNames, method, DiscoGapicParser::parseMethodName);
+  }
+
+  private static Name parseMethodName(Method method) {
+    List<String> pieces = splitId(method.id());
+    String resourceLastName = pieces.get(pieces.size() - 2);
     if (!method.isPluralMethod()) {
       resourceLastName = Inflector.singularize(resourceLastName);
     }
     Name resource = Name.anyCamel(resourceLastName);
-    for (int i = pieces.length - 3; i > 0; i--) {
-      resource = Name.anyCamel(pieces[i]).join(resource);
+    for (int i = pieces.size() - 3; i > 0; i--) {
+      resource = Name.anyCamel(pieces.get(i)).join(resource);
     }
-    Name function = Name.anyCamel(pieces[pieces.length - 1]);
+    Name function = Name.anyCamel(pieces.get(pieces.size() - 1));
     return function.join(resource);
   }
 
+  private static List<String> splitId(String id) {
+    List<String> pieces = new ArrayList<>();
+    int start = 0;
+    for (int end = id.indexOf(ID_DELIMITER); end >= 0; end = id.indexOf(ID_DELIMITER, start)) {
+      pieces.add(id.substring(start, end));
+      start = end + 1;
+    }
+    pieces.add(id.substring(start));
+    return pieces;
+  }
+
   /**
    * Return the name of the fully qualified resource from a given canonicalized path. Use {@link
    * #getCanonicalPath(String)}} for canonicalization of the parameter. This method includes all
    * segments from the input path in the resulting Name except for consecutive duplicate segments.
    */
   public static Name getQualifiedResourceIdentifier(String canonicalPath) {
-    String[] pieces = canonicalPath.split(PATH_DELIMITER);
+    return getOrParse(
+        nameCache().qualifiedResourceIdentifiers,
+        canonicalPath,
+        DiscoGapicParser::parseQualifiedResourceIdentifier);
+  }
 
+  private static Name parseQualifiedResourceIdentifier(String canonicalPath) {
     Name name = Name.from();
     String previous = null;
-    for (String segment : pieces) {
-      String next = segment;
-      if (segment.contains("}")) {
-        next = segment.substring(1, segment.length() - 1);
+    int start = 0;
+    while (start >= 0) {
+      int end = canonicalPath.indexOf(PATH_DELIMITER, start);
+      String next = canonicalPath.substring(start, end < 0 ? canonicalPath.length() : end);
+      start = end < 0 ? -1 : end + 1;
+      if (next.indexOf('}') >= 0) {
+        next = next.substring(1, next.length() - 1);
       }
       next = Inflector.singularize(next);
       if (!next.equals(previous)) {
@@ -155,7 +250,6 @@ public class DiscoGapicParser {
         previous = next;
       }
     }
-
     return name;
   }
 
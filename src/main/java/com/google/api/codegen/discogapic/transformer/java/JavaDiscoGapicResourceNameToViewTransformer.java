@@ -118,6 +118,11 @@ public class JavaDiscoGapicResourceNameToViewTransformer
         if (namePatterns.contains(namePattern)) {
           continue;
         }
+        if (!apiModel.generatesInterface(interfaceName)) {
+          // The pattern is generated by the shard of the model which owns this interface.
+          namePatterns.add(namePattern);
+          continue;
+        }
         Method method = namePatternsToMethod.get(namePattern);
         StaticLangApiResourceNameView resourceNameView =
             generateResourceNameClass(requestContext, method, nameConfig);
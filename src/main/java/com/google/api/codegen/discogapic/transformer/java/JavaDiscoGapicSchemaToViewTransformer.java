@@ -91,7 +91,7 @@ public class JavaDiscoGapicSchemaToViewTransformer
             surfaceNamer,
             JavaFeatureConfig.create(productConfig));
 
-    for (Schema schema : context.getDocument().schemas().values()) {
+    for (Schema schema : model.getGeneratedSchemas()) {
       Map<SchemaTransformationContext, StaticLangApiMessageView> contextViews =
           new TreeMap<>(SchemaTransformationContext.comparator);
       generateSchemaClasses(contextViews, context, schema);
@@ -197,6 +197,7 @@ public class JavaDiscoGapicSchemaToViewTransformer
     schemaView.canRepeat(schema.repeated() || schema.type().equals(Type.ARRAY));
     schemaView.isRequired(schema.required());
     schemaView.hasRequiredProperties(hasRequiredProperties);
+    schemaView.hasJsonCodec(true);
 
     StaticLangApiMessageView messageView = schemaView.build();
 
@@ -210,7 +211,16 @@ public class JavaDiscoGapicSchemaToViewTransformer
   private void addApiImports(ImportTypeTable typeTable) {
     typeTable.getAndSaveNicknameFor("com.google.api.core.BetaApi");
     typeTable.getAndSaveNicknameFor("com.google.api.gax.httpjson.ApiMessage");
+    typeTable.getAndSaveNicknameFor("com.google.gson.Gson");
+    typeTable.getAndSaveNicknameFor("com.google.gson.TypeAdapter");
+    typeTable.getAndSaveNicknameFor("com.google.gson.TypeAdapterFactory");
+    typeTable.getAndSaveNicknameFor("com.google.gson.annotations.JsonAdapter");
     typeTable.getAndSaveNicknameFor("com.google.gson.annotations.SerializedName");
+    typeTable.getAndSaveNicknameFor("com.google.gson.reflect.TypeToken");
+    typeTable.getAndSaveNicknameFor("com.google.gson.stream.JsonReader");
+    typeTable.getAndSaveNicknameFor("com.google.gson.stream.JsonToken");
+    typeTable.getAndSaveNicknameFor("com.google.gson.stream.JsonWriter");
+    typeTable.getAndSaveNicknameFor("java.io.IOException");
     typeTable.getAndSaveNicknameFor("com.google.common.collect.ImmutableList");
     typeTable.getAndSaveNicknameFor("com.google.common.collect.ImmutableMap");
     typeTable.getAndSaveNicknameFor("java.util.Collections");
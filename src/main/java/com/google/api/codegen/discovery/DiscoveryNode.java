@@ -27,9 +27,13 @@ import java.util.List;
  */
 public class DiscoveryNode {
 
-  private static JsonNode EMPTY_ARRAY_JSON_NODE = JsonNodeFactory.instance.arrayNode();
-  private static JsonNode EMPTY_OBJECT_JSON_NODE = JsonNodeFactory.instance.objectNode();
-  private JsonNode jsonNode;
+  // Shared by all the wrappers of missing nodes; DiscoveryNode never modifies the wrapped node.
+  private static final JsonNode EMPTY_ARRAY_JSON_NODE = JsonNodeFactory.instance.arrayNode();
+  private static final JsonNode EMPTY_OBJECT_JSON_NODE = JsonNodeFactory.instance.objectNode();
+  private static final DiscoveryNode EMPTY_ARRAY = new DiscoveryNode(EMPTY_ARRAY_JSON_NODE);
+  private static final DiscoveryNode EMPTY_OBJECT = new DiscoveryNode(EMPTY_OBJECT_JSON_NODE);
+
+  private final JsonNode jsonNode;
 
   /**
    * Constructs a DiscoveryNode that wraps jsonNode.
@@ -39,10 +43,7 @@ public class DiscoveryNode {
    * @param jsonNode the JsonNode to be wrapped.
    */
   public DiscoveryNode(JsonNode jsonNode) {
-    if (jsonNode == null) {
-      jsonNode = EMPTY_OBJECT_JSON_NODE.deepCopy();
-    }
-    this.jsonNode = jsonNode;
+    this.jsonNode = jsonNode == null ? EMPTY_OBJECT_JSON_NODE : jsonNode;
   }
 
   /** @return a valid string representation of this node. */
@@ -57,7 +58,7 @@ public class DiscoveryNode {
    * @return a list of this node's elements.
    */
   public List<DiscoveryNode> getElements() {
-    List<DiscoveryNode> elements = new ArrayList<>();
+    List<DiscoveryNode> elements = new ArrayList<>(jsonNode.size());
     for (Iterator<JsonNode> it = jsonNode.elements(); it.hasNext(); ) {
       elements.add(new DiscoveryNode(it.next()));
     }
@@ -70,7 +71,7 @@ public class DiscoveryNode {
    * @return a list of this node's field names.
    */
   public List<String> getFieldNames() {
-    List<String> fieldNames = new ArrayList<>();
+    List<String> fieldNames = new ArrayList<>(jsonNode.size());
     for (Iterator<String> it = jsonNode.fieldNames(); it.hasNext(); ) {
       fieldNames.add(it.next());
     }
@@ -85,11 +86,12 @@ public class DiscoveryNode {
    * @return an array node.
    */
   public DiscoveryNode getArray(String fieldName) {
-    if (!jsonNode.has(fieldName)) {
-      return new DiscoveryNode(EMPTY_ARRAY_JSON_NODE);
+    JsonNode child = jsonNode.get(fieldName);
+    if (child == null) {
+      return EMPTY_ARRAY;
     }
-    Preconditions.checkArgument(jsonNode.get(fieldName).isArray());
-    return new DiscoveryNode(jsonNode.get(fieldName));
+    Preconditions.checkArgument(child.isArray());
+    return new DiscoveryNode(child);
   }
 
   /**
@@ -125,11 +127,12 @@ public class DiscoveryNode {
    * @return an object node.
    */
   public DiscoveryNode getObject(String fieldName) {
-    if (!jsonNode.has(fieldName)) {
-      return new DiscoveryNode(EMPTY_OBJECT_JSON_NODE);
+    JsonNode child = jsonNode.get(fieldName);
+    if (child == null) {
+      return EMPTY_OBJECT;
     }
-    Preconditions.checkArgument(jsonNode.get(fieldName).isObject());
-    return new DiscoveryNode(jsonNode.get(fieldName));
+    Preconditions.checkArgument(child.isObject());
+    return new DiscoveryNode(child);
   }
 
   /**
@@ -139,11 +142,12 @@ public class DiscoveryNode {
    * @return a string.
    */
   public String getString(String fieldName) {
-    if (!jsonNode.has(fieldName)) {
+    JsonNode child = jsonNode.get(fieldName);
+    if (child == null) {
       return "";
     }
-    Preconditions.checkArgument(jsonNode.get(fieldName).isTextual());
-    return jsonNode.get(fieldName).asText();
+    Preconditions.checkArgument(child.isTextual());
+    return child.asText();
   }
 
   /**
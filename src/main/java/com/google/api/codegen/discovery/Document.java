@@ -16,11 +16,18 @@ package com.google.api.codegen.discovery;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.auto.value.AutoValue;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 import com.google.gson.internal.LinkedTreeMap;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -42,6 +49,115 @@ public abstract class Document implements Node {
   private static final String CLOUD_PLATFORM_SCOPE =
       "https://www.googleapis.com/auth/cloud-platform";
 
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+  /**
+   * Returns a document parsed from the JSON text of a Discovery document.
+   *
+   * <p>The text is read with a streaming parser. Only the JSON tree of one schema or method is
+   * built at a time, and is released once the schema or method has been built from it, so the JSON
+   * tree of the whole document is never held in memory. The schema references are resolved once the
+   * whole document has been read.
+   *
+   * @param reader the JSON text to parse, which is not closed by this method.
+   * @return a document.
+   */
+  public static Document from(Reader reader) throws IOException {
+    try (JsonParser parser = JSON_MAPPER.getFactory().createParser(reader)) {
+      parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Expected a JSON object at " + parser.getCurrentLocation());
+      }
+
+      // The small top-level fields, such as the names and auth scopes, are kept as a tree.
+      ObjectNode root = JSON_MAPPER.createObjectNode();
+      Map<String, Schema> schemas = new HashMap<>();
+      Map<String, List<Method>> resources = new LinkedTreeMap<>();
+      List<Method> methods = new ArrayList<>();
+      while (nextField(parser)) {
+        String fieldName = parser.getCurrentName();
+        switch (fieldName) {
+          case "schemas":
+            checkObject(parser);
+            while (nextField(parser)) {
+              String name = parser.getCurrentName();
+              checkObject(parser);
+              schemas.put(name, Schema.from(readNode(parser), name, null));
+            }
+            break;
+          case "resources":
+            checkObject(parser);
+            while (nextField(parser)) {
+              resources.put(parser.getCurrentName(), readResourceMethods(parser));
+            }
+            break;
+          case "methods":
+            methods.addAll(readOwnMethods(parser));
+            break;
+          default:
+            root.set(fieldName, parser.readValueAsTree());
+        }
+      }
+      return from(new DiscoveryNode(root), schemas, resources, methods);
+    }
+  }
+
+  /** Reads the methods of a resource and of its nested resources, as parseMethods does. */
+  private static List<Method> readResourceMethods(JsonParser parser) throws IOException {
+    List<Method> methods = new ArrayList<>();
+    List<Method> nestedMethods = new ArrayList<>();
+    checkObject(parser);
+    while (nextField(parser)) {
+      switch (parser.getCurrentName()) {
+        case "methods":
+          methods.addAll(readOwnMethods(parser));
+          break;
+        case "resources":
+          checkObject(parser);
+          while (nextField(parser)) {
+            nestedMethods.addAll(readResourceMethods(parser));
+          }
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    // The methods of the resource itself come first, wherever they are in the text.
+    methods.addAll(nestedMethods);
+    return methods;
+  }
+
+  private static List<Method> readOwnMethods(JsonParser parser) throws IOException {
+    List<Method> methods = new ArrayList<>();
+    checkObject(parser);
+    while (nextField(parser)) {
+      checkObject(parser);
+      methods.add(Method.from(readNode(parser), null));
+    }
+    return methods;
+  }
+
+  /** Moves to the value of the next field of the current object; returns false at its end. */
+  private static boolean nextField(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.FIELD_NAME) {
+      return false;
+    }
+    parser.nextToken();
+    return true;
+  }
+
+  /** Checks that the current value is an object, as {@link DiscoveryNode#getObject} does. */
+  private static void checkObject(JsonParser parser) {
+    Preconditions.checkArgument(
+        parser.currentToken() == JsonToken.START_OBJECT,
+        "Expected a JSON object at %s",
+        parser.getCurrentLocation());
+  }
+
+  private static DiscoveryNode readNode(JsonParser parser) throws IOException {
+    return new DiscoveryNode(parser.readValueAsTree());
+  }
+
   /**
    * Returns a document constructed from root.
    *
@@ -49,6 +165,18 @@ public abstract class Document implements Node {
    * @return a document.
    */
   public static Document from(DiscoveryNode root) {
+    return from(root, parseSchemas(root), parseResources(root), parseOwnMethods(root));
+  }
+
+  /**
+   * Returns a document constructed from its top-level fields in root, and from the given schemas,
+   * resources and methods, which are declared at the top level of the document.
+   */
+  private static Document from(
+      DiscoveryNode root,
+      Map<String, Schema> schemas,
+      Map<String, List<Method>> resources,
+      List<Method> methods) {
     AuthType authType;
     DiscoveryNode scopesNode = root.getObject("auth").getObject("oauth2").getObject("scopes");
 
@@ -66,15 +194,16 @@ public abstract class Document implements Node {
     String canonicalName = root.getString("canonicalName");
     String description = root.getString("description");
     String id = root.getString("id");
-    Map<String, Schema> schemas = parseSchemas(root);
-    List<Method> methods = parseMethods(root);
+    // The list of all methods shares the Method objects of the resources.
+    for (List<Method> resourceMethods : resources.values()) {
+      methods.addAll(resourceMethods);
+    }
     Collections.sort(methods); // Ensure methods are ordered alphabetically by their ID.
     String ownerDomain = root.getString("ownerDomain");
     String name = root.getString("name");
     if (canonicalName.isEmpty()) {
       canonicalName = name;
     }
-    Map<String, List<Method>> resources = parseResources(root);
     String revision = root.getString("revision");
     String rootUrl = root.getString("rootUrl");
     String servicePath = root.getString("servicePath");
@@ -115,43 +244,43 @@ public abstract class Document implements Node {
     for (Method method : methods) {
       method.setParent(thisDocument);
     }
-    for (List<Method> resourceMethods : resources.values()) {
-      for (Method method : resourceMethods) {
-        method.setParent(thisDocument);
-      }
+
+    // Resolve all the schema references once, now that every schema is attached to the document.
+    for (Schema schema : schemas.values()) {
+      schema.resolveReferences(schemas);
+    }
+    for (Method method : methods) {
+      method.resolveReferences(schemas);
     }
 
     return thisDocument;
   }
 
   private static Map<String, List<Method>> parseResources(DiscoveryNode root) {
-    List<Method> methods = new ArrayList<>();
-    DiscoveryNode methodsNode = root.getObject("methods");
-    List<String> resourceNames = methodsNode.getFieldNames();
-    for (String name : resourceNames) {
-      methods.add(Method.from(methodsNode.getObject(name), null));
-    }
     Map<String, List<Method>> resources = new LinkedTreeMap<>();
     DiscoveryNode resourcesNode = root.getObject("resources");
-    resourceNames = resourcesNode.getFieldNames();
-    for (String name : resourceNames) {
+    for (String name : resourcesNode.getFieldNames()) {
       resources.put(name, parseMethods(resourcesNode.getObject(name)));
     }
     return resources;
   }
 
   private static List<Method> parseMethods(DiscoveryNode root) {
+    List<Method> methods = parseOwnMethods(root);
+    DiscoveryNode resourcesNode = root.getObject("resources");
+    for (String name : resourcesNode.getFieldNames()) {
+      methods.addAll(parseMethods(resourcesNode.getObject(name)));
+    }
+    return methods;
+  }
+
+  /** Parses the methods declared directly in root, excluding those of its resources. */
+  private static List<Method> parseOwnMethods(DiscoveryNode root) {
     List<Method> methods = new ArrayList<>();
     DiscoveryNode methodsNode = root.getObject("methods");
-    List<String> resourceNames = methodsNode.getFieldNames();
-    for (String name : resourceNames) {
+    for (String name : methodsNode.getFieldNames()) {
       methods.add(Method.from(methodsNode.getObject(name), null));
     }
-    DiscoveryNode resourcesNode = root.getObject("resources");
-    resourceNames = resourcesNode.getFieldNames();
-    for (String name : resourceNames) {
-      methods.addAll(parseMethods(resourcesNode.getObject(name)));
-    }
     return methods;
   }
 
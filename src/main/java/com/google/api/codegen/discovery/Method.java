@@ -108,6 +108,19 @@ public abstract class Method implements Comparable<Method>, Node {
     return thisMethod;
   }
 
+  /** Links the request, response and parameter schemas to the schemas they reference. */
+  void resolveReferences(Map<String, Schema> documentSchemas) {
+    if (request() != null) {
+      request().resolveReferences(documentSchemas);
+    }
+    if (response() != null) {
+      response().resolveReferences(documentSchemas);
+    }
+    for (Schema schema : parameters().values()) {
+      schema.resolveReferences(documentSchemas);
+    }
+  }
+
   @Override
   public int compareTo(Method other) {
     return id().compareTo(other.id());
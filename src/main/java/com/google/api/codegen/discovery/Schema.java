@@ -19,6 +19,8 @@ import com.google.auto.value.AutoValue;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -47,6 +49,9 @@ public abstract class Schema implements Node {
    * @return the first non-reference schema, or this if this schema references no other.
    */
   public Schema dereference() {
+    if (referencedSchema != null) {
+      return referencedSchema;
+    }
     if (!Strings.isNullOrEmpty(reference())) {
       Node document = parent;
       while (document != null && !(document instanceof Document)) {
@@ -67,57 +72,17 @@ public abstract class Schema implements Node {
    * Traverses the schema's child nodes to find a Schema with the given childName. Returns a schema
    * traversal path to the target; this path will include the starting node if the target was found.
    * Returns an empty list if the target is not found.
+   *
+   * <p>The traversal is done once per schema, on the first call, and indexes the path to each
+   * reachable identifier; later calls only look up that index.
    */
   public List<Schema> findChild(String childName) {
-    Set<Schema> visitedNodes = new HashSet<>();
-    Map<Schema, Schema> nodeToPrevNode = new HashMap<>();
-
-    Schema currentNode = this;
-    Queue<Schema> queue = new LinkedList<>();
-    queue.add(this);
-    visitedNodes.add(this);
-
-    // BFS to find the target node.
-    while (queue.size() != 0 && !currentNode.getIdentifier().equals(childName)) {
-      currentNode = queue.poll().dereference();
-
-      // Add all direct children of current node to local queue.
-      Queue<Schema> localQueue = new LinkedList<>();
-      if (currentNode.properties() != null && currentNode.properties().size() > 0) {
-        localQueue.addAll(currentNode.properties().values());
-      }
-      if (currentNode.additionalProperties() != null) {
-        localQueue.add(currentNode.additionalProperties());
-      }
-
-      while (localQueue.peek() != null) {
-        Schema next = localQueue.poll().dereference();
-
-        if (next.getIdentifier().equals(childName)) {
-          // Success.
-          nodeToPrevNode.put(next, currentNode);
-          currentNode = next;
-          break;
-        }
-        if (!visitedNodes.contains(next)) {
-          nodeToPrevNode.put(next, currentNode);
-          visitedNodes.add(next);
-          queue.add(next);
-        }
-      }
+    ChildIndex index = childIndex;
+    if (index == null) {
+      index = new ChildIndex(this);
+      childIndex = index;
     }
-
-    // Get the path to the schema.
-    List<Schema> pathToChild = new LinkedList<>();
-    if (currentNode.getIdentifier().equals(childName)) {
-      while (!currentNode.equals(this)) {
-        pathToChild.add(0, currentNode);
-        currentNode = nodeToPrevNode.get(currentNode);
-      }
-      pathToChild.add(0, currentNode);
-    }
-
-    return pathToChild;
+    return index.findChild(childName);
   }
 
   /**
@@ -216,6 +181,15 @@ public abstract class Schema implements Node {
 
   @JsonIgnore @Nullable private Node parent;
 
+  // The schema that reference() names, linked when the containing document is parsed.
+  @JsonIgnore @Nullable private Schema referencedSchema;
+
+  // The memoized hashCode, or 0 if it has not been computed since the parent was last set.
+  @JsonIgnore private int hash;
+
+  // The index of the schemas reachable from this schema, built by the first findChild call.
+  @JsonIgnore @Nullable private volatile ChildIndex childIndex;
+
   /** @return the {@link Node} that contains this Schema. */
   @Nullable
   public Node parent() {
@@ -224,6 +198,26 @@ public abstract class Schema implements Node {
 
   void setParent(Node parent) {
     this.parent = parent;
+    this.hash = 0;
+  }
+
+  /**
+   * Links this schema and its child schemas to the schemas of {@code documentSchemas} that they
+   * reference, so that {@link #dereference()} does not need to look them up.
+   */
+  void resolveReferences(Map<String, Schema> documentSchemas) {
+    if (!Strings.isNullOrEmpty(reference())) {
+      referencedSchema = documentSchemas.get(reference());
+    }
+    if (items() != null) {
+      items().resolveReferences(documentSchemas);
+    }
+    for (Schema property : properties().values()) {
+      property.resolveReferences(documentSchemas);
+    }
+    if (additionalProperties() != null) {
+      additionalProperties().resolveReferences(documentSchemas);
+    }
   }
 
   /** @return the schema of the additionalProperties, or null if none. */
@@ -369,6 +363,15 @@ public abstract class Schema implements Node {
    */
   @Override
   public int hashCode() {
+    int h = hash;
+    if (h == 0) {
+      h = computeHashCode();
+      hash = h;
+    }
+    return h;
+  }
+
+  private int computeHashCode() {
     return Objects.hash(
         additionalProperties() == null ? null : additionalProperties().getIdentifier(),
         defaultValue(),
@@ -393,7 +396,13 @@ public abstract class Schema implements Node {
     if (!(other instanceof Schema)) {
       return false;
     }
+    if (this == other) {
+      return true;
+    }
     Schema schema2 = (Schema) other;
+    if (hashCode() != schema2.hashCode()) {
+      return false;
+    }
 
     return Objects.equals(
             additionalProperties() == null ? null : additionalProperties().getIdentifier(),
@@ -466,4 +475,64 @@ public abstract class Schema implements Node {
 
     public abstract Schema build();
   }
+
+  /**
+   * The breadth-first traversal of the schemas reachable from a root schema. For each identifier,
+   * it records the first schema found with that identifier and the schema it was reached from.
+   */
+  private static class ChildIndex {
+    private final Schema root;
+    private final Map<String, Schema> targets = new HashMap<>();
+    private final Map<String, Schema> targetParents = new HashMap<>();
+    private final Map<Schema, Schema> nodeToPrevNode = new HashMap<>();
+
+    ChildIndex(Schema root) {
+      this.root = root;
+      Set<Schema> visitedNodes = new HashSet<>();
+      Queue<Schema> queue = new ArrayDeque<>();
+      queue.add(root);
+      visitedNodes.add(root);
+
+      while (!queue.isEmpty()) {
+        Schema currentNode = queue.poll().dereference();
+
+        List<Schema> children = new ArrayList<>(currentNode.properties().values());
+        if (currentNode.additionalProperties() != null) {
+          children.add(currentNode.additionalProperties());
+        }
+        for (Schema child : children) {
+          Schema next = child.dereference();
+          if (!targets.containsKey(next.getIdentifier())) {
+            targets.put(next.getIdentifier(), next);
+            targetParents.put(next.getIdentifier(), currentNode);
+          }
+          if (visitedNodes.add(next)) {
+            nodeToPrevNode.put(next, currentNode);
+            queue.add(next);
+          }
+        }
+      }
+    }
+
+    List<Schema> findChild(String childName) {
+      List<Schema> pathToChild = new LinkedList<>();
+      if (root.getIdentifier().equals(childName)) {
+        pathToChild.add(root);
+        return pathToChild;
+      }
+      Schema target = targets.get(childName);
+      if (target == null) {
+        return pathToChild;
+      }
+
+      pathToChild.add(target);
+      Schema currentNode = targetParents.get(childName);
+      while (!currentNode.equals(root) && nodeToPrevNode.containsKey(currentNode)) {
+        pathToChild.add(0, currentNode);
+        currentNode = nodeToPrevNode.get(currentNode);
+      }
+      pathToChild.add(0, root);
+      return pathToChild;
+    }
+  }
 }
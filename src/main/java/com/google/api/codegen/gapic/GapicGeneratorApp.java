@@ -27,6 +27,7 @@ import com.google.api.codegen.config.PackagingConfig;
 import com.google.api.codegen.config.TransportProtocol;
 import com.google.api.codegen.grpc.ServiceConfig;
 import com.google.api.codegen.samplegen.v1p2.SampleConfigProto;
+import com.google.api.codegen.util.CommonAcronyms;
 import com.google.api.codegen.util.MultiYamlReader;
 import com.google.api.codegen.util.ProtoParser;
 import com.google.api.codegen.util.SampleConfigSanitizer;
@@ -121,6 +122,13 @@ public class GapicGeneratorApp extends ToolDriverBase {
               + " we only support the first transport in the list.",
           "grpc");
 
+  public static final Option<List<String>> ACRONYMS =
+      ToolOptions.createOption(
+          new TypeLiteral<List<String>>() {},
+          "acronyms",
+          "Additional upper-case acronyms to recognize when splitting names, such as HTTPS.",
+          ImmutableList.of());
+
   private ArtifactType artifactType;
 
   private final GapicWriter gapicWriter;
@@ -146,7 +154,16 @@ public class GapicGeneratorApp extends ToolDriverBase {
 
   @Override
   protected void process() throws Exception {
+    // The acronyms only apply to this run, not to other runs in the same JVM.
+    CommonAcronyms.setRunAcronyms(options.get(ACRONYMS));
+    try {
+      generate();
+    } finally {
+      CommonAcronyms.clearRunAcronyms();
+    }
+  }
 
+  private void generate() throws Exception {
     String protoPackage = Strings.emptyToNull(options.get(PROTO_PACKAGE));
 
     // Read the GAPIC config, if it was given, and convert it to proto.
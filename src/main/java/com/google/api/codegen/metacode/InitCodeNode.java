@@ -182,6 +182,27 @@ public class InitCodeNode {
    * root.
    */
   public static InitCodeNode createTree(InitCodeContext context) {
+    return createTree(context, createTypedTree(context));
+  }
+
+  /**
+   * Constructs a tree from a copy of {@code typedTree}, which must have been created by {@link
+   * #createTypedTree} with an equivalent context, by assigning the symbols and sample parameters of
+   * the provided context to its nodes. {@code typedTree} itself is not modified.
+   */
+  static InitCodeNode createTree(InitCodeContext context, InitCodeNode typedTree) {
+    InitCodeNode root = typedTree.copy();
+    root.resolveNames(context, context.suggestedName());
+    root.resolveSampleParamConfigs(context, context.sampleParamConfigMap());
+    return root;
+  }
+
+  /**
+   * Constructs the tree of objects to be initialized and resolves and validates the types of its
+   * nodes, without assigning any symbols. The result only depends on the init fields, config
+   * strings, value configs and field configs of the context.
+   */
+  static InitCodeNode createTypedTree(InitCodeContext context) {
     Preconditions.checkArgument(
         context.initFields() != null || context.outputType() != InitCodeOutputType.FieldList,
         "init field array is not set for flattened method");
@@ -207,9 +228,7 @@ public class InitCodeNode {
       root.mergeChild(node);
     }
 
-    root.resolveNamesAndTypes(context, context.initObjectType(), context.suggestedName(), null);
-    root.resolveSampleParamConfigs(context, context.sampleParamConfigMap());
-
+    root.resolveTypes(context, context.initObjectType(), null);
     return root;
   }
 
@@ -293,46 +312,68 @@ public class InitCodeNode {
     return a != null ? a : b;
   }
 
-  private void resolveNamesAndTypes(
-      InitCodeContext context, TypeModel type, Name suggestedName, FieldConfig fieldConfig) {
+  /** Returns a deep copy of this typed tree, without symbols or sample parameters. */
+  private InitCodeNode copy() {
+    InitCodeNode node = new InitCodeNode(key, lineType, initValueConfig, varName);
+    node.typeRef = typeRef;
+    node.nodeFieldConfig = nodeFieldConfig;
+    node.oneofConfig = oneofConfig;
+    node.description = description;
+    for (InitCodeNode child : children.values()) {
+      node.children.put(child.key, child.copy());
+    }
+    return node;
+  }
 
+  private void resolveTypes(InitCodeContext context, TypeModel type, FieldConfig fieldConfig) {
     for (InitCodeNode child : children.values()) {
       validateKeyValue(type, child.key);
-      child.resolveNamesAndTypes(
+      child.resolveTypes(
           context,
           getChildType(type, child.key),
-          getChildSuggestedName(suggestedName, lineType, child),
           getChildFieldConfig(context.fieldConfigMap(), fieldConfig, type, child.key));
       if (type.isMessage()) {
         child.oneofConfig = type.getOneOfConfig(child.getKey());
       }
     }
 
-    SymbolTable table = context.symbolTable();
-    TestValueGenerator valueGenerator = context.valueGenerator();
-
     validateType(lineType, type, children.keySet());
     typeRef = type;
     nodeFieldConfig = fieldConfig;
-    identifier = table.getNewSymbol(suggestedName);
 
     if (children.size() == 0) {
       // Set the lineType of childless nodes to SimpleInitLine
       lineType = InitCodeLineType.SimpleInitLine;
 
-      // Validate initValueConfig, or generate random value
+      // Validate initValueConfig
       if (initValueConfig.hasSimpleInitialValue()) {
         validateValue(type, initValueConfig.getInitialValue().getValue());
-      } else if (initValueConfig.isEmpty()
-          && type.isPrimitive()
-          && !type.isRepeated()
-          && valueGenerator != null) {
-        String newValue = valueGenerator.getAndStoreValue(type, identifier);
-        initValueConfig = InitValueConfig.createWithValue(InitValue.createLiteral(newValue));
       }
     }
   }
 
+  private void resolveNames(InitCodeContext context, Name suggestedName) {
+    for (InitCodeNode child : children.values()) {
+      child.resolveNames(context, getChildSuggestedName(suggestedName, lineType, child));
+    }
+
+    SymbolTable table = context.symbolTable();
+    TestValueGenerator valueGenerator = context.valueGenerator();
+
+    identifier = table.getNewSymbol(suggestedName);
+
+    // Generate random value for childless nodes without one
+    if (children.size() == 0
+        && !initValueConfig.hasSimpleInitialValue()
+        && initValueConfig.isEmpty()
+        && typeRef.isPrimitive()
+        && !typeRef.isRepeated()
+        && valueGenerator != null) {
+      String newValue = valueGenerator.getAndStoreValue(typeRef, identifier);
+      initValueConfig = InitValueConfig.createWithValue(InitValue.createLiteral(newValue));
+    }
+  }
+
   /*
    * Validate the lineType against the typeRef that has been set, and against child objects. In the
    * case of no child objects being present, update the lineType to SimpleInitLine.
@@ -0,0 +1,86 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.metacode;
+
+import com.google.api.codegen.config.FieldConfig;
+import com.google.api.codegen.config.FieldModel;
+import com.google.api.codegen.config.TypeModel;
+import com.google.api.codegen.metacode.InitCodeContext.InitCodeOutputType;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * A cache of typed init code trees, keyed by the parts of an {@link InitCodeContext} which
+ * determine the structure and types of the tree.
+ *
+ * <p>One instance is owned by each {@link com.google.api.codegen.config.GapicProductConfig}, so the
+ * tests, samples and snippets of every language parse and validate the init code of a method only
+ * once. Each call still returns a fresh tree, on which the symbols, test values and sample
+ * parameters of the given context have been resolved. The cache is safe for concurrent use.
+ *
+ * <p>Contexts with additional init code nodes are not cached, since those nodes are merged into the
+ * tree.
+ */
+public class InitCodeTreeCache {
+
+  private final ConcurrentMap<TreeKey, InitCodeNode> typedTrees = new ConcurrentHashMap<>();
+
+  /** Returns the tree of objects to be initialized, as built by {@link InitCodeNode#createTree}. */
+  public InitCodeNode createTree(InitCodeContext context) {
+    if (!context.additionalInitCodeNodes().isEmpty()) {
+      return InitCodeNode.createTree(context);
+    }
+    TreeKey key = TreeKey.create(context);
+    InitCodeNode typedTree = typedTrees.get(key);
+    if (typedTree == null) {
+      typedTree = InitCodeNode.createTypedTree(context);
+      InitCodeNode existing = typedTrees.putIfAbsent(key, typedTree);
+      if (existing != null) {
+        typedTree = existing;
+      }
+    }
+    return InitCodeNode.createTree(context, typedTree);
+  }
+
+  @AutoValue
+  abstract static class TreeKey {
+    abstract TypeModel initObjectType();
+
+    @Nullable
+    abstract ImmutableList<FieldModel> initFields();
+
+    abstract InitCodeOutputType outputType();
+
+    abstract ImmutableList<String> initFieldConfigStrings();
+
+    abstract ImmutableMap<String, InitValueConfig> initValueConfigMap();
+
+    abstract ImmutableMap<String, FieldConfig> fieldConfigMap();
+
+    static TreeKey create(InitCodeContext context) {
+      return new AutoValue_InitCodeTreeCache_TreeKey(
+          context.initObjectType(),
+          context.initFields() == null ? null : ImmutableList.copyOf(context.initFields()),
+          context.outputType(),
+          ImmutableList.copyOf(context.initFieldConfigStrings()),
+          context.initValueConfigMap(),
+          context.fieldConfigMap());
+    }
+  }
+}
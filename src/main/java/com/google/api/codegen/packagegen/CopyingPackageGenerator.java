@@ -0,0 +1,29 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.packagegen;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * A package generator which also puts existing files into the package, besides its generated
+ * results. When the package is written to an archive, the files are not copied to the output but
+ * returned by this interface, to be streamed into the archive.
+ */
+public interface CopyingPackageGenerator {
+
+  /** Returns the files to put into the archive, keyed by their path in the package. */
+  Map<String, Path> getFilesToArchive();
+}
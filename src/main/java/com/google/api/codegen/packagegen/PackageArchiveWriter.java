@@ -0,0 +1,224 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.packagegen;
+
+import com.google.api.codegen.common.GeneratedResult;
+import com.google.api.tools.framework.snippet.Doc;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the package generator output straight into a zip or tar.gz archive, instead of into a
+ * directory which is archived afterwards. Entries get a fixed timestamp, so that the same output
+ * always produces the same archive.
+ */
+public class PackageArchiveWriter implements Closeable {
+  private static final int TAR_BLOCK_SIZE = 512;
+  private static final int TAR_NAME_LENGTH = 100;
+  private static final int TAR_PREFIX_LENGTH = 155;
+  private static final int REGULAR_FILE_MODE = 0644;
+  private static final int EXECUTABLE_FILE_MODE = 0755;
+
+  private enum Format {
+    ZIP,
+    TAR_GZ
+  }
+
+  private final Format format;
+  private final OutputStream out;
+
+  private PackageArchiveWriter(Format format, OutputStream out) {
+    this.format = format;
+    this.out = out;
+  }
+
+  /** Returns true if the output path names an archive, rather than a directory. */
+  public static boolean isArchive(String outputPath) {
+    return getFormat(outputPath) != null;
+  }
+
+  private static Format getFormat(String outputPath) {
+    if (outputPath.endsWith(".zip")) {
+      return Format.ZIP;
+    }
+    if (outputPath.endsWith(".tar.gz") || outputPath.endsWith(".tgz")) {
+      return Format.TAR_GZ;
+    }
+    return null;
+  }
+
+  /** Creates the archive, with the format given by its file extension. */
+  public static PackageArchiveWriter open(Path archive) throws IOException {
+    Format format = getFormat(archive.toString());
+    if (format == null) {
+      throw new IllegalArgumentException("Unsupported archive format: " + archive);
+    }
+    Path parent = archive.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    OutputStream out = new BufferedOutputStream(Files.newOutputStream(archive));
+    switch (format) {
+      case ZIP:
+        return new PackageArchiveWriter(format, new ZipOutputStream(out));
+      case TAR_GZ:
+        return new PackageArchiveWriter(format, new GZIPOutputStream(out));
+    }
+    throw new IllegalStateException("Unhandled archive format: " + format);
+  }
+
+  /**
+   * Writes the generated results and the files copied from disk into the archive, ordered by name.
+   * A generated result takes precedence over a copied file with the same name.
+   */
+  public static void write(
+      Path archive, Map<String, GeneratedResult<Doc>> results, Map<String, Path> copiedFiles)
+      throws IOException {
+    Map<String, Object> entries = new TreeMap<>(copiedFiles);
+    entries.putAll(results);
+    try (PackageArchiveWriter writer = open(archive)) {
+      for (Map.Entry<String, Object> entry : entries.entrySet()) {
+        if (entry.getValue() instanceof Path) {
+          writer.addFile(entry.getKey(), (Path) entry.getValue());
+        } else {
+          GeneratedResult<?> result = (GeneratedResult<?>) entry.getValue();
+          writer.addFile(
+              entry.getKey(),
+              ((Doc) result.getBody()).prettyPrint().getBytes(StandardCharsets.UTF_8),
+              result.isExecutable());
+        }
+      }
+    }
+  }
+
+  /** Adds an entry with the given content. */
+  public void addFile(String name, byte[] content, boolean executable) throws IOException {
+    startEntry(name, content.length, executable);
+    out.write(content);
+    finishEntry(content.length);
+  }
+
+  /** Adds an entry with the content of the given file, which is streamed from disk. */
+  public void addFile(String name, Path source) throws IOException {
+    long size = Files.size(source);
+    startEntry(name, size, Files.isExecutable(source));
+    Files.copy(source, out);
+    finishEntry(size);
+  }
+
+  private void startEntry(String name, long size, boolean executable) throws IOException {
+    switch (format) {
+      case ZIP:
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTime(0);
+        ((ZipOutputStream) out).putNextEntry(entry);
+        break;
+      case TAR_GZ:
+        out.write(tarHeader(name, size, executable ? EXECUTABLE_FILE_MODE : REGULAR_FILE_MODE));
+        break;
+    }
+  }
+
+  private void finishEntry(long size) throws IOException {
+    switch (format) {
+      case ZIP:
+        ((ZipOutputStream) out).closeEntry();
+        break;
+      case TAR_GZ:
+        int padding = (int) ((TAR_BLOCK_SIZE - size % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE);
+        out.write(new byte[padding]);
+        break;
+    }
+  }
+
+  /** Returns the ustar header of a regular file. */
+  private static byte[] tarHeader(String name, long size, int mode) {
+    byte[] header = new byte[TAR_BLOCK_SIZE];
+    byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+    int prefixLength = 0;
+    if (nameBytes.length > TAR_NAME_LENGTH) {
+      // Split long names at a separator, into a prefix and a name.
+      prefixLength = Math.min(TAR_PREFIX_LENGTH, nameBytes.length - 1);
+      while (prefixLength > 0 && nameBytes[prefixLength] != '/') {
+        --prefixLength;
+      }
+      if (prefixLength <= 0 || nameBytes.length - prefixLength - 1 > TAR_NAME_LENGTH) {
+        throw new IllegalArgumentException("File name too long for a tar archive: " + name);
+      }
+    }
+    if (prefixLength > 0) {
+      System.arraycopy(nameBytes, 0, header, 345, prefixLength);
+      System.arraycopy(nameBytes, prefixLength + 1, header, 0, nameBytes.length - prefixLength - 1);
+    } else {
+      System.arraycopy(nameBytes, 0, header, 0, nameBytes.length);
+    }
+    putOctal(header, 100, 8, mode);
+    putOctal(header, 108, 8, 0); // uid
+    putOctal(header, 116, 8, 0); // gid
+    putOctal(header, 124, 12, size);
+    putOctal(header, 136, 12, 0); // mtime
+    header[156] = '0'; // regular file
+    putAscii(header, 257, "ustar\0");
+    putAscii(header, 263, "00");
+
+    // The checksum is computed with its own field filled with spaces.
+    for (int i = 148; i < 156; ++i) {
+      header[i] = ' ';
+    }
+    long checksum = 0;
+    for (byte b : header) {
+      checksum += b & 0xff;
+    }
+    putOctal(header, 148, 7, checksum);
+    return header;
+  }
+
+  /** Writes the value as a zero-padded, NUL-terminated octal number of the given field length. */
+  private static void putOctal(byte[] header, int offset, int length, long value) {
+    String octal = Long.toOctalString(value);
+    if (octal.length() > length - 1) {
+      throw new IllegalArgumentException("Value too large for a tar header: " + value);
+    }
+    StringBuilder field = new StringBuilder();
+    for (int i = octal.length(); i < length - 1; ++i) {
+      field.append('0');
+    }
+    putAscii(header, offset, field.append(octal).append('\0').toString());
+  }
+
+  private static void putAscii(byte[] header, int offset, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+    System.arraycopy(bytes, 0, header, offset, bytes.length);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (format == Format.TAR_GZ) {
+      // A tar archive ends with two empty blocks.
+      out.write(new byte[2 * TAR_BLOCK_SIZE]);
+    }
+    out.close();
+  }
+}
@@ -31,8 +31,11 @@ import com.google.api.tools.framework.tools.ToolOptions.Option;
 import com.google.api.tools.framework.tools.ToolUtil;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Map;
 
 /** ToolDriver for gRPC meta-data generation. */
@@ -41,7 +44,11 @@ public class PackageGeneratorApp extends ToolDriverBase {
       ToolOptions.createOption(String.class, "language", "The target language.", "");
   public static final Option<String> OUTPUT_DIR =
       ToolOptions.createOption(
-          String.class, "output_file", "The name of the output folder to put generated code.", "");
+          String.class,
+          "output_file",
+          "The name of the output folder to put generated code, or of a .zip, .tar.gz or .tgz "
+              + "archive to write it into.",
+          "");
   public static final Option<String> INPUT_DIR =
       ToolOptions.createOption(
           String.class,
@@ -68,6 +75,14 @@ public class PackageGeneratorApp extends ToolDriverBase {
           "artifact_type",
           "The artifacts to be generated by the metadata generator.",
           null);
+  public static final Option<Boolean> LINK_FILES =
+      ToolOptions.createOption(
+          Boolean.class,
+          "link_files",
+          "Whether to hard link the copied gRPC source files into the output folder when it is on "
+              + "the same file system, instead of copying them. Linked files share their content "
+              + "with the input folder, so they must not be edited in place.",
+          false);
 
   private URL dependenciesYamlUrl;
 
@@ -90,11 +105,25 @@ public class PackageGeneratorApp extends ToolDriverBase {
       }
       return;
     }
-    Map<String, GeneratedResult<Doc>> results = generate(model);
-    ToolUtil.writeFiles(GeneratedResult.extractBodies(results), options.get(OUTPUT_DIR));
+    CodeGenerator<Doc> generator = createGenerator(model);
+    Map<String, GeneratedResult<Doc>> results = generator.generate();
+    String outputPath = options.get(OUTPUT_DIR);
+    if (PackageArchiveWriter.isArchive(outputPath)) {
+      Map<String, Path> filesToArchive =
+          generator instanceof CopyingPackageGenerator
+              ? ((CopyingPackageGenerator) generator).getFilesToArchive()
+              : ImmutableMap.of();
+      PackageArchiveWriter.write(Paths.get(outputPath), results, filesToArchive);
+    } else {
+      ToolUtil.writeFiles(GeneratedResult.extractBodies(results), outputPath);
+    }
   }
 
   protected Map<String, GeneratedResult<Doc>> generate(Model model) throws IOException {
+    return createGenerator(model).generate();
+  }
+
+  private CodeGenerator<Doc> createGenerator(Model model) throws IOException {
     TargetLanguage language = TargetLanguage.fromString(options.get(LANGUAGE));
 
     PackageMetadataConfig config = null;
@@ -124,9 +153,6 @@ public class PackageGeneratorApp extends ToolDriverBase {
     if (artifactType == null) {
       artifactType = config.artifactType();
     }
-    CodeGenerator<Doc> generator =
-        PackageGeneratorFactory.create(language, artifactType, options, model, config);
-
-    return generator.generate();
+    return PackageGeneratorFactory.create(language, artifactType, options, model, config);
   }
 }
@@ -0,0 +1,129 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.packagegen.py;
+
+import com.google.common.base.Throwables;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Copies files on a thread pool. A destination which already has the size and content of its source
+ * is left untouched. Other files are hard linked to their source if linking is enabled and both are
+ * on the same file system, and copied with {@link FileChannel#transferTo} otherwise.
+ */
+public class ParallelFileCopier {
+  /** The outcome of copying a single file. */
+  public enum CopyResult {
+    UNCHANGED,
+    LINKED,
+    COPIED
+  }
+
+  private final boolean linkFiles;
+
+  /**
+   * Constructor.
+   *
+   * @param linkFiles Whether to hard link files instead of copying them. Linked destinations share
+   *     their content with their sources, so they must not be edited in place afterwards.
+   */
+  public ParallelFileCopier(boolean linkFiles) {
+    this.linkFiles = linkFiles;
+  }
+
+  /**
+   * Copies each source file of the map to its destination, whose parent directory must exist.
+   * Returns the outcome for each source file, in the order of the map.
+   */
+  public List<CopyResult> copyAll(Map<Path, Path> files) throws IOException {
+    List<CopyResult> results = new ArrayList<>(files.size());
+    if (files.isEmpty()) {
+      return results;
+    }
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+    try {
+      List<Future<CopyResult>> copies = new ArrayList<>(files.size());
+      for (Map.Entry<Path, Path> file : files.entrySet()) {
+        copies.add(executor.submit(() -> copy(file.getKey(), file.getValue())));
+      }
+      for (Future<CopyResult> copy : copies) {
+        results.add(copy.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while copying files", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    return results;
+  }
+
+  /** Copies a single file, unless its destination already has the same content. */
+  public CopyResult copy(Path source, Path destination) throws IOException {
+    if (Files.exists(destination) && isSameContent(source, destination)) {
+      return CopyResult.UNCHANGED;
+    }
+    if (linkFiles) {
+      Files.deleteIfExists(destination);
+      try {
+        Files.createLink(destination, source);
+        return CopyResult.LINKED;
+      } catch (UnsupportedOperationException | IOException e) {
+        // Most likely the source and destination are on different file systems; copy instead.
+      }
+    }
+    try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+        FileChannel out =
+            FileChannel.open(
+                destination,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+      long size = in.size();
+      long position = 0;
+      while (position < size) {
+        position += in.transferTo(position, size - position, out);
+      }
+    }
+    return CopyResult.COPIED;
+  }
+
+  private static boolean isSameContent(Path source, Path destination) throws IOException {
+    if (Files.isSameFile(source, destination)) {
+      return true;
+    }
+    if (Files.size(source) != Files.size(destination)) {
+      return false;
+    }
+    return com.google.common.io.Files.asByteSource(source.toFile())
+        .contentEquals(com.google.common.io.Files.asByteSource(destination.toFile()));
+  }
+}
@@ -18,6 +18,7 @@ import com.google.api.codegen.common.CodeGenerator;
 import com.google.api.codegen.common.GeneratedResult;
 import com.google.api.codegen.config.PackageMetadataConfig;
 import com.google.api.codegen.config.ProtoApiModel;
+import com.google.api.codegen.packagegen.CopyingPackageGenerator;
 import com.google.api.codegen.rendering.CommonSnippetSetRunner;
 import com.google.api.codegen.viewmodel.metadata.PackageMetadataView;
 import com.google.api.tools.framework.model.Model;
@@ -26,16 +27,18 @@ import com.google.api.tools.framework.tools.ToolOptions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 /** Performs gRPC package generation for Python */
-public class PythonGrpcPackageGenerator implements CodeGenerator<Doc> {
+public class PythonGrpcPackageGenerator implements CodeGenerator<Doc>, CopyingPackageGenerator {
 
   private final ToolOptions options;
   private final Model model;
   private final PackageMetadataConfig config;
+  private Map<String, Path> filesToArchive = ImmutableMap.of();
 
   public PythonGrpcPackageGenerator(
       ToolOptions options, Model model, PackageMetadataConfig config) {
@@ -58,6 +61,7 @@ public class PythonGrpcPackageGenerator implements CodeGenerator<Doc> {
     PythonPackageCopierResult copierResult = copier.run(options, config);
 
     results.putAll(copierResult.results());
+    filesToArchive = copierResult.filesToArchive();
     PythonGrpcPackageTransformer pythonTransformer = new PythonGrpcPackageTransformer(copierResult);
     ProtoApiModel apiModel = new ProtoApiModel(model);
     metadataViews.addAll(pythonTransformer.transform(apiModel, config));
@@ -68,4 +72,9 @@ public class PythonGrpcPackageGenerator implements CodeGenerator<Doc> {
     }
     return results.build();
   }
+
+  @Override
+  public Map<String, Path> getFilesToArchive() {
+    return filesToArchive;
+  }
 }
@@ -16,6 +16,7 @@ package com.google.api.codegen.packagegen.py;
 
 import com.google.api.codegen.common.GeneratedResult;
 import com.google.api.codegen.config.PackageMetadataConfig;
+import com.google.api.codegen.packagegen.PackageArchiveWriter;
 import com.google.api.codegen.packagegen.PackageGeneratorApp;
 import com.google.api.tools.framework.snippet.Doc;
 import com.google.api.tools.framework.tools.ToolOptions;
@@ -27,20 +28,27 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
-import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /** A copier specialized to calculate Python namespace packages and generate __init__.py files. */
 public class PythonPackageCopier {
 
-  /** Copies gRPC source while computing namespace packages and generating __init__.py. */
+  /**
+   * Collects the gRPC source files to copy while computing namespace packages and generating
+   * __init__.py.
+   */
   private class PythonPackageFileVisitor extends SimpleFileVisitor<Path> {
     ImmutableMap.Builder<String, GeneratedResult<Doc>> docBuilder = new ImmutableMap.Builder<>();
     List<String> pythonNamespacePackages = new ArrayList<>();
+    Map<Path, Path> filesToCopy = new LinkedHashMap<>();
+    Map<String, Path> filesToArchive = new LinkedHashMap<>();
     Path inputPath;
     Path outputPath;
+    boolean archiveOutput;
     String apiVersion;
 
     /**
@@ -52,14 +60,19 @@ public class PythonPackageCopier {
     public PythonPackageFileVisitor(Path inputPath, Path outputPath, String apiVersion) {
       this.inputPath = inputPath;
       this.outputPath = outputPath;
+      this.archiveOutput = PackageArchiveWriter.isArchive(outputPath.toString());
       this.apiVersion = apiVersion;
     }
 
     @Override
     public FileVisitResult visitFile(Path file, BasicFileAttributes attr) throws IOException {
+      if (archiveOutput) {
+        filesToArchive.put(Joiner.on("/").join(inputPath.relativize(file).iterator()), file);
+        return FileVisitResult.CONTINUE;
+      }
       Path destination = outputPath.resolve(inputPath.relativize(file));
       Files.createDirectories(destination.getParent());
-      Files.copy(file, destination, StandardCopyOption.REPLACE_EXISTING);
+      filesToCopy.put(file, destination);
       return FileVisitResult.CONTINUE;
     }
 
@@ -93,6 +106,14 @@ public class PythonPackageCopier {
     public ImmutableMap.Builder<String, GeneratedResult<Doc>> getDocBuilder() {
       return docBuilder;
     }
+
+    public Map<Path, Path> getFilesToCopy() {
+      return filesToCopy;
+    }
+
+    public Map<String, Path> getFilesToArchive() {
+      return filesToArchive;
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -107,10 +128,13 @@ public class PythonPackageCopier {
             config.apiVersion());
 
     Files.walkFileTree(Paths.get(options.get(PackageGeneratorApp.INPUT_DIR)), visitor);
+    new ParallelFileCopier(options.get(PackageGeneratorApp.LINK_FILES))
+        .copyAll(visitor.getFilesToCopy());
 
     List<String> pythonNamespacePackages = visitor.getNamespacePackages();
     ImmutableMap.Builder<String, GeneratedResult<Doc>> docBuilder = visitor.getDocBuilder();
 
-    return PythonPackageCopierResult.createPython(pythonNamespacePackages, docBuilder.build());
+    return PythonPackageCopierResult.createPython(
+        pythonNamespacePackages, docBuilder.build(), visitor.getFilesToArchive());
   }
 }
@@ -17,6 +17,8 @@ package com.google.api.codegen.packagegen.py;
 import com.google.api.codegen.common.GeneratedResult;
 import com.google.api.tools.framework.snippet.Doc;
 import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -25,9 +27,17 @@ import javax.annotation.Nullable;
 public abstract class PythonPackageCopierResult {
   public static PythonPackageCopierResult createPython(
       List<String> namespacePackages, Map<String, GeneratedResult<Doc>> docs) {
+    return createPython(namespacePackages, docs, ImmutableMap.of());
+  }
+
+  public static PythonPackageCopierResult createPython(
+      List<String> namespacePackages,
+      Map<String, GeneratedResult<Doc>> docs,
+      Map<String, Path> filesToArchive) {
     return new AutoValue_PythonPackageCopierResult.Builder()
         .namespacePackages(namespacePackages)
         .results(docs)
+        .filesToArchive(filesToArchive)
         .build();
   }
 
@@ -40,12 +50,20 @@ public abstract class PythonPackageCopierResult {
   /** Docs to be added to the output results map in the template rendering phase. */
   public abstract Map<String, GeneratedResult<Doc>> results();
 
+  /**
+   * The gRPC source files which were not copied because the output is an archive, keyed by their
+   * path in the package.
+   */
+  public abstract Map<String, Path> filesToArchive();
+
   @AutoValue.Builder
   protected abstract static class Builder {
     public abstract Builder namespacePackages(List<String> val);
 
     public abstract Builder results(Map<String, GeneratedResult<Doc>> val);
 
+    public abstract Builder filesToArchive(Map<String, Path> val);
+
     public abstract PythonPackageCopierResult build();
   }
 }
@@ -16,8 +16,8 @@ package com.google.api.codegen.transformer;
 
 import com.google.api.codegen.config.BatchingConfig;
 import com.google.api.codegen.config.FieldModel;
-import com.google.api.codegen.config.GenericFieldSelector;
 import com.google.api.codegen.config.InterfaceContext;
+import com.google.api.codegen.config.MethodAnalysis;
 import com.google.api.codegen.config.MethodConfig;
 import com.google.api.codegen.config.MethodContext;
 import com.google.api.codegen.config.MethodModel;
@@ -39,7 +39,11 @@ public class BatchingTransformer {
       BatchingDescriptorView.Builder descriptor = BatchingDescriptorView.newBuilder();
       descriptor.methodName(context.getNamer().getMethodKey(method));
       descriptor.batchedFieldName(namer.getFieldName(batching.getBatchedField()));
-      descriptor.discriminatorFieldNames(generateDiscriminatorFieldNames(batching));
+      descriptor.discriminatorFieldNames(
+          context
+              .getProductConfig()
+              .getMethodAnalysis(context.getMethodConfig(method))
+              .getBatchingDiscriminatorParamNames());
 
       if (batching.hasSubresponseField()) {
         descriptor.subresponseFieldName(namer.getFieldName(batching.getSubresponseField()));
@@ -84,14 +88,6 @@ public class BatchingTransformer {
     return batchingConfigView.build();
   }
 
-  private List<String> generateDiscriminatorFieldNames(BatchingConfig batching) {
-    ImmutableList.Builder<String> fieldNames = ImmutableList.builder();
-    for (GenericFieldSelector fieldSelector : batching.getDiscriminatorFields()) {
-      fieldNames.add(fieldSelector.getParamName());
-    }
-    return fieldNames.build();
-  }
-
   private BatchingDescriptorClassView generateDescriptorClass(MethodContext context) {
     SurfaceNamer namer = context.getNamer();
     MethodModel method = context.getMethodModel();
@@ -126,9 +122,9 @@ public class BatchingTransformer {
 
   private List<BatchingPartitionKeyView> generatePartitionKeys(MethodContext context) {
     List<BatchingPartitionKeyView> keys = new ArrayList<>();
-    BatchingConfig batching = context.getMethodConfig().getBatching();
-    for (GenericFieldSelector fieldSelector : batching.getDiscriminatorFields()) {
-      FieldModel selectedType = fieldSelector.getLastField();
+    MethodAnalysis analysis =
+        context.getProductConfig().getMethodAnalysis(context.getMethodConfig());
+    for (FieldModel selectedType : analysis.getBatchingPartitionKeyFields()) {
       BatchingPartitionKeyView key =
           BatchingPartitionKeyView.newBuilder()
               .fieldGetFunction(context.getNamer().getFieldGetFunctionName(selectedType))
@@ -0,0 +1,137 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.transformer;
+
+import com.google.api.codegen.config.FieldModel;
+import com.google.api.codegen.config.MethodConfig;
+import com.google.api.codegen.config.MethodModel;
+import com.google.api.codegen.config.ProtoField;
+import com.google.api.codegen.config.ProtoMethodModel;
+import com.google.api.codegen.config.VisibilityConfig;
+import com.google.api.codegen.gapic.GapicParser;
+import com.google.api.tools.framework.model.ProtoElement;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * A cache of formatted doc lines, keyed by proto element, language and doc style, and for methods
+ * by the method config data that the namers format into the doc lines.
+ *
+ * <p>One instance is owned by each {@link com.google.api.codegen.config.GapicProductConfig}, so all
+ * the code generators of a run share it. The surface, test, sample and element doc transformers of
+ * a language therefore reformat the comment of each element only once. The cache is safe for
+ * concurrent use.
+ *
+ * <p>Only proto-backed models are cached; the doc lines of other models are formatted directly by
+ * the namer on each call.
+ */
+public class DocLinesCache {
+
+  /** The kind of doc lines produced for an element. */
+  enum DocStyle {
+    ELEMENT,
+    FIELD,
+    METHOD
+  }
+
+  private final ConcurrentMap<DocKey, List<String>> docLines = new ConcurrentHashMap<>();
+
+  /** Returns the doc lines of the given element's documentation, formatted by the given namer. */
+  public List<String> getDocLines(SurfaceNamer namer, ProtoElement element) {
+    return getOrFormat(
+        namer,
+        element,
+        DocStyle.ELEMENT,
+        null,
+        () -> namer.getDocLines(GapicParser.getDocString(element)));
+  }
+
+  /** Returns the doc lines of the given field, as produced by {@link SurfaceNamer#getDocLines}. */
+  public List<String> getDocLines(SurfaceNamer namer, FieldModel field) {
+    if (!(field instanceof ProtoField)) {
+      return namer.getDocLines(field);
+    }
+    return getOrFormat(
+        namer,
+        ((ProtoField) field).getProtoField(),
+        DocStyle.FIELD,
+        null,
+        () -> namer.getDocLines(field));
+  }
+
+  /**
+   * Returns the doc lines of the given method, as produced by {@link SurfaceNamer#getDocLines}. The
+   * doc lines of a method may depend on the visibility of its config, as they do in Go.
+   */
+  public List<String> getDocLines(
+      SurfaceNamer namer, MethodModel method, MethodConfig methodConfig) {
+    if (!(method instanceof ProtoMethodModel)) {
+      return namer.getDocLines(method, methodConfig);
+    }
+    return getOrFormat(
+        namer,
+        ((ProtoMethodModel) method).getProtoMethod(),
+        DocStyle.METHOD,
+        methodConfig.getVisibility(),
+        () -> namer.getDocLines(method, methodConfig));
+  }
+
+  private List<String> getOrFormat(
+      SurfaceNamer namer,
+      ProtoElement element,
+      DocStyle style,
+      @Nullable VisibilityConfig visibility,
+      Supplier<List<String>> formatter) {
+    DocKey key = DocKey.create(element, namer.getClass(), style, visibility);
+    List<String> lines = docLines.get(key);
+    if (lines == null) {
+      // Formatting is pure, so a concurrent duplicate computation is harmless and avoids holding
+      // a lock on the map while the comment is reformatted.
+      lines = ImmutableList.copyOf(formatter.get());
+      List<String> previous = docLines.putIfAbsent(key, lines);
+      if (previous != null) {
+        lines = previous;
+      }
+    }
+    return lines;
+  }
+
+  @AutoValue
+  abstract static class DocKey {
+    abstract ProtoElement element();
+
+    /** The namer class identifies the language and its comment format. */
+    abstract Class<?> namerClass();
+
+    abstract DocStyle style();
+
+    /** The visibility of the method config, for method doc lines. */
+    @Nullable
+    abstract VisibilityConfig visibility();
+
+    static DocKey create(
+        ProtoElement element,
+        Class<?> namerClass,
+        DocStyle style,
+        @Nullable VisibilityConfig visibility) {
+      return new AutoValue_DocLinesCache_DocKey(element, namerClass, style, visibility);
+    }
+  }
+}
@@ -33,9 +33,7 @@ import com.google.api.codegen.viewmodel.ClientMethodType;
 import com.google.api.codegen.viewmodel.MethodSampleView;
 import com.google.api.codegen.viewmodel.OptionalArrayMethodView;
 import com.google.api.codegen.viewmodel.RequestObjectParamView;
-import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Streams;
 import java.util.ArrayList;
 import java.util.List;
@@ -249,7 +247,10 @@ public class DynamicLangApiMethodTransformer {
     apiMethod.methodParams(apiMethodParamTransformer.generateMethodParams(context));
 
     Iterable<FieldConfig> filteredFieldConfigs =
-        removePageTokenFieldConfig(context, context.getMethodConfig().getOptionalFieldConfigs());
+        context
+            .getProductConfig()
+            .getMethodAnalysis(context.getMethodConfig())
+            .getOptionalFieldConfigsWithoutPageToken();
     List<RequestObjectParamView> requiredParams =
         generateRequestObjectParams(context, context.getMethodConfig().getRequiredFieldConfigs());
     List<RequestObjectParamView> optionalParams =
@@ -299,7 +300,11 @@ public class DynamicLangApiMethodTransformer {
     MethodModel method = context.getMethodModel();
     MethodConfig methodConfig = context.getMethodConfig();
 
-    docBuilder.mainDocLines(surfaceNamer.getDocLines(method, methodConfig));
+    docBuilder.mainDocLines(
+        context
+            .getProductConfig()
+            .getDocLinesCache()
+            .getDocLines(surfaceNamer, method, methodConfig));
     docBuilder.paramDocs(apiMethodParamTransformer.generateParamDocs(context));
     docBuilder.returnTypeName(surfaceNamer.getDynamicLangReturnTypeName(context));
     docBuilder.returnsDocLines(
@@ -325,23 +330,6 @@ public class DynamicLangApiMethodTransformer {
     return params;
   }
 
-  private Iterable<FieldConfig> removePageTokenFieldConfig(
-      GapicMethodContext context, Iterable<FieldConfig> fieldConfigs) {
-    MethodConfig methodConfig = context.getMethodConfig();
-    if (methodConfig == null || !methodConfig.isPageStreaming()) {
-      return fieldConfigs;
-    }
-    final FieldModel requestTokenField = methodConfig.getPageStreaming().getRequestTokenField();
-    return Iterables.filter(
-        fieldConfigs,
-        new Predicate<FieldConfig>() {
-          @Override
-          public boolean apply(FieldConfig fieldConfig) {
-            return !fieldConfig.getField().equals(requestTokenField);
-          }
-        });
-  }
-
   private RequestObjectParamView generateRequestObjectParam(
       GapicMethodContext context, FieldConfig fieldConfig) {
     SurfaceNamer namer = context.getNamer();
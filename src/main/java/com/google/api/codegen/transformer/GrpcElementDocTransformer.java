@@ -17,7 +17,6 @@ package com.google.api.codegen.transformer;
 import com.google.api.codegen.config.FieldConfig;
 import com.google.api.codegen.config.FieldModel;
 import com.google.api.codegen.config.GapicProductConfig;
-import com.google.api.codegen.config.ProtoTypeRef;
 import com.google.api.codegen.gapic.GapicParser;
 import com.google.api.codegen.viewmodel.GrpcElementDocView;
 import com.google.api.codegen.viewmodel.GrpcEnumDocView;
@@ -31,13 +30,11 @@ import com.google.api.tools.framework.model.MessageType;
 import com.google.api.tools.framework.model.ProtoContainerElement;
 import com.google.api.tools.framework.model.TypeRef;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Stream;
 
 public class GrpcElementDocTransformer {
   public List<GrpcElementDocView> generateElementDocs(
@@ -46,15 +43,7 @@ public class GrpcElementDocTransformer {
       SurfaceNamer namer,
       ProtoContainerElement containerElement) {
     ImmutableList.Builder<GrpcElementDocView> children = ImmutableList.builder();
-    Set<String> lroTypes =
-        productConfig
-            .getAllLongRunningConfigs()
-            .stream()
-            .flatMap(lro -> Stream.of(lro.getReturnType(), lro.getMetadataType()))
-            .map(t -> ((ProtoTypeRef) t).getProtoType())
-            .map(TypeRef::getMessageType)
-            .map(MessageType::getFullName)
-            .collect(ImmutableSet.toImmutableSet());
+    Set<String> lroTypes = productConfig.getLongRunningMessageNames();
     Collection<MessageType> messages =
         containerElement
             .getMessages()
@@ -62,7 +51,7 @@ public class GrpcElementDocTransformer {
             .filter(m -> m.isReachable() || lroTypes.contains(m.getFullName()))
             .collect(ImmutableList.toImmutableList());
     children.addAll(generateMessageDocs(productConfig, typeTable, namer, messages));
-    children.addAll(generateEnumDocs(typeTable, namer, containerElement.getEnums()));
+    children.addAll(generateEnumDocs(productConfig, typeTable, namer, containerElement.getEnums()));
     return children.build();
   }
 
@@ -71,6 +60,7 @@ public class GrpcElementDocTransformer {
       ModelTypeTable typeTable,
       SurfaceNamer namer,
       Collection<MessageType> messages) {
+    DocLinesCache docLinesCache = productConfig.getDocLinesCache();
     ImmutableList.Builder<GrpcElementDocView> messageDocs = ImmutableList.builder();
     for (MessageType message : messages) {
       // Doesn't have to document map entries because a dictionary is used.
@@ -82,10 +72,13 @@ public class GrpcElementDocTransformer {
       doc.name(namer.getMessageTypeName(typeTable, message));
       doc.fullName(typeTable.getFullNameFor(TypeRef.of(message)));
       doc.fileUrl(GapicParser.getFileUrl(message.getFile()));
-      doc.lines(namer.getDocLines(GapicParser.getDocString(message)));
+      doc.lines(docLinesCache.getDocLines(namer, message));
       doc.properties(
           generateMessagePropertyDocs(
-              typeTable, namer, FieldConfig.toFieldTypeIterableFromField(message.getFields())));
+              docLinesCache,
+              typeTable,
+              namer,
+              FieldConfig.toFieldTypeIterableFromField(message.getFields())));
       doc.elementDocs(generateElementDocs(productConfig, typeTable, namer, message));
       doc.packageName(message.getFile().getFullName());
       messageDocs.add(doc.build());
@@ -94,13 +87,16 @@ public class GrpcElementDocTransformer {
   }
 
   private List<ParamDocView> generateMessagePropertyDocs(
-      ModelTypeTable typeTable, SurfaceNamer namer, Collection<FieldModel> fields) {
+      DocLinesCache docLinesCache,
+      ModelTypeTable typeTable,
+      SurfaceNamer namer,
+      Collection<FieldModel> fields) {
     ImmutableList.Builder<ParamDocView> propertyDocs = ImmutableList.builder();
     for (FieldModel field : fields) {
       SimpleParamDocView.Builder doc = SimpleParamDocView.newBuilder();
       doc.paramName(namer.getFieldKey(field));
       doc.typeName(namer.getMessagePropertyTypeName(typeTable, field));
-      doc.lines(namer.getDocLines(field));
+      doc.lines(docLinesCache.getDocLines(namer, field));
       propertyDocs.add(doc.build());
     }
     return propertyDocs.build();
@@ -108,7 +104,11 @@ public class GrpcElementDocTransformer {
 
   /** Return a list of enums, sorted alphabetically by name. */
   public List<GrpcEnumDocView> generateEnumDocs(
-      ModelTypeTable typeTable, SurfaceNamer namer, Collection<EnumType> enumElements) {
+      GapicProductConfig productConfig,
+      ModelTypeTable typeTable,
+      SurfaceNamer namer,
+      Collection<EnumType> enumElements) {
+    DocLinesCache docLinesCache = productConfig.getDocLinesCache();
     ImmutableSortedSet.Builder<GrpcEnumDocView> enumDocs =
         ImmutableSortedSet.orderedBy(Comparator.comparing(GrpcEnumDocView::name));
     for (EnumType enumElement : enumElements) {
@@ -117,8 +117,8 @@ public class GrpcElementDocTransformer {
       }
       GrpcEnumDocView.Builder doc = GrpcEnumDocView.newBuilder();
       doc.name(namer.getEnumTypeName(typeTable, enumElement));
-      doc.lines(namer.getDocLines(GapicParser.getDocString(enumElement)));
-      doc.values(generateEnumValueDocs(namer, enumElement.getValues()));
+      doc.lines(docLinesCache.getDocLines(namer, enumElement));
+      doc.values(generateEnumValueDocs(docLinesCache, namer, enumElement.getValues()));
       doc.packageName(enumElement.getFile().getFullName());
       enumDocs.add(doc.build());
     }
@@ -126,13 +126,13 @@ public class GrpcElementDocTransformer {
   }
 
   private List<GrpcEnumValueDocView> generateEnumValueDocs(
-      SurfaceNamer namer, Collection<EnumValue> values) {
+      DocLinesCache docLinesCache, SurfaceNamer namer, Collection<EnumValue> values) {
     ImmutableList.Builder<GrpcEnumValueDocView> valueDocs = ImmutableList.builder();
     for (EnumValue value : values) {
       GrpcEnumValueDocView.Builder doc = GrpcEnumValueDocView.newBuilder();
       doc.name(value.getSimpleName());
       doc.number(value.getNumber());
-      doc.lines(namer.getDocLines(GapicParser.getDocString(value)));
+      doc.lines(docLinesCache.getDocLines(namer, value));
       valueDocs.add(doc.build());
     }
     return valueDocs.build();
@@ -14,16 +14,14 @@
  */
 package com.google.api.codegen.transformer;
 
-import com.google.api.codegen.config.GapicMethodConfig;
+import com.google.api.codegen.config.FieldModel;
+import com.google.api.codegen.config.MethodAnalysis;
 import com.google.api.codegen.config.MethodContext;
-import com.google.api.codegen.config.ProtoField;
 import com.google.api.codegen.config.TransportProtocol;
 import com.google.api.codegen.viewmodel.HeaderRequestParamView;
-import com.google.api.tools.framework.model.Field;
-import com.google.api.tools.framework.model.MessageType;
-import com.google.api.tools.framework.model.Method;
 import com.google.common.collect.ImmutableList;
 import java.util.List;
+import java.util.Map;
 
 public class HeaderRequestParamTransformer {
   public List<HeaderRequestParamView> generateHeaderRequestParams(MethodContext context) {
@@ -31,47 +29,25 @@ public class HeaderRequestParamTransformer {
       return ImmutableList.of();
     }
 
-    GapicMethodConfig methodConfig = (GapicMethodConfig) context.getMethodConfig();
-    Method method = methodConfig.getMethod();
+    MethodAnalysis analysis =
+        context.getProductConfig().getMethodAnalysis(context.getMethodConfig());
     SurfaceNamer namer = context.getNamer();
-    if (method.getInputType() == null
-        || !method.getInputType().isMessage()
-        // Request header parameters not supported for methods that stream requests.
-        || method.getRequestStreaming()) {
-      return ImmutableList.of();
-    }
     ImmutableList.Builder<HeaderRequestParamView> headerRequestParams = ImmutableList.builder();
-    MessageType inputMessageType = method.getInputType().getMessageType();
-    for (String headerRequestParam : methodConfig.getHeaderRequestParams()) {
+    for (Map.Entry<String, ImmutableList<FieldModel>> headerRequestParam :
+        analysis.getHeaderRequestParamFields().entrySet()) {
       headerRequestParams.add(
-          generateHeaderRequestParam(headerRequestParam, inputMessageType, namer));
+          generateHeaderRequestParam(
+              headerRequestParam.getKey(), headerRequestParam.getValue(), namer));
     }
 
     return headerRequestParams.build();
   }
 
   private HeaderRequestParamView generateHeaderRequestParam(
-      String headerRequestParam, MessageType inputMessageType, SurfaceNamer namer) {
-    String[] fieldNameTokens = headerRequestParam.split("\\.");
+      String headerRequestParam, List<FieldModel> fields, SurfaceNamer namer) {
     ImmutableList.Builder<String> gettersChain = ImmutableList.builder();
-
-    MessageType subMessageType = inputMessageType;
-    for (String fieldNameToken : fieldNameTokens) {
-      Field matchingField = subMessageType.lookupField(fieldNameToken);
-      if (matchingField == null) {
-        throw new IllegalArgumentException(
-            "Unknown field name token '"
-                + fieldNameToken
-                + "' in header request param '"
-                + headerRequestParam
-                + "'");
-      }
-
-      String matchingFieldGetter = namer.getFieldGetFunctionName(new ProtoField(matchingField));
-      gettersChain.add(matchingFieldGetter);
-      if (matchingField.getType() != null && matchingField.getType().isMessage()) {
-        subMessageType = matchingField.getType().getMessageType();
-      }
+    for (FieldModel field : fields) {
+      gettersChain.add(namer.getFieldGetFunctionName(field));
     }
 
     HeaderRequestParamView.Builder headerParam =
@@ -128,7 +128,8 @@ public class InitCodeTransformer {
   /** Generates initialization code from the given MethodContext and InitCodeContext objects. */
   public InitCodeView generateInitCode(
       MethodContext methodContext, InitCodeContext initCodeContext) {
-    InitCodeNode rootNode = InitCodeNode.createTree(initCodeContext);
+    InitCodeNode rootNode =
+        methodContext.getProductConfig().getInitCodeTreeCache().createTree(initCodeContext);
     if (initCodeContext.outputType() == InitCodeOutputType.FieldList) {
       return buildInitCodeViewFlattened(methodContext, initCodeContext, rootNode);
     } else {
@@ -138,7 +139,8 @@ public class InitCodeTransformer {
 
   public List<InitCodeNode> getInitCodeNodes(
       MethodContext methodContext, InitCodeContext initCodeContext) {
-    InitCodeNode root = InitCodeNode.createTree(initCodeContext);
+    InitCodeNode root =
+        methodContext.getProductConfig().getInitCodeTreeCache().createTree(initCodeContext);
     List<InitCodeNode> orderedItems = root.listInInitializationOrder();
     if (initCodeContext.outputType() == InitCodeOutputType.FieldList) {
       // Remove the request object for flattened method
@@ -169,7 +171,11 @@ public class InitCodeTransformer {
   /** Generates assert views for the test of the tested method and its fields. */
   List<ClientTestAssertView> generateRequestAssertViews(
       MethodContext methodContext, InitCodeContext initContext) {
-    InitCodeNode rootNode = InitCodeNode.createTree(initContext.cloneWithEmptySymbolTable());
+    InitCodeNode rootNode =
+        methodContext
+            .getProductConfig()
+            .getInitCodeTreeCache()
+            .createTree(initContext.cloneWithEmptySymbolTable());
     List<ClientTestAssertView> assertViews = new ArrayList<>();
     SurfaceNamer namer = methodContext.getNamer();
     // Add request fields checking
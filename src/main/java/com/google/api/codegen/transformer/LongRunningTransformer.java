@@ -15,6 +15,7 @@
 package com.google.api.codegen.transformer;
 
 import com.google.api.codegen.config.LongRunningConfig;
+import com.google.api.codegen.config.MethodAnalysis;
 import com.google.api.codegen.config.MethodConfig;
 import com.google.api.codegen.config.MethodContext;
 import com.google.api.codegen.config.VisibilityConfig;
@@ -25,6 +26,7 @@ public class LongRunningTransformer {
     MethodConfig methodConfig = context.getMethodConfig();
     LongRunningConfig lroConfig = context.getLongRunningConfig();
     SurfaceNamer namer = context.getNamer();
+    MethodAnalysis analysis = context.getProductConfig().getMethodAnalysis(methodConfig);
 
     String clientReturnTypeName =
         namer.getAndSaveOperationResponseTypeName(context, context.getTypeTable());
@@ -38,8 +40,8 @@ public class LongRunningTransformer {
         .constructorName(namer.getTypeConstructor(clientReturnTypeName))
         .clientReturnTypeName(clientReturnTypeName)
         .operationPayloadTypeName(operationPayloadTypeName)
-        .isEmptyOperation(lroConfig.getReturnType().isEmptyType())
-        .isEmptyMetadata(lroConfig.getMetadataType().isEmptyType())
+        .isEmptyOperation(analysis.isEmptyLongRunningResponse())
+        .isEmptyMetadata(analysis.isEmptyLongRunningMetadata())
         .metadataTypeName(metadataTypeName)
         .initialPollDelay(lroConfig.getInitialPollDelay().toMillis())
         .pollDelayMultiplier(lroConfig.getPollDelayMultiplier())
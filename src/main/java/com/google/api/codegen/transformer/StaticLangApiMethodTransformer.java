@@ -818,7 +818,11 @@ public class StaticLangApiMethodTransformer {
 
     methodViewBuilder.doc(
         ApiMethodDocView.newBuilder()
-            .mainDocLines(namer.getDocLines(method, context.getMethodConfig()))
+            .mainDocLines(
+                context
+                    .getProductConfig()
+                    .getDocLinesCache()
+                    .getDocLines(namer, method, context.getMethodConfig()))
             .paramDocs(getMethodParamDocs(context, fieldConfigs, additionalParams))
             .throwsDocLines(namer.getThrowsDocLines(context.getMethodConfig()))
             .returnsDocLines(
@@ -871,7 +875,11 @@ public class StaticLangApiMethodTransformer {
     paramDocs.addAll(ParamWithSimpleDoc.asParamDocViews(additionalParams));
     methodViewBuilder.doc(
         ApiMethodDocView.newBuilder()
-            .mainDocLines(namer.getDocLines(method, context.getMethodConfig()))
+            .mainDocLines(
+                context
+                    .getProductConfig()
+                    .getDocLinesCache()
+                    .getDocLines(namer, method, context.getMethodConfig()))
             .paramDocs(paramDocs)
             .throwsDocLines(namer.getThrowsDocLines(context.getMethodConfig()))
             .returnsDocLines(
@@ -911,7 +919,11 @@ public class StaticLangApiMethodTransformer {
     MethodModel method = context.getMethodModel();
     methodViewBuilder.doc(
         ApiMethodDocView.newBuilder()
-            .mainDocLines(context.getNamer().getDocLines(method, context.getMethodConfig()))
+            .mainDocLines(
+                context
+                    .getProductConfig()
+                    .getDocLinesCache()
+                    .getDocLines(context.getNamer(), method, context.getMethodConfig()))
             .paramDocs(new ArrayList<ParamDocView>())
             .throwsDocLines(new ArrayList<String>())
             .build());
@@ -1077,7 +1089,8 @@ public class StaticLangApiMethodTransformer {
                   "been generated by a previous call to the API."
                 });
       } else {
-        docLines = context.getNamer().getDocLines(field);
+        docLines =
+            context.getProductConfig().getDocLinesCache().getDocLines(context.getNamer(), field);
       }
 
       paramDoc.lines(docLines);
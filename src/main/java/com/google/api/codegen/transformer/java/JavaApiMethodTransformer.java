@@ -114,7 +114,10 @@ public class JavaApiMethodTransformer extends StaticLangApiMethodTransformer {
     MethodConfig methodConfig = methodContext.getMethodConfig();
     if (methodConfig.isFlattening()) {
       List<FlatteningConfig> flatteningConfigs =
-          FlatteningConfig.withRepeatedResourceInSampleOnly(methodConfig.getFlatteningConfigs());
+          methodContext
+              .getProductConfig()
+              .getMethodAnalysis(methodConfig)
+              .getFlatteningConfigsWithRepeatedResourceInSampleOnly();
       for (FlatteningConfig flatteningGroup : flatteningConfigs) {
         MethodContext flattenedMethodContext =
             interfaceContext.asFlattenedMethodContext(methodContext, flatteningGroup);
@@ -178,7 +181,10 @@ public class JavaApiMethodTransformer extends StaticLangApiMethodTransformer {
     MethodConfig methodConfig = methodContext.getMethodConfig();
     if (methodConfig.isFlattening()) {
       List<FlatteningConfig> flatteningConfigs =
-          FlatteningConfig.withRepeatedResourceInSampleOnly(methodConfig.getFlatteningConfigs());
+          methodContext
+              .getProductConfig()
+              .getMethodAnalysis(methodConfig)
+              .getFlatteningConfigsWithRepeatedResourceInSampleOnly();
       for (FlatteningConfig flatteningGroup : flatteningConfigs) {
         MethodContext flattenedMethodContext =
             interfaceContext
@@ -212,7 +218,10 @@ public class JavaApiMethodTransformer extends StaticLangApiMethodTransformer {
     MethodConfig methodConfig = methodContext.getMethodConfig();
     if (methodConfig.isFlattening()) {
       List<FlatteningConfig> flatteningConfigs =
-          FlatteningConfig.withRepeatedResourceInSampleOnly(methodConfig.getFlatteningConfigs());
+          methodContext
+              .getProductConfig()
+              .getMethodAnalysis(methodConfig)
+              .getFlatteningConfigsWithRepeatedResourceInSampleOnly();
       for (FlatteningConfig flatteningGroup : flatteningConfigs) {
         MethodContext flattenedMethodContext =
             interfaceContext
@@ -30,6 +30,10 @@ import com.google.api.codegen.util.TypedValue;
 import com.google.api.codegen.util.java.JavaNameFormatter;
 import com.google.api.codegen.util.java.JavaTypeTable;
 import com.google.common.base.Strings;
+import com.google.common.collect.MapMaker;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 /** The Schema TypeName converter for Java. */
 public class JavaSchemaTypeNameConverter extends SchemaTypeNameConverter {
@@ -43,11 +47,21 @@ public class JavaSchemaTypeNameConverter extends SchemaTypeNameConverter {
   private final DiscoGapicNamer discoGapicNamer = new DiscoGapicNamer();
   private final JavaSurfaceNamer namer;
 
+  // The resolved type names of the canonical DiscoveryFields of the document, with cardinality
+  // and by boxing behavior without it, so that shared schemas are resolved once per converter.
+  private final ConcurrentMap<DiscoveryField, TypeName> typeNames =
+      new MapMaker().weakKeys().makeMap();
+  private final Map<BoxingBehavior, ConcurrentMap<DiscoveryField, TypeName>> elementTypeNames =
+      new EnumMap<>(BoxingBehavior.class);
+
   public JavaSchemaTypeNameConverter(String implicitPackageName, JavaNameFormatter nameFormatter) {
     this.typeNameConverter = new JavaTypeTable(implicitPackageName);
     this.nameFormatter = nameFormatter;
     this.implicitPackageName = implicitPackageName;
     this.namer = new JavaSurfaceNamer(implicitPackageName, implicitPackageName);
+    for (BoxingBehavior boxingBehavior : BoxingBehavior.values()) {
+      elementTypeNames.put(boxingBehavior, new MapMaker().weakKeys().makeMap());
+    }
   }
 
   private static String getPrimitiveTypeName(Schema schema) {
@@ -148,6 +162,17 @@ public class JavaSchemaTypeNameConverter extends SchemaTypeNameConverter {
     if (fieldModel == null) {
       return new TypeName("java.lang.Void", "Void");
     }
+    Map<DiscoveryField, TypeName> cache = elementTypeNames.get(boxingBehavior);
+    TypeName typeName = cache.get(fieldModel);
+    if (typeName == null) {
+      typeName = resolveTypeNameForElementType(fieldModel, boxingBehavior);
+      cache.put(fieldModel, typeName);
+    }
+    return typeName;
+  }
+
+  private TypeName resolveTypeNameForElementType(
+      DiscoveryField fieldModel, BoxingBehavior boxingBehavior) {
     Schema schema = fieldModel.getOriginalDiscoveryField();
     String primitiveTypeName = getPrimitiveTypeName(schema);
     if (primitiveTypeName != null) {
@@ -196,10 +221,20 @@ public class JavaSchemaTypeNameConverter extends SchemaTypeNameConverter {
    */
   @Override
   public TypeName getTypeName(DiscoveryField field, BoxingBehavior boxingBehavior) {
-    TypeName elementTypeName = getTypeNameForElementType(field, BoxingBehavior.BOX_PRIMITIVES);
     if (field == null) {
-      return elementTypeName;
+      return getTypeNameForElementType(field, BoxingBehavior.BOX_PRIMITIVES);
+    }
+    // The boxing behavior only applies to element types.
+    TypeName typeName = typeNames.get(field);
+    if (typeName == null) {
+      typeName = resolveTypeName(field);
+      typeNames.put(field, typeName);
     }
+    return typeName;
+  }
+
+  private TypeName resolveTypeName(DiscoveryField field) {
+    TypeName elementTypeName = getTypeNameForElementType(field, BoxingBehavior.BOX_PRIMITIVES);
     Schema schema = field.getDiscoveryField();
 
     if (schema.isMap()) {
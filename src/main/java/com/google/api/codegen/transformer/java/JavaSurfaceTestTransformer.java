@@ -299,8 +299,10 @@ public class JavaSurfaceTestTransformer<ApiModelT extends ApiModel>
         MethodContext defaultMethodContext = context.asRequestMethodContext(method);
         for (FlatteningConfig flatteningGroup :
             FlatteningConfigs.getRepresentativeFlatteningConfigs(
-                FlatteningConfig.withRepeatedResourceInSampleOnly(
-                    methodConfig.getFlatteningConfigs()))) {
+                context
+                    .getProductConfig()
+                    .getMethodAnalysis(methodConfig)
+                    .getFlatteningConfigsWithRepeatedResourceInSampleOnly())) {
           MethodContext methodContext =
               context.asFlattenedMethodContext(defaultMethodContext, flatteningGroup);
           ClientMethodType clientMethodType = getClientMethodType(methodContext);
@@ -940,7 +940,7 @@ public class JavaSurfaceTransformer {
           typeTable.saveNicknameFor("com.google.api.gax.httpjson.ProtoRestSerializer");
           typeTable.saveNicknameFor("com.google.api.gax.httpjson.ProtoMessageRequestFormatter");
           typeTable.saveNicknameFor("com.google.api.gax.httpjson.ProtoMessageResponseParser");
-          typeTable.saveNicknameFor("java.util.HashMap");
+          typeTable.saveNicknameFor("com.google.common.collect.Maps");
         }
         typeTable.saveNicknameFor("com.google.api.gax.httpjson.ApiMethodDescriptor");
         typeTable.saveNicknameFor("com.google.api.gax.httpjson.HttpJsonCallSettings");
@@ -14,6 +14,7 @@
  */
 package com.google.api.codegen.transformer.nodejs;
 
+import com.google.api.codegen.config.FieldConfig;
 import com.google.api.codegen.config.FieldModel;
 import com.google.api.codegen.config.GapicMethodContext;
 import com.google.api.codegen.config.MethodConfig;
@@ -79,9 +80,12 @@ public class NodeJSApiMethodParamTransformer implements ApiMethodParamTransforme
     paramDoc.lines(ImmutableList.of("The request object that will be sent."));
 
     String paramName = context.getNamer().localVarName(Name.from("request"));
-    Iterable<FieldModel> optionalParams = removePageTokenFromFields(methodConfig);
-    if (!methodConfig.getRequiredFieldConfigs().iterator().hasNext()
-        && !optionalParams.iterator().hasNext()) {
+    List<FieldConfig> optionalParams =
+        context
+            .getProductConfig()
+            .getMethodAnalysis(methodConfig)
+            .getOptionalFieldConfigsWithoutPageToken();
+    if (!methodConfig.getRequiredFieldConfigs().iterator().hasNext() && optionalParams.isEmpty()) {
       paramName = String.format("[%s]", paramName);
     }
     paramDoc.paramName(paramName);
@@ -101,18 +105,6 @@ public class NodeJSApiMethodParamTransformer implements ApiMethodParamTransforme
     return paramDoc.build();
   }
 
-  private List<FieldModel> removePageTokenFromFields(MethodConfig methodConfig) {
-    ImmutableList.Builder<FieldModel> newFields = ImmutableList.builder();
-    for (FieldModel field : methodConfig.getOptionalFields()) {
-      if (methodConfig.isPageStreaming()
-          && field.equals(methodConfig.getPageStreaming().getRequestTokenField())) {
-        continue;
-      }
-      newFields.add(field);
-    }
-    return newFields.build();
-  }
-
   private List<ParamDocView> generateMethodParamDocs(
       GapicMethodContext context, Iterable<FieldModel> fields, boolean isOptional) {
     SurfaceNamer namer = context.getNamer();
@@ -132,7 +124,8 @@ public class NodeJSApiMethodParamTransformer implements ApiMethodParamTransforme
 
       String typeName = namer.getParamTypeName(context.getTypeTable(), field.getType());
       paramDoc.typeName(typeName);
-      List<String> fieldDocLines = namer.getDocLines(field);
+      List<String> fieldDocLines =
+          context.getProductConfig().getDocLinesCache().getDocLines(namer, field);
       ImmutableList.Builder<String> docLines = ImmutableList.builder();
       if (isPageSizeParam(methodConfig, field)) {
         docLines.add(
@@ -21,6 +21,7 @@ import com.google.api.codegen.config.GapicProductConfig;
 import com.google.api.codegen.config.GrpcStreamingConfig;
 import com.google.api.codegen.config.InterfaceModel;
 import com.google.api.codegen.config.LongRunningConfig;
+import com.google.api.codegen.config.MethodAnalysis;
 import com.google.api.codegen.config.MethodModel;
 import com.google.api.codegen.config.PackageMetadataConfig;
 import com.google.api.codegen.config.ProductServiceConfig;
@@ -250,6 +251,8 @@ public class NodeJSGapicSurfaceTransformer implements ModelToViewTransformer<Pro
     for (MethodModel method : context.getLongRunningMethods()) {
       GapicMethodContext methodContext = context.asRequestMethodContext(method);
       LongRunningConfig lroConfig = methodContext.getLongRunningConfig();
+      MethodAnalysis analysis =
+          context.getProductConfig().getMethodAnalysis(methodContext.getMethodConfig());
       TypeModel returnType = lroConfig.getReturnType();
       TypeModel metadataType = lroConfig.getMetadataType();
       result.add(
@@ -258,8 +261,8 @@ public class NodeJSGapicSurfaceTransformer implements ModelToViewTransformer<Pro
               .constructorName("")
               .clientReturnTypeName("")
               .operationPayloadTypeName(context.getImportTypeTable().getFullNameFor(returnType))
-              .isEmptyOperation(lroConfig.getReturnType().isEmptyType())
-              .isEmptyMetadata(lroConfig.getMetadataType().isEmptyType())
+              .isEmptyOperation(analysis.isEmptyLongRunningResponse())
+              .isEmptyMetadata(analysis.isEmptyLongRunningMetadata())
               .metadataTypeName(context.getImportTypeTable().getFullNameFor(metadataType))
               .initialPollDelay(lroConfig.getInitialPollDelay().toMillis())
               .pollDelayMultiplier(lroConfig.getPollDelayMultiplier())
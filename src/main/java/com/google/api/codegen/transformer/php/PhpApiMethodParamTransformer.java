@@ -101,7 +101,8 @@ public class PhpApiMethodParamTransformer implements ApiMethodParamTransformer {
             "of values will be returned. Any page token used here must have",
             "been generated by a previous call to the API.");
       } else {
-        docLines.addAll(context.getNamer().getDocLines(field));
+        docLines.addAll(
+            context.getProductConfig().getDocLinesCache().getDocLines(context.getNamer(), field));
       }
 
       if (field.isEnum()) {
@@ -23,6 +23,7 @@ import com.google.api.codegen.config.GapicProductConfig;
 import com.google.api.codegen.config.GrpcStreamingConfig;
 import com.google.api.codegen.config.InterfaceModel;
 import com.google.api.codegen.config.LongRunningConfig;
+import com.google.api.codegen.config.MethodAnalysis;
 import com.google.api.codegen.config.MethodConfig;
 import com.google.api.codegen.config.MethodModel;
 import com.google.api.codegen.config.ProductServiceConfig;
@@ -257,6 +258,8 @@ public class PhpGapicSurfaceTransformer implements ModelToViewTransformer<ProtoA
     for (MethodModel method : context.getLongRunningMethods()) {
       GapicMethodContext methodContext = context.asRequestMethodContext(method);
       LongRunningConfig lroConfig = methodContext.getLongRunningConfig();
+      MethodAnalysis analysis =
+          context.getProductConfig().getMethodAnalysis(methodContext.getMethodConfig());
       TypeModel returnType = lroConfig.getReturnType();
       TypeModel metadataType = lroConfig.getMetadataType();
       result.add(
@@ -266,8 +269,8 @@ public class PhpGapicSurfaceTransformer implements ModelToViewTransformer<ProtoA
               .constructorName("")
               .clientReturnTypeName("")
               .operationPayloadTypeName(context.getImportTypeTable().getFullNameFor(returnType))
-              .isEmptyOperation(lroConfig.getReturnType().isEmptyType())
-              .isEmptyMetadata(lroConfig.getMetadataType().isEmptyType())
+              .isEmptyOperation(analysis.isEmptyLongRunningResponse())
+              .isEmptyMetadata(analysis.isEmptyLongRunningMetadata())
               .metadataTypeName(context.getImportTypeTable().getFullNameFor(metadataType))
               .initialPollDelay(lroConfig.getInitialPollDelay().toMillis())
               .pollDelayMultiplier(lroConfig.getPollDelayMultiplier())
@@ -282,34 +282,42 @@ public class PythonGapicSurfaceTransformer implements ModelToViewTransformer<Pro
     enumFile.fileHeader(
         fileHeaderTransformer.generateFileHeader(
             productConfig, ImportSectionView.newBuilder().build(), namer));
-    enumFile.elementDocs(generateEnumFileElements(typeTable, namer, files));
+    enumFile.elementDocs(generateEnumFileElements(productConfig, typeTable, namer, files));
     return enumFile.build();
   }
 
   /** Returns list of enum file elements, sorted alphabetically by name. */
   private List<GrpcElementDocView> generateEnumFileElements(
-      ModelTypeTable typeTable, SurfaceNamer namer, List<ProtoFile> containerElements) {
+      GapicProductConfig productConfig,
+      ModelTypeTable typeTable,
+      SurfaceNamer namer,
+      List<ProtoFile> containerElements) {
     ImmutableSortedSet.Builder<GrpcElementDocView> elements =
         ImmutableSortedSet.orderedBy(Comparator.comparing(GrpcElementDocView::name));
     for (ProtoContainerElement containerElement : containerElements) {
-      elements.addAll(generateEnumFileElements(typeTable, namer, containerElement));
+      elements.addAll(generateEnumFileElements(productConfig, typeTable, namer, containerElement));
     }
     return elements.build().asList();
   }
 
   private List<GrpcElementDocView> generateEnumFileElements(
-      ModelTypeTable typeTable, SurfaceNamer namer, ProtoContainerElement containerElement) {
+      GapicProductConfig productConfig,
+      ModelTypeTable typeTable,
+      SurfaceNamer namer,
+      ProtoContainerElement containerElement) {
     ImmutableList.Builder<GrpcElementDocView> elements = ImmutableList.builder();
     elements.addAll(
-        elementDocTransformer.generateEnumDocs(typeTable, namer, containerElement.getEnums()));
+        elementDocTransformer.generateEnumDocs(
+            productConfig, typeTable, namer, containerElement.getEnums()));
     for (MessageType message : containerElement.getMessages()) {
-      List<GrpcElementDocView> elementDocs = generateEnumFileElements(typeTable, namer, message);
+      List<GrpcElementDocView> elementDocs =
+          generateEnumFileElements(productConfig, typeTable, namer, message);
       if (!elementDocs.isEmpty()) {
         GrpcMessageDocView.Builder messageView = GrpcMessageDocView.newBuilder();
         messageView.name(namer.publicClassName(Name.upperCamel(message.getSimpleName())));
         messageView.fullName(typeTable.getFullNameFor(TypeRef.of(message)));
         messageView.fileUrl(GapicParser.getFileUrl(message.getFile()));
-        messageView.lines(namer.getDocLines(GapicParser.getDocString(message)));
+        messageView.lines(productConfig.getDocLinesCache().getDocLines(namer, message));
         messageView.properties(ImmutableList.<ParamDocView>of());
         messageView.elementDocs(elementDocs);
         messageView.packageName(message.getFile().getFullName());
@@ -112,7 +112,7 @@ public class RubyApiMethodParamTransformer implements ApiMethodParamTransformer
             "performed per-page, this determines the maximum number of",
             "resources in a page.");
       } else {
-        docLines.addAll(namer.getDocLines(field));
+        docLines.addAll(context.getProductConfig().getDocLinesCache().getDocLines(namer, field));
         boolean isMessageField = field.isMessage() && !field.isMap();
         boolean isMapContainingMessage =
             field.isMap() && field.getType().getMapValueType().isMessage();
@@ -18,15 +18,20 @@ package com.google.api.codegen.util;
 import com.google.common.base.CaseFormat;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Utility class to replace fully capitalized common acronyms with an upper camel interpretation.
  */
 public class CommonAcronyms {
-  private static final ImmutableSet<String> ACRONYMS =
+  private static final ImmutableSet<String> DEFAULT_ACRONYMS =
       ImmutableSet.<String>builder()
           .add("IAM")
           .add("HTTP")
@@ -36,6 +41,82 @@ public class CommonAcronyms {
           .add("SQL")
           .build();
 
+  private static final Pattern ACRONYM_PATTERN = Pattern.compile("[A-Z][A-Z0-9]+");
+
+  // The recognized acronyms, with the automaton that finds them, are replaced together.
+  private static volatile AcronymAutomaton globalAutomaton = new AcronymAutomaton(DEFAULT_ACRONYMS);
+
+  // The acronyms of the generator run on the current thread, if any. The threads which the run
+  // creates inherit them.
+  private static final InheritableThreadLocal<AcronymAutomaton> runAutomaton =
+      new InheritableThreadLocal<>();
+
+  /**
+   * Adds the given acronyms to the set of recognized upper-case acronyms, until they are reset.
+   * Every acronym must be at least two characters long and consist of upper-case letters and
+   * digits, starting with a letter.
+   *
+   * <p>The acronyms are global to the JVM. A generator run should use {@link #setRunAcronyms}
+   * instead, so that its acronyms do not apply to other runs in the same JVM.
+   */
+  public static synchronized void registerAcronyms(Iterable<String> newAcronyms) {
+    globalAutomaton = withAcronyms(globalAutomaton, newAcronyms);
+  }
+
+  /**
+   * Recognizes the given acronyms, in addition to the global ones, on the current thread and on the
+   * threads it creates, until {@link #clearRunAcronyms} is called. Runs on other threads are not
+   * affected.
+   */
+  public static void setRunAcronyms(Iterable<String> newAcronyms) {
+    runAutomaton.set(withAcronyms(globalAutomaton, newAcronyms));
+  }
+
+  /** Removes the acronyms set by {@link #setRunAcronyms} on the current thread. */
+  public static void clearRunAcronyms() {
+    runAutomaton.remove();
+  }
+
+  /** Restores the default set of recognized upper-case acronyms. */
+  public static synchronized void resetAcronyms() {
+    if (globalAutomaton.acronyms != DEFAULT_ACRONYMS) {
+      globalAutomaton = new AcronymAutomaton(DEFAULT_ACRONYMS);
+    }
+  }
+
+  /**
+   * Returns the recognized upper-case acronyms. A new set is returned after each change, so callers
+   * which cache names derived from the acronyms can compare the returned sets by identity.
+   */
+  public static ImmutableSet<String> getAcronyms() {
+    return automaton().acronyms;
+  }
+
+  private static AcronymAutomaton automaton() {
+    AcronymAutomaton automaton = runAutomaton.get();
+    return automaton != null ? automaton : globalAutomaton;
+  }
+
+  private static AcronymAutomaton withAcronyms(
+      AcronymAutomaton automaton, Iterable<String> newAcronyms) {
+    ImmutableSet<String> acronyms = automaton.acronyms;
+    ImmutableSet.Builder<String> builder = ImmutableSet.<String>builder().addAll(acronyms);
+    for (String acronym : newAcronyms) {
+      if (!ACRONYM_PATTERN.matcher(acronym).matches()) {
+        throw new IllegalArgumentException(
+            "CommonAcronyms: acronym must be in upper case: '" + acronym + "'");
+      }
+      builder.add(acronym);
+    }
+    ImmutableSet<String> updated = builder.build();
+    return updated.size() != acronyms.size() ? new AcronymAutomaton(updated) : automaton;
+  }
+
+  /** Returns true if the given string contains at least one recognized upper-case acronym. */
+  public static boolean containsUpperAcronym(String str) {
+    return automaton().containsMatch(str);
+  }
+
   /** Represents the notion of whether a name piece is normal or an upper-case acronym. */
   public enum NamePieceCasingType {
     NORMAL,
@@ -62,6 +143,9 @@ public class CommonAcronyms {
   }
 
   public static String camelizeUpperAcronyms(String str) {
+    if (!containsUpperAcronym(str)) {
+      return str;
+    }
     StringBuilder builder = new StringBuilder();
     for (SubNamePiece piece : splitByUpperAcronyms(str)) {
       if (piece.type().equals(NamePieceCasingType.UPPER_ACRONYM)) {
@@ -84,19 +168,28 @@ public class CommonAcronyms {
   }
 
   private static List<NamePiecePosition> getNamePiecePositions(String str) {
-    List<NamePiecePosition> positions = new ArrayList<>();
-    for (String acronym : ACRONYMS) {
-      int startIndex = 0;
-      int foundIndex = -1;
-      while ((foundIndex = str.indexOf(acronym, startIndex)) != -1) {
-        int endIndex = foundIndex + acronym.length();
-        positions.add(new NamePiecePosition(foundIndex, endIndex));
-        startIndex = endIndex;
-      }
+    List<NamePiecePosition> positions = automaton().findMatches(str);
+    if (positions.isEmpty()) {
+      return positions;
     }
     Collections.sort(positions);
 
-    return positions;
+    // An acronym which is contained in a longer one (such as "HTTP" in "HTTPS") is not ambiguous:
+    // the longer acronym wins.
+    List<NamePiecePosition> result = new ArrayList<>(positions.size());
+    for (NamePiecePosition position : positions) {
+      if (!result.isEmpty()) {
+        NamePiecePosition lastPos = result.get(result.size() - 1);
+        if (lastPos.contains(position)) {
+          continue;
+        }
+        if (position.contains(lastPos)) {
+          result.remove(result.size() - 1);
+        }
+      }
+      result.add(position);
+    }
+    return result;
   }
 
   private static List<SubNamePiece> getSubNamePieces(
@@ -170,6 +263,10 @@ public class CommonAcronyms {
       return Integer.compare(endIndex, otherPos.endIndex);
     }
 
+    public boolean contains(NamePiecePosition otherPos) {
+      return otherPos.startIndex >= startIndex && otherPos.endIndex <= endIndex;
+    }
+
     public boolean overlapsWith(NamePiecePosition otherPos) {
       if (otherPos.startIndex < endIndex && otherPos.endIndex > startIndex) {
         return true;
@@ -178,4 +275,143 @@ public class CommonAcronyms {
       }
     }
   }
+
+  /**
+   * A precompiled Aho-Corasick automaton over the recognized acronyms. Characters outside of the
+   * acronym alphabet always lead back to the root state, so a string without acronyms is scanned
+   * once without any allocation.
+   */
+  private static class AcronymAutomaton {
+    private static final int ALPHABET_SIZE = 128;
+
+    private final ImmutableSet<String> acronyms;
+
+    /** Dense transition table, indexed by state and character. */
+    private final int[][] transitions;
+
+    /** The acronyms ending at each state, including those reached by failure links. */
+    private final int[][] matches;
+
+    private final int[] acronymLengths;
+
+    AcronymAutomaton(ImmutableSet<String> acronyms) {
+      this.acronyms = acronyms;
+      List<int[]> gotos = new ArrayList<>();
+      List<List<Integer>> outputs = new ArrayList<>();
+      gotos.add(newState());
+      outputs.add(new ArrayList<>());
+
+      acronymLengths = new int[acronyms.size()];
+      int acronymIndex = 0;
+      for (String acronym : acronyms) {
+        int state = 0;
+        for (int i = 0; i < acronym.length(); i++) {
+          char c = acronym.charAt(i);
+          if (gotos.get(state)[c] <= 0) {
+            gotos.add(newState());
+            outputs.add(new ArrayList<>());
+            gotos.get(state)[c] = gotos.size() - 1;
+          }
+          state = gotos.get(state)[c];
+        }
+        outputs.get(state).add(acronymIndex);
+        acronymLengths[acronymIndex++] = acronym.length();
+      }
+
+      // Compute failure links breadth-first, folding them into the transition table.
+      int[] failures = new int[gotos.size()];
+      Deque<Integer> queue = new ArrayDeque<>();
+      for (int c = 0; c < ALPHABET_SIZE; c++) {
+        int next = gotos.get(0)[c];
+        if (next > 0) {
+          queue.add(next);
+        } else {
+          gotos.get(0)[c] = 0;
+        }
+      }
+      while (!queue.isEmpty()) {
+        int state = queue.remove();
+        outputs.get(state).addAll(outputs.get(failures[state]));
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+          int next = gotos.get(state)[c];
+          if (next > 0) {
+            failures[next] = gotos.get(failures[state])[c];
+            queue.add(next);
+          } else {
+            gotos.get(state)[c] = gotos.get(failures[state])[c];
+          }
+        }
+      }
+
+      transitions = gotos.toArray(new int[gotos.size()][]);
+      matches = new int[outputs.size()][];
+      for (int state = 0; state < outputs.size(); state++) {
+        matches[state] = Ints.toArray(outputs.get(state));
+      }
+    }
+
+    private static int[] newState() {
+      int[] state = new int[ALPHABET_SIZE];
+      Arrays.fill(state, -1);
+      return state;
+    }
+
+    private int next(int state, char c) {
+      return c < ALPHABET_SIZE ? transitions[state][c] : 0;
+    }
+
+    boolean containsMatch(String str) {
+      int state = 0;
+      for (int i = 0; i < str.length(); i++) {
+        state = next(state, str.charAt(i));
+        if (matches[state].length > 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns the positions of all acronyms found in the given string, in the order of their end
+     * indices. Occurrences of the same acronym never overlap each other. Nothing is allocated if
+     * there is no acronym in the string.
+     */
+    List<NamePiecePosition> findMatches(String str) {
+      List<NamePiecePosition> positions = Collections.emptyList();
+      int state = 0;
+      for (int i = 0; i < str.length(); i++) {
+        state = next(state, str.charAt(i));
+        for (int acronym : matches[state]) {
+          int startIndex = i + 1 - acronymLengths[acronym];
+          if (positions.isEmpty()) {
+            positions = new ArrayList<>();
+          } else if (overlapsSameAcronym(str, positions, startIndex, acronymLengths[acronym])) {
+            continue;
+          }
+          positions.add(new NamePiecePosition(startIndex, i + 1));
+        }
+      }
+      return positions;
+    }
+
+    /**
+     * Returns true if an earlier occurrence of the acronym at the given position overlaps it. The
+     * positions are ordered by end index, so only those which end after the start index are
+     * checked.
+     */
+    private static boolean overlapsSameAcronym(
+        String str, List<NamePiecePosition> positions, int startIndex, int length) {
+      for (int i = positions.size() - 1; i >= 0; i--) {
+        NamePiecePosition position = positions.get(i);
+        if (position.endIndex <= startIndex) {
+          return false;
+        }
+        if (position.endIndex - position.startIndex == length
+            && str.regionMatches(position.startIndex, str, startIndex, length)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
 }
@@ -0,0 +1,112 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.util;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+
+/**
+ * An immutable set of reserved words, stored in a collision-free hash table.
+ *
+ * <p>The hash seed is chosen when the table is built so that no two keywords share a slot. A lookup
+ * therefore hashes the identifier once and compares it against at most one keyword, and identifiers
+ * which are shorter or longer than every keyword are rejected without hashing.
+ */
+public class KeywordTable {
+  private static final int MAX_SEEDS = 1 << 12;
+
+  private final boolean ignoreCase;
+  private final String[] slots;
+  private final int mask;
+  private final int seed;
+  private final int minLength;
+  private final int maxLength;
+
+  private KeywordTable(Collection<String> keywords, boolean ignoreCase) {
+    this.ignoreCase = ignoreCase;
+    int min = Integer.MAX_VALUE;
+    int max = 0;
+    for (String keyword : keywords) {
+      min = Math.min(min, keyword.length());
+      max = Math.max(max, keyword.length());
+    }
+    this.minLength = min;
+    this.maxLength = max;
+
+    int size = Integer.highestOneBit(Math.max(keywords.size(), 1) * 2) << 1;
+    int candidateSeed = 1;
+    String[] table = tryBuild(keywords, size, candidateSeed);
+    while (table == null) {
+      if (++candidateSeed > MAX_SEEDS) {
+        size <<= 1;
+        candidateSeed = 1;
+      }
+      table = tryBuild(keywords, size, candidateSeed);
+    }
+    this.slots = table;
+    this.mask = size - 1;
+    this.seed = candidateSeed;
+  }
+
+  /** Creates a table of case-sensitive keywords. */
+  public static KeywordTable of(Collection<String> keywords) {
+    return new KeywordTable(keywords, false);
+  }
+
+  /** Creates a table of keywords which match identifiers regardless of their case. */
+  public static KeywordTable ofIgnoringCase(Collection<String> keywords) {
+    return new KeywordTable(
+        keywords.stream().map(String::toLowerCase).collect(ImmutableSet.toImmutableSet()), true);
+  }
+
+  /** Returns true if the given identifier is one of the keywords. */
+  public boolean contains(String identifier) {
+    int length = identifier.length();
+    if (length < minLength || length > maxLength) {
+      return false;
+    }
+    String keyword = slots[slot(hash(identifier, ignoreCase), seed, mask)];
+    if (keyword == null) {
+      return false;
+    }
+    return ignoreCase ? keyword.equalsIgnoreCase(identifier) : keyword.equals(identifier);
+  }
+
+  private String[] tryBuild(Collection<String> keywords, int size, int candidateSeed) {
+    String[] table = new String[size];
+    for (String keyword : keywords) {
+      int index = slot(hash(keyword, ignoreCase), candidateSeed, size - 1);
+      if (table[index] != null && !table[index].equals(keyword)) {
+        return null;
+      }
+      table[index] = keyword;
+    }
+    return table;
+  }
+
+  private static int hash(String identifier, boolean ignoreCase) {
+    int hash = 0;
+    for (int i = 0; i < identifier.length(); i++) {
+      char c = identifier.charAt(i);
+      hash = 31 * hash + (ignoreCase ? Character.toLowerCase(c) : c);
+    }
+    return hash;
+  }
+
+  private static int slot(int hash, int seed, int mask) {
+    int mixed = (hash ^ seed) * 0x9E3779B1;
+    return (mixed ^ (mixed >>> 16)) & mask;
+  }
+}
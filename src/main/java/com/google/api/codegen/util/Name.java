@@ -26,6 +26,13 @@ import java.util.List;
 public class Name {
   private List<NamePiece> namePieces;
 
+  // Names are immutable and formatted many times by every transformer, so the commonly used
+  // renderings are computed lazily and kept. Racing threads compute identical strings.
+  private String lowerUnderscore;
+  private String upperUnderscore;
+  private String lowerCamel;
+  private String upperCamel;
+
   /**
    * Creates a Name from a sequence of lower-underscore strings.
    *
@@ -140,6 +147,10 @@ public class Name {
         continue;
       }
       validateCamel(piece, checkCase);
+      if (!CommonAcronyms.containsUpperAcronym(piece)) {
+        namePieces.add(new NamePiece(piece, getCamelCaseFormat(piece), CasingMode.NORMAL));
+        continue;
+      }
       for (SubNamePiece subPiece : CommonAcronyms.splitByUpperAcronyms(piece)) {
         CaseFormat caseFormat = getCamelCaseFormat(subPiece.namePieceString());
         CasingMode casingMode = CasingMode.NORMAL;
@@ -222,12 +233,20 @@ public class Name {
 
   /** Returns the identifier in upper-underscore format. */
   public String toUpperUnderscore() {
-    return toUnderscore(CaseFormat.UPPER_UNDERSCORE);
+    String result = upperUnderscore;
+    if (result == null) {
+      result = upperUnderscore = toUnderscore(CaseFormat.UPPER_UNDERSCORE);
+    }
+    return result;
   }
 
   /** Returns the identifier in lower-underscore format. */
   public String toLowerUnderscore() {
-    return toUnderscore(CaseFormat.LOWER_UNDERSCORE);
+    String result = lowerUnderscore;
+    if (result == null) {
+      result = lowerUnderscore = toUnderscore(CaseFormat.LOWER_UNDERSCORE);
+    }
+    return result;
   }
 
   private String toUnderscore(CaseFormat caseFormat) {
@@ -240,12 +259,20 @@ public class Name {
 
   /** Returns the identifier in lower-camel format. */
   public String toLowerCamel() {
-    return toCamel(CaseFormat.LOWER_CAMEL);
+    String result = lowerCamel;
+    if (result == null) {
+      result = lowerCamel = toCamel(CaseFormat.LOWER_CAMEL);
+    }
+    return result;
   }
 
   /** Returns the identifier in upper-camel format. */
   public String toUpperCamel() {
-    return toCamel(CaseFormat.UPPER_CAMEL);
+    String result = upperCamel;
+    if (result == null) {
+      result = upperCamel = toCamel(CaseFormat.UPPER_CAMEL);
+    }
+    return result;
   }
 
   public String toUpperCamelAndDigits() {
@@ -14,6 +14,7 @@
  */
 package com.google.api.codegen.util.go;
 
+import com.google.api.codegen.util.KeywordTable;
 import com.google.api.codegen.util.Name;
 import com.google.api.codegen.util.NameFormatter;
 import com.google.api.codegen.util.NamePath;
@@ -23,7 +24,7 @@ import com.google.common.collect.ImmutableSet;
 public class GoNameFormatter implements NameFormatter {
 
   private String wrapIfKeywordOrBuiltIn(String name) {
-    if (RESERVED_IDENTIFIER_SET.contains(name)) {
+    if (RESERVED_KEYWORDS.contains(name)) {
       return name + "_";
     } else {
       return name;
@@ -175,4 +176,6 @@ public class GoNameFormatter implements NameFormatter {
           // so common they might as well be keywords
           .add("context")
           .build();
+
+  private static final KeywordTable RESERVED_KEYWORDS = KeywordTable.of(RESERVED_IDENTIFIER_SET);
 }
@@ -14,6 +14,7 @@
  */
 package com.google.api.codegen.util.java;
 
+import com.google.api.codegen.util.KeywordTable;
 import com.google.api.codegen.util.Name;
 import com.google.api.codegen.util.NameFormatter;
 import com.google.api.codegen.util.NamePath;
@@ -27,7 +28,7 @@ public class JavaNameFormatter implements NameFormatter {
       throw new IllegalArgumentException(
           String.format("Name '%s' clashes with java.lang.* namespace", name));
     }
-    if (RESERVED_IDENTIFIER_SET.contains(name)) {
+    if (RESERVED_KEYWORDS.contains(name)) {
       return name + "_";
     } else {
       return name;
@@ -161,4 +162,6 @@ public class JavaNameFormatter implements NameFormatter {
               "volatile",
               "while")
           .build();
+
+  private static final KeywordTable RESERVED_KEYWORDS = KeywordTable.of(RESERVED_IDENTIFIER_SET);
 }
@@ -14,6 +14,7 @@
  */
 package com.google.api.codegen.util.php;
 
+import com.google.api.codegen.util.KeywordTable;
 import com.google.api.codegen.util.Name;
 import com.google.api.codegen.util.NameFormatter;
 import com.google.api.codegen.util.NamePath;
@@ -24,7 +25,7 @@ public class PhpNameFormatter implements NameFormatter {
 
   private String wrapIfKeywordOrBuiltIn(String name) {
     // PHP keywords are case-insensitive.
-    if (KEYWORD_BUILT_IN_SET.contains(name.toLowerCase())) {
+    if (KEYWORD_BUILT_INS.contains(name)) {
       return name + "_";
     } else {
       return name;
@@ -183,4 +184,7 @@ public class PhpNameFormatter implements NameFormatter {
               "__NAMESPACE__",
               "__TRAIT__")
           .build();
+
+  private static final KeywordTable KEYWORD_BUILT_INS =
+      KeywordTable.ofIgnoringCase(KEYWORD_BUILT_IN_SET);
 }
@@ -15,6 +15,7 @@
 package com.google.api.codegen.util.php;
 
 import com.google.api.codegen.util.DynamicLangTypeTable;
+import com.google.api.codegen.util.KeywordTable;
 import com.google.api.codegen.util.NamePath;
 import com.google.api.codegen.util.TypeAlias;
 import com.google.api.codegen.util.TypeName;
@@ -29,7 +30,7 @@ public class PhpTypeTable implements TypeTable {
   private final DynamicLangTypeTable dynamicTypeTable;
 
   private TypeName wrapIfKeywordOrBuiltIn(TypeName typeName) {
-    if (RESERVED_IDENTIFIER_SET.contains(typeName.getNickname().toLowerCase())) {
+    if (RESERVED_KEYWORDS.contains(typeName.getNickname())) {
       int lastSeparatorIndex = typeName.getFullName().lastIndexOf(dynamicTypeTable.getSeparator());
       if (lastSeparatorIndex > 0) {
         String namespace = typeName.getFullName().substring(0, lastSeparatorIndex);
@@ -198,4 +199,7 @@ public class PhpTypeTable implements TypeTable {
               "xor",
               "yield")
           .build();
+
+  private static final KeywordTable RESERVED_KEYWORDS =
+      KeywordTable.ofIgnoringCase(RESERVED_IDENTIFIER_SET);
 }
@@ -14,6 +14,7 @@
  */
 package com.google.api.codegen.util.ruby;
 
+import com.google.api.codegen.util.KeywordTable;
 import com.google.api.codegen.util.Name;
 import com.google.api.codegen.util.NameFormatter;
 import com.google.api.codegen.util.NamePath;
@@ -23,7 +24,7 @@ import com.google.common.collect.ImmutableSet;
 public class RubyNameFormatter implements NameFormatter {
 
   private String wrapIfKeywordOrBuiltIn(String name) {
-    if (RESERVED_IDENTIFIER_SET.contains(name)) {
+    if (RESERVED_KEYWORDS.contains(name)) {
       return name + "_";
     } else {
       return name;
@@ -152,4 +153,6 @@ public class RubyNameFormatter implements NameFormatter {
               // specify a CallOptions instance.
               "options")
           .build();
+
+  private static final KeywordTable RESERVED_KEYWORDS = KeywordTable.of(RESERVED_IDENTIFIER_SET);
 }
@@ -57,6 +57,12 @@ public abstract class StaticLangApiMessageView implements Comparable<StaticLangA
   // "List<Operation>".
   public abstract String typeName();
 
+  // Returns if the type name has type arguments, e.g. "List<Operation>", so that its class literal
+  // does not denote the full type.
+  public boolean isParameterizedType() {
+    return typeName().contains("<");
+  }
+
   // The type name for this Schema when rendered as a class name, e.g. "Operation".
   public abstract String innerTypeName();
 
@@ -93,11 +99,15 @@ public abstract class StaticLangApiMessageView implements Comparable<StaticLangA
   // If this field should be part of the parent message's serialization.
   public abstract boolean isSerializable();
 
+  // If this message is read and written as JSON by a generated codec instead of by reflection.
+  public abstract boolean hasJsonCodec();
+
   public static StaticLangApiMessageView.Builder newBuilder() {
     return new AutoValue_StaticLangApiMessageView.Builder()
         .hasRequiredProperties(false)
         .hasFieldMask(false)
-        .isSerializable(true);
+        .isSerializable(true)
+        .hasJsonCodec(false);
   }
 
   @AutoValue.Builder
@@ -132,6 +142,8 @@ public abstract class StaticLangApiMessageView implements Comparable<StaticLangA
 
     public abstract Builder isSerializable(boolean val);
 
+    public abstract Builder hasJsonCodec(boolean val);
+
     public abstract Builder requestBodyType(StaticLangApiMessageView val);
 
     public abstract StaticLangApiMessageView build();
@@ -0,0 +1,211 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.codegen.CodegenTestUtil;
+import com.google.api.codegen.ConfigProto;
+import com.google.api.codegen.MixedPathTestDataLocator;
+import com.google.api.codegen.common.TargetLanguage;
+import com.google.api.tools.framework.model.Model;
+import com.google.api.tools.framework.model.testing.TestDataLocator;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MethodAnalysisTest {
+
+  @ClassRule public static TemporaryFolder tempDir = new TemporaryFolder();
+
+  private static GapicProductConfig productConfig;
+  private static InterfaceConfig libraryConfig;
+
+  @BeforeClass
+  public static void setupClass() {
+    TestDataLocator locator = MixedPathTestDataLocator.create(MethodAnalysisTest.class);
+    locator.addTestDataSource(CodegenTestUtil.class, "testsrc/protoannotations");
+    Model model =
+        CodegenTestUtil.readModel(
+            locator,
+            tempDir,
+            new String[] {"library.proto", "common_resources.proto", "another_service.proto"},
+            new String[] {"library.yaml"});
+    ConfigProto configProto =
+        CodegenTestUtil.readConfig(
+            model.getDiagReporter().getDiagCollector(),
+            locator,
+            new String[] {"library_v2_gapic.yaml"});
+    productConfig =
+        GapicProductConfig.create(
+            model,
+            configProto,
+            null,
+            "google.example.library.v1",
+            null,
+            TargetLanguage.JAVA,
+            null,
+            TransportProtocol.GRPC);
+    assertThat(model.getDiagReporter().getDiagCollector().hasErrors()).isFalse();
+    libraryConfig = productConfig.getInterfaceConfig("google.example.library.v1.LibraryService");
+  }
+
+  @Test
+  public void testAnalysisIsCachedPerMethod() {
+    for (MethodConfig methodConfig : libraryConfig.getMethodConfigs()) {
+      assertThat(productConfig.getMethodAnalysis(methodConfig))
+          .isSameAs(productConfig.getMethodAnalysis(methodConfig));
+    }
+  }
+
+  @Test
+  public void testHeaderRequestParamFields() {
+    MethodAnalysis analysis = productConfig.getMethodAnalysis(getMethodConfig("GetShelf"));
+
+    assertThat(analysis.getHeaderRequestParamFields()).containsKey("name");
+    assertThat(fieldNames(analysis.getHeaderRequestParamFields().get("name")))
+        .containsExactly("name");
+    assertThat(analysis.getHeaderRequestParamFields())
+        .isSameAs(analysis.getHeaderRequestParamFields());
+  }
+
+  @Test
+  public void testOptionalFieldConfigsWithoutPageToken() {
+    MethodConfig listShelves = getMethodConfig("ListShelves");
+    MethodAnalysis analysis = productConfig.getMethodAnalysis(listShelves);
+    FieldModel pageToken = listShelves.getPageStreaming().getRequestTokenField();
+
+    assertThat(fieldNames(FieldConfig.toFieldTypeIterable(listShelves.getOptionalFieldConfigs())))
+        .contains(pageToken.getSimpleName());
+    assertThat(analysis.getOptionalFieldConfigsWithoutPageToken())
+        .containsExactlyElementsIn(
+            listShelves
+                .getOptionalFieldConfigs()
+                .stream()
+                .filter(fieldConfig -> !fieldConfig.getField().equals(pageToken))
+                .collect(Collectors.toList()))
+        .inOrder();
+    assertThat(analysis.getOptionalFieldConfigsWithoutPageToken())
+        .isSameAs(analysis.getOptionalFieldConfigsWithoutPageToken());
+
+    MethodConfig getShelf = getMethodConfig("GetShelf");
+    assertThat(productConfig.getMethodAnalysis(getShelf).getOptionalFieldConfigsWithoutPageToken())
+        .containsExactlyElementsIn(getShelf.getOptionalFieldConfigs())
+        .inOrder();
+  }
+
+  @Test
+  public void testLongRunning() {
+    for (MethodConfig methodConfig : libraryConfig.getMethodConfigs()) {
+      MethodAnalysis analysis = productConfig.getMethodAnalysis(methodConfig);
+      if (!methodConfig.hasLroConfig()) {
+        assertThat(analysis.isEmptyLongRunningResponse()).isFalse();
+        assertThat(analysis.isEmptyLongRunningMetadata()).isFalse();
+        continue;
+      }
+      LongRunningConfig lroConfig = methodConfig.getLroConfig();
+      assertThat(analysis.isEmptyLongRunningResponse())
+          .isEqualTo(lroConfig.getReturnType().isEmptyType());
+      assertThat(analysis.isEmptyLongRunningMetadata())
+          .isEqualTo(lroConfig.getMetadataType().isEmptyType());
+    }
+    assertThat(
+            productConfig
+                .getMethodAnalysis(getMethodConfig("GetBigNothing"))
+                .isEmptyLongRunningResponse())
+        .isTrue();
+    assertThat(
+            productConfig
+                .getMethodAnalysis(getMethodConfig("GetBigBook"))
+                .isEmptyLongRunningResponse())
+        .isFalse();
+  }
+
+  @Test
+  public void testBatching() {
+    MethodConfig publishSeries = getMethodConfig("PublishSeries");
+    MethodAnalysis analysis = productConfig.getMethodAnalysis(publishSeries);
+    List<String> paramNames = new ArrayList<>();
+    List<FieldModel> partitionKeyFields = new ArrayList<>();
+    for (GenericFieldSelector fieldSelector :
+        publishSeries.getBatching().getDiscriminatorFields()) {
+      paramNames.add(fieldSelector.getParamName());
+      partitionKeyFields.add(fieldSelector.getLastField());
+    }
+
+    assertThat(paramNames).isNotEmpty();
+    assertThat(analysis.getBatchingDiscriminatorParamNames())
+        .containsExactlyElementsIn(paramNames)
+        .inOrder();
+    assertThat(analysis.getBatchingPartitionKeyFields())
+        .containsExactlyElementsIn(partitionKeyFields)
+        .inOrder();
+    assertThat(analysis.getBatchingDiscriminatorParamNames())
+        .isSameAs(analysis.getBatchingDiscriminatorParamNames());
+    assertThat(analysis.getBatchingPartitionKeyFields())
+        .isSameAs(analysis.getBatchingPartitionKeyFields());
+
+    MethodAnalysis getShelf = productConfig.getMethodAnalysis(getMethodConfig("GetShelf"));
+    assertThat(getShelf.getBatchingDiscriminatorParamNames()).isEmpty();
+    assertThat(getShelf.getBatchingPartitionKeyFields()).isEmpty();
+  }
+
+  @Test
+  public void testFlattening() {
+    for (MethodConfig methodConfig : libraryConfig.getMethodConfigs()) {
+      MethodAnalysis analysis = productConfig.getMethodAnalysis(methodConfig);
+      List<FlatteningConfig> flatteningConfigs =
+          analysis.getFlatteningConfigsWithRepeatedResourceInSampleOnly();
+      if (!methodConfig.isFlattening()) {
+        assertThat(flatteningConfigs).isEmpty();
+        continue;
+      }
+      assertThat(flatteningConfigs)
+          .containsExactlyElementsIn(
+              FlatteningConfig.withRepeatedResourceInSampleOnly(
+                  methodConfig.getFlatteningConfigs()))
+          .inOrder();
+      assertThat(analysis.getFlatteningConfigsWithRepeatedResourceInSampleOnly())
+          .isSameAs(flatteningConfigs);
+    }
+    assertThat(
+            productConfig
+                .getMethodAnalysis(getMethodConfig("GetShelf"))
+                .getFlatteningConfigsWithRepeatedResourceInSampleOnly())
+        .isNotEmpty();
+  }
+
+  private static MethodConfig getMethodConfig(String methodName) {
+    for (MethodConfig methodConfig : libraryConfig.getMethodConfigs()) {
+      if (methodConfig.getMethodModel().getSimpleName().equals(methodName)) {
+        return methodConfig;
+      }
+    }
+    throw new IllegalArgumentException("Unknown method: " + methodName);
+  }
+
+  private static ImmutableList<String> fieldNames(Iterable<FieldModel> fields) {
+    ImmutableList.Builder<String> names = ImmutableList.builder();
+    for (FieldModel field : fields) {
+      names.add(field.getSimpleName());
+    }
+    return names.build();
+  }
+}
@@ -14,6 +14,8 @@
  */
 package com.google.api.codegen.configgen;
 
+import static com.google.common.truth.Truth.assertThat;
+
 import com.google.api.codegen.CodegenTestUtil;
 import com.google.api.codegen.MixedPathTestDataLocator;
 import com.google.api.tools.framework.model.testing.ConfigBaselineTestCase;
@@ -22,12 +24,20 @@ import com.google.api.tools.framework.tools.ToolOptions;
 import com.google.common.collect.Lists;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import org.junit.Before;
 import org.junit.Test;
 
 public class ConfigGenerationTest extends ConfigBaselineTestCase {
+  // Tests whose name ends with this suffix generate the interfaces in parallel, and compare the
+  // config with the baseline of the test without the suffix.
+  private static final String PARALLEL_SUFFIX = "_parallel";
+  private static final int PARALLEL_THREAD_COUNT = 4;
+  // Tests whose name ends with this suffix synthesize the retry settings from the latency profile
+  // named after the test, for the service of the test without the suffix.
+  private static final String LATENCY_PROFILE_SUFFIX = "_latency_profile";
 
   private final TestDataLocator testDataLocator = MixedPathTestDataLocator.create(this.getClass());
 
@@ -38,7 +48,7 @@ public class ConfigGenerationTest extends ConfigBaselineTestCase {
 
   @Override
   protected String baselineFileName() {
-    return testName.getMethodName() + "_config.baseline";
+    return removeSuffix(testName.getMethodName(), PARALLEL_SUFFIX) + "_config.baseline";
   }
 
   @Override
@@ -50,18 +60,38 @@ public class ConfigGenerationTest extends ConfigBaselineTestCase {
   @Override
   public Object run() throws Exception {
     String outFile = tempDir.getRoot().getPath() + File.separator + baselineFileName();
-    String serviceConfigPath =
-        getTestDataLocator().findTestData(testName.getMethodName() + ".yaml").getPath();
+    String serviceName =
+        removeSuffix(
+            removeSuffix(testName.getMethodName(), PARALLEL_SUFFIX), LATENCY_PROFILE_SUFFIX);
+    String serviceConfigPath = getTestDataLocator().findTestData(serviceName + ".yaml").getPath();
 
     ToolOptions options = ToolOptions.create();
     options.set(GapicConfigGeneratorApp.OUTPUT_FILE, outFile);
     options.set(ToolOptions.DESCRIPTOR_SET, testConfig.getDescriptorFile().toString());
     options.set(ToolOptions.CONFIG_FILES, Lists.newArrayList(serviceConfigPath));
+    if (testName.getMethodName().endsWith(PARALLEL_SUFFIX)) {
+      options.set(GapicConfigGeneratorApp.THREAD_COUNT, PARALLEL_THREAD_COUNT);
+    }
+    if (testName.getMethodName().endsWith(LATENCY_PROFILE_SUFFIX)) {
+      options.set(
+          GapicConfigGeneratorApp.LATENCY_PROFILE,
+          getTestDataLocator().findTestData(testName.getMethodName() + ".csv").getPath());
+    }
     new GapicConfigGeneratorApp(options).run();
 
+    // The config is written through a temporary file, but gets the permissions of a new file.
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      assertThat(Files.getPosixFilePermissions(Paths.get(outFile)))
+          .isEqualTo(Files.getPosixFilePermissions(tempDir.newFile().toPath()));
+    }
+
     return new String(Files.readAllBytes(Paths.get(outFile)), StandardCharsets.UTF_8);
   }
 
+  private static String removeSuffix(String name, String suffix) {
+    return name.endsWith(suffix) ? name.substring(0, name.length() - suffix.length()) : name;
+  }
+
   @Before
   public void setup() {
     getTestDataLocator().addTestDataSource(getClass(), "testdata");
@@ -78,6 +108,11 @@ public class ConfigGenerationTest extends ConfigBaselineTestCase {
     test("no_path_templates");
   }
 
+  @Test
+  public void no_path_templates_latency_profile() throws Exception {
+    test("no_path_templates");
+  }
+
   @Test
   public void longrunning() throws Exception {
     test("longrunning");
@@ -87,4 +122,9 @@ public class ConfigGenerationTest extends ConfigBaselineTestCase {
   public void multiple_services() throws Exception {
     test("multiple_services", "multiple_services_v2");
   }
+
+  @Test
+  public void multiple_services_parallel() throws Exception {
+    test("multiple_services", "multiple_services_v2");
+  }
 }
@@ -0,0 +1,167 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.configgen;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.codegen.configgen.nodes.ConfigNode;
+import com.google.api.codegen.configgen.nodes.FieldConfigNode;
+import com.google.api.codegen.configgen.nodes.ListItemConfigNode;
+import com.google.api.codegen.configgen.nodes.ScalarConfigNode;
+import com.google.api.codegen.configgen.nodes.metadata.DefaultComment;
+import com.google.api.codegen.configgen.nodes.metadata.FixmeComment;
+import com.google.common.base.Joiner;
+import java.io.StringWriter;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class ConfigGeneratorTest {
+  @Test
+  public void testScalarFields() {
+    ConfigNode first = FieldConfigNode.createStringPair(0, "type", "com.google.api.codegen");
+    first.insertNext(FieldConfigNode.createStringPair(1, "config_schema_version", "1.0.0"));
+    assertThat(generate(first))
+        .isEqualTo(lines("type: com.google.api.codegen", "config_schema_version: 1.0.0", ""));
+  }
+
+  @Test
+  public void testNestedMapsAndLists() {
+    ConfigNode interfaces = new FieldConfigNode(0, "interfaces");
+    ConfigNode methods = new FieldConfigNode(0, "methods");
+    ListTransformer.generateList(
+        Arrays.asList("GetBook", "ListBooks"),
+        methods,
+        (startLine, name) -> {
+          ConfigNode nameNode = FieldConfigNode.createStringPair(startLine, "name", name);
+          ConfigNode fieldsNode = new FieldConfigNode(startLine, "required_fields");
+          ListTransformer.generateStringList(Arrays.asList("name", "shelf"), fieldsNode);
+          nameNode.insertNext(fieldsNode);
+          return new ListItemConfigNode(startLine).setChild(nameNode);
+        });
+    ConfigNode interfaceName =
+        FieldConfigNode.createStringPair(0, "name", "google.example.Library");
+    interfaceName.insertNext(methods);
+    interfaces.setChild(new ListItemConfigNode(0).setChild(interfaceName));
+
+    assertThat(generate(interfaces))
+        .isEqualTo(
+            lines(
+                "interfaces:",
+                "- name: google.example.Library",
+                "  methods:",
+                "  - name: GetBook",
+                "    required_fields:",
+                "    - name",
+                "    - shelf",
+                "  - name: ListBooks",
+                "    required_fields:",
+                "    - name",
+                "    - shelf",
+                ""));
+  }
+
+  @Test
+  public void testComments() {
+    ConfigNode language =
+        FieldConfigNode.createStringPair(0, "package_name", "com.google.example")
+            .setComment(new DefaultComment("The package name.\n\nSecond paragraph."));
+    ConfigNode list =
+        new FieldConfigNode(0, "retry_codes")
+            .setComment(new FixmeComment("Configure the retry codes."));
+    ListTransformer.generateStringList(Arrays.asList("UNAVAILABLE"), list);
+    language.insertNext(list);
+
+    assertThat(generate(language))
+        .isEqualTo(
+            lines(
+                "# The package name.",
+                "#",
+                "# Second paragraph.",
+                "package_name: com.google.example",
+                "# FIXME: Configure the retry codes.",
+                "retry_codes:",
+                "- UNAVAILABLE",
+                ""));
+  }
+
+  @Test
+  public void testCommentedListItem() {
+    ConfigNode list = new FieldConfigNode(0, "items");
+    ConfigNode item =
+        new ListItemConfigNode(0)
+            .setChild(
+                FieldConfigNode.createStringPair(0, "name", "foo")
+                    .setComment(new DefaultComment("The name.")));
+    list.setChild(item);
+
+    assertThat(generate(list)).isEqualTo(lines("items:", "# The name.", "- name: foo", ""));
+  }
+
+  @Test
+  public void testLongCommentIsWrapped() {
+    String comment =
+        "This comment is long enough to be wrapped at the maximum line width of the generated"
+            + " yaml file.";
+    ConfigNode node =
+        FieldConfigNode.createStringPair(0, "name", "foo").setComment(new DefaultComment(comment));
+
+    assertThat(generate(node))
+        .isEqualTo(
+            lines(
+                "# This comment is long enough to be wrapped at the maximum line width of the",
+                "# generated yaml file.",
+                "name: foo",
+                ""));
+  }
+
+  @Test
+  public void testEmptyNodes() {
+    ConfigNode empty = new FieldConfigNode(0, "empty");
+    ConfigNode emptyItem = new FieldConfigNode(0, "items");
+    emptyItem.setChild(new ListItemConfigNode(0));
+    empty.insertNext(emptyItem);
+
+    assertThat(generate(empty)).isEqualTo(lines("empty: []", "items:", "- ", ""));
+  }
+
+  @Test
+  public void testRootValue() {
+    ConfigNode root = new FieldConfigNode(0, "");
+    root.setChild(new ScalarConfigNode(0, "foo"));
+    assertThat(generate(root)).isEqualTo("foo");
+
+    assertThat(generate(new FieldConfigNode(0, ""))).isEqualTo("[]");
+  }
+
+  @Test
+  public void testStreamsToWriter() {
+    ConfigNode node = FieldConfigNode.createStringPair(0, "name", "foo");
+    StringWriter writer = new StringWriter();
+    ConfigGenerator generator = new ConfigGenerator(0, writer);
+    generator.visit(node);
+    generator.flush();
+    assertThat(writer.toString()).isEqualTo(lines("name: foo", ""));
+  }
+
+  private static String generate(ConfigNode node) {
+    ConfigGenerator generator = new ConfigGenerator(0);
+    generator.visit(node);
+    return generator.toString();
+  }
+
+  private static String lines(String... lines) {
+    return Joiner.on(System.lineSeparator()).join(lines);
+  }
+}
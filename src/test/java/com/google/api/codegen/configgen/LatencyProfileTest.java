@@ -0,0 +1,113 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.configgen;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.codegen.configgen.LatencyProfile.MethodLatency;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.grpc.Status;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyProfileTest {
+  private static final String GET_BOOK = "google.example.library.v1.LibraryService.GetBook";
+  private static final String LIST_BOOKS = "google.example.library.v1.LibraryService.ListBooks";
+
+  @Test
+  public void testParseCsv() {
+    LatencyProfile profile =
+        LatencyProfile.parseCsv(
+            "method, p99_millis, p50_millis, UNAVAILABLE, ABORTED\n"
+                + "google.example.library.v1.LibraryService/GetBook, 250, 20.4, 0.002, 0\n"
+                + GET_BOOK.replace("GetBook", "ListBooks")
+                + ",900,,,0.01\n",
+            "profile.csv");
+
+    MethodLatency getBook = profile.getMethodLatency(GET_BOOK);
+    assertThat(getBook.p50Millis()).isEqualTo(20);
+    assertThat(getBook.p99Millis()).isEqualTo(250);
+    assertThat(getBook.errorRates())
+        .isEqualTo(ImmutableMap.of("UNAVAILABLE", 0.002, "ABORTED", 0.0));
+
+    MethodLatency listBooks = profile.getMethodLatency(LIST_BOOKS);
+    assertThat(listBooks.p50Millis()).isEqualTo(0);
+    assertThat(listBooks.p99Millis()).isEqualTo(900);
+    assertThat(listBooks.getErrorRate(Status.Code.ABORTED)).isEqualTo(0.01);
+    assertThat(listBooks.getErrorRate(Status.Code.UNAVAILABLE)).isEqualTo(0.0);
+
+    assertThat(profile.getMethodLatency("google.example.library.v1.LibraryService.DeleteBook"))
+        .isNull();
+  }
+
+  @Test
+  public void testParseJson() {
+    LatencyProfile profile =
+        LatencyProfile.parseJson(
+            "{\""
+                + GET_BOOK
+                + "\": {\"p50_millis\": 20, \"p99_millis\": 250,"
+                + " \"error_rates\": {\"UNAVAILABLE\": 0.002}}}",
+            "profile.json");
+
+    MethodLatency getBook = profile.getMethodLatency(GET_BOOK);
+    assertThat(getBook.p50Millis()).isEqualTo(20);
+    assertThat(getBook.p99Millis()).isEqualTo(250);
+    assertThat(getBook.errorRates()).isEqualTo(ImmutableMap.of("UNAVAILABLE", 0.002));
+  }
+
+  @Test
+  public void testInvalidProfiles() {
+    assertInvalidCsv("method,p50_millis\n" + GET_BOOK + ",20\n", "must name");
+    assertInvalidCsv("method,p99_millis,TIMEOUT\n" + GET_BOOK + ",20,0\n", "'TIMEOUT'");
+    assertInvalidCsv("method,p99_millis\n" + GET_BOOK + ",-5\n", "profile.csv:2: invalid latency");
+    assertInvalidCsv(
+        "method,p99_millis,UNAVAILABLE\n" + GET_BOOK + ",20,5\n", "invalid error rate");
+    assertInvalidCsv("method,p99_millis\n" + GET_BOOK + ",20\n" + GET_BOOK + ",30\n", "duplicate");
+    assertInvalidCsv("method,p99_millis\n" + GET_BOOK + ",\n", "missing p99_millis");
+  }
+
+  @Test
+  public void testUnknownMethods() {
+    LatencyProfile profile =
+        LatencyProfile.parseCsv(
+            "method,p99_millis\n"
+                + GET_BOOK
+                + ",250\n"
+                + GET_BOOK.replace("GetBook", "GetBok")
+                + ",250\n"
+                + LIST_BOOKS
+                + ",900\n",
+            "profile.csv");
+
+    assertThat(profile.getFileName()).isEqualTo("profile.csv");
+    assertThat(profile.getUnknownMethods(ImmutableSet.of(GET_BOOK, LIST_BOOKS)))
+        .containsExactly("google.example.library.v1.LibraryService.GetBok");
+    assertThat(profile.getUnknownMethods(ImmutableSet.of(GET_BOOK)))
+        .containsExactly("google.example.library.v1.LibraryService.GetBok", LIST_BOOKS)
+        .inOrder();
+    assertThat(LatencyProfile.empty().getUnknownMethods(ImmutableSet.of())).isEmpty();
+  }
+
+  private static void assertInvalidCsv(String content, String message) {
+    try {
+      LatencyProfile.parseCsv(content, "profile.csv");
+      Assert.fail("Expected an error containing: " + message);
+    } catch (IllegalArgumentException e) {
+      assertThat(e.getMessage()).contains(message);
+    }
+  }
+}
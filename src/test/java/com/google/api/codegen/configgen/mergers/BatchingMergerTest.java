@@ -0,0 +1,130 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.configgen.mergers;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.codegen.config.FieldModel;
+import com.google.api.codegen.config.MethodModel;
+import com.google.api.codegen.config.TypeModel;
+import com.google.api.codegen.configgen.ConfigGenerator;
+import com.google.api.codegen.configgen.ProtoPageStreamingTransformer;
+import com.google.api.codegen.configgen.nodes.ConfigNode;
+import com.google.api.codegen.configgen.nodes.FieldConfigNode;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class BatchingMergerTest {
+  private static final Map<String, String> COLLECTION_NAME_MAP =
+      ImmutableMap.of("projects/{project}/topics/{topic}", "topic");
+
+  private final BatchingMerger batchingMerger =
+      new BatchingMerger(new ProtoPageStreamingTransformer());
+
+  @Test
+  public void testPublishMethod() {
+    MethodModel method =
+        createMethod(
+            ImmutableList.of(createField("topic", false), createField("messages", true)),
+            ImmutableList.of(createField("message_ids", true)));
+    Mockito.doReturn(ImmutableMap.of("topic", "topic"))
+        .when(method)
+        .getResourcePatternNameMap(COLLECTION_NAME_MAP);
+
+    ConfigNode nameNode = FieldConfigNode.createStringPair(0, "name", "Publish");
+    ConfigNode batchingNode =
+        batchingMerger.generateBatchingNode(nameNode, method, COLLECTION_NAME_MAP);
+    assertThat(batchingNode.getText()).isEqualTo("batching");
+
+    ConfigGenerator generator = new ConfigGenerator(0);
+    generator.visit(nameNode);
+    assertThat(generator.toString())
+        .isEqualTo(
+            Joiner.on(System.lineSeparator())
+                .join(
+                    "name: Publish",
+                    "# FIXME: Configure the batching thresholds and flow control limits.",
+                    "batching:",
+                    "  thresholds:",
+                    "    element_count_threshold: 100",
+                    "    request_byte_threshold: 1048576",
+                    "    delay_threshold_millis: 10",
+                    "    element_count_limit: 1000",
+                    "    request_byte_limit: 10485760",
+                    "    flow_control_element_limit: 10000",
+                    "    flow_control_byte_limit: 104857600",
+                    "    flow_control_limit_exceeded_behavior: BLOCK",
+                    "  batch_descriptor:",
+                    "    batched_field: messages",
+                    "    discriminator_fields:",
+                    "    - topic",
+                    "    subresponse_field: message_ids",
+                    ""));
+  }
+
+  @Test
+  public void testPagedMethod() {
+    MethodModel method =
+        createMethod(
+            ImmutableList.of(createField("names", true), createField("page_token", false)),
+            ImmutableList.of(createField("books", true), createField("next_page_token", false)));
+
+    ConfigNode nameNode = FieldConfigNode.createStringPair(0, "name", "ListBooks");
+    assertThat(batchingMerger.generateBatchingNode(nameNode, method, COLLECTION_NAME_MAP))
+        .isSameAs(nameNode);
+    assertThat(nameNode.getNext().isPresent()).isFalse();
+  }
+
+  @Test
+  public void testAmbiguousResponseField() {
+    MethodModel method =
+        createMethod(
+            ImmutableList.of(createField("books", true)),
+            ImmutableList.of(createField("book_names", true), createField("books", true)));
+
+    ConfigNode nameNode = FieldConfigNode.createStringPair(0, "name", "PublishSeries");
+    assertThat(batchingMerger.generateBatchingNode(nameNode, method, COLLECTION_NAME_MAP))
+        .isSameAs(nameNode);
+  }
+
+  private static MethodModel createMethod(
+      List<FieldModel> inputFields, List<FieldModel> outputFields) {
+    MethodModel method = Mockito.mock(MethodModel.class);
+    TypeModel outputType = Mockito.mock(TypeModel.class);
+    Mockito.when(outputType.toString()).thenReturn("google.example.Response");
+    Mockito.when(method.getOutputType()).thenReturn(outputType);
+    Mockito.doReturn(inputFields).when(method).getInputFields();
+    Mockito.doReturn(outputFields).when(method).getOutputFields();
+    for (FieldModel field : inputFields) {
+      Mockito.when(method.getInputField(field.getSimpleName())).thenReturn(field);
+    }
+    Mockito.doReturn(ImmutableMap.of())
+        .when(method)
+        .getResourcePatternNameMap(Mockito.<Map<String, String>>any());
+    return method;
+  }
+
+  private static FieldModel createField(String name, boolean repeated) {
+    FieldModel field = Mockito.mock(FieldModel.class);
+    Mockito.when(field.getSimpleName()).thenReturn(name);
+    Mockito.when(field.isRepeated()).thenReturn(repeated);
+    return field;
+  }
+}
@@ -0,0 +1,85 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.configgen.transformer;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.codegen.configgen.LatencyProfile.MethodLatency;
+import com.google.api.codegen.configgen.viewmodel.RetryParamView;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.List;
+import org.junit.Test;
+
+public class RetryTransformerTest {
+  private static final List<String> DEFAULT_CODES =
+      ImmutableList.of("DEADLINE_EXCEEDED", "UNAVAILABLE");
+
+  private final RetryTransformer retryTransformer = new RetryTransformer();
+
+  @Test
+  public void testRetryCodes() {
+    MethodLatency latency =
+        createLatency(
+            20,
+            250,
+            ImmutableMap.of("ABORTED", 0.01, "RESOURCE_EXHAUSTED", 0.0001, "INTERNAL", 0.1));
+
+    assertThat(retryTransformer.generateRetryCodes(latency, DEFAULT_CODES, true))
+        .containsExactly("DEADLINE_EXCEEDED", "ABORTED", "UNAVAILABLE")
+        .inOrder();
+    assertThat(retryTransformer.generateRetryCodes(latency, ImmutableList.<String>of(), false))
+        .isEmpty();
+  }
+
+  @Test
+  public void testRetryParams() {
+    MethodLatency latency = createLatency(20, 1234, ImmutableMap.of("UNAVAILABLE", 0.01));
+    RetryParamView params =
+        retryTransformer.generateRetryParams("get_book", latency, DEFAULT_CODES);
+
+    assertThat(params.name()).isEqualTo("get_book");
+    assertThat(params.initialRetryDelayMillis()).isEqualTo("100");
+    assertThat(params.retryDelayMultiplier()).isEqualTo("1.3");
+    assertThat(params.maxRetryDelayMillis()).isEqualTo("60000");
+    assertThat(params.initialRpcTimeoutMillis()).isEqualTo("2500");
+    assertThat(params.rpcTimeoutMultiplier()).isEqualTo("1.5");
+    assertThat(params.maxRpcTimeoutMillis()).isEqualTo("6200");
+    assertThat(params.totalTimeoutMillis()).isEqualTo("60000");
+  }
+
+  @Test
+  public void testRetryParamsForFastFailingMethod() {
+    MethodLatency latency = createLatency(150, 100, ImmutableMap.of("UNAVAILABLE", 0.2));
+    RetryParamView params =
+        retryTransformer.generateRetryParams("get_book", latency, DEFAULT_CODES);
+
+    // Timeouts are never shorter than a second, and frequent failures back off faster.
+    assertThat(params.initialRpcTimeoutMillis()).isEqualTo("1000");
+    assertThat(params.rpcTimeoutMultiplier()).isEqualTo("1");
+    assertThat(params.maxRpcTimeoutMillis()).isEqualTo("1000");
+    assertThat(params.initialRetryDelayMillis()).isEqualTo("200");
+    assertThat(params.retryDelayMultiplier()).isEqualTo("2");
+  }
+
+  private static MethodLatency createLatency(
+      long p50Millis, long p99Millis, ImmutableMap<String, Double> errorRates) {
+    return MethodLatency.newBuilder()
+        .p50Millis(p50Millis)
+        .p99Millis(p99Millis)
+        .errorRates(errorRates)
+        .build();
+  }
+}
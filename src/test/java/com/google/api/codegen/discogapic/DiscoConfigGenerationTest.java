@@ -29,6 +29,9 @@ public class DiscoConfigGenerationTest extends DiscoConfigBaselineTestCase {
 
   private final TestDataLocator testDataLocator = MixedPathTestDataLocator.create(this.getClass());
 
+  private String previousDiscoveryFileName;
+  private String previousConfigFileName;
+
   @Override
   protected String baselineFileName() {
     return testName.getMethodName() + "_config.baseline";
@@ -52,6 +55,14 @@ public class DiscoConfigGenerationTest extends DiscoConfigBaselineTestCase {
     ToolOptions options = ToolOptions.create();
     options.set(DiscoConfigGeneratorApp.OUTPUT_FILE, outFile);
     options.set(DiscoConfigGeneratorApp.DISCOVERY_DOC, discoveryFile);
+    if (previousDiscoveryFileName != null) {
+      options.set(
+          DiscoConfigGeneratorApp.PREVIOUS_DISCOVERY_DOC,
+          getTestDataLocator().findTestData(previousDiscoveryFileName).getFile());
+      options.set(
+          DiscoConfigGeneratorApp.PREVIOUS_CONFIG,
+          getTestDataLocator().findTestData(previousConfigFileName).getFile());
+    }
     new DiscoConfigGeneratorApp(options).run();
 
     return new String(Files.readAllBytes(Paths.get(outFile)), StandardCharsets.UTF_8);
@@ -67,4 +78,23 @@ public class DiscoConfigGenerationTest extends DiscoConfigBaselineTestCase {
     discoveryFileName = "simplecompute.v1.json";
     test();
   }
+
+  @Test
+  public void simplecompute_incremental() throws Exception {
+    // The previous revision lacks the patch method, and its config has a hand-edited header.
+    discoveryFileName = "simplecompute.v1.json";
+    previousDiscoveryFileName = "simplecompute_previous.v1.json";
+    previousConfigFileName = "simplecompute_previous_config.yaml";
+    test();
+  }
+
+  @Test
+  public void simplecompute_collision() throws Exception {
+    // The new regions resource has a collection with the same entity name as a collection of
+    // addresses, whose methods are unchanged.
+    discoveryFileName = "simplecompute_collision.v1.json";
+    previousDiscoveryFileName = "simplecompute_previous.v1.json";
+    previousConfigFileName = "simplecompute_previous_config.yaml";
+    test();
+  }
 }
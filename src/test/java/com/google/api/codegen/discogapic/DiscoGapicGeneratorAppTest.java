@@ -0,0 +1,100 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.discogapic;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.codegen.ArtifactType;
+import com.google.api.tools.framework.tools.ToolOptions;
+import com.google.common.io.ByteStreams;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DiscoGapicGeneratorAppTest {
+  private static final String TESTDATA =
+      "src/test/java/com/google/api/codegen/discogapic/testdata/";
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testShardedOutputMatchesUnsharded() throws Exception {
+    File unsharded = tempFolder.newFolder("unsharded");
+    generate(unsharded.getPath(), 1);
+    Map<String, String> expected = readDirectory(unsharded.toPath());
+    assertThat(expected).isNotEmpty();
+
+    // The shards run in parallel over the shared product config and transformers.
+    File sharded = tempFolder.newFolder("sharded");
+    generate(sharded.getPath(), 3);
+    assertThat(readDirectory(sharded.toPath())).containsExactlyEntriesIn(expected);
+
+    File shardedJar = new File(tempFolder.getRoot(), "sharded.srcjar");
+    generate(shardedJar.getPath(), 3);
+    assertThat(readJar(shardedJar)).containsExactlyEntriesIn(expected);
+  }
+
+  private static void generate(String outputPath, int shardCount) throws Exception {
+    ToolOptions options = ToolOptions.create();
+    options.set(DiscoGapicGeneratorApp.DISCOVERY_DOC, TESTDATA + "simplecompute.v1.json");
+    options.set(
+        DiscoGapicGeneratorApp.GENERATOR_CONFIG_FILES,
+        Collections.singletonList(TESTDATA + "simplecompute_gapic.yaml"));
+    options.set(DiscoGapicGeneratorApp.PACKAGE_CONFIG2_FILE, TESTDATA + "simplecompute_pkg2.yaml");
+    options.set(DiscoGapicGeneratorApp.LANGUAGE, "java");
+    options.set(DiscoGapicGeneratorApp.OUTPUT_FILE, outputPath);
+    options.set(DiscoGapicGeneratorApp.SHARD_COUNT, shardCount);
+    new DiscoGapicGeneratorApp(options, ArtifactType.LEGACY_DISCOGAPIC_AND_PACKAGE).run();
+  }
+
+  private static Map<String, String> readDirectory(Path directory) throws IOException {
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(directory)) {
+      files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+    }
+    Map<String, String> contents = new TreeMap<>();
+    for (Path file : files) {
+      contents.put(
+          directory.relativize(file).toString().replace(File.separatorChar, '/'),
+          new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+    return contents;
+  }
+
+  private static Map<String, String> readJar(File jarFile) throws IOException {
+    Map<String, String> contents = new TreeMap<>();
+    try (JarInputStream jar = new JarInputStream(new FileInputStream(jarFile))) {
+      for (JarEntry entry = jar.getNextJarEntry(); entry != null; entry = jar.getNextJarEntry()) {
+        contents.put(
+            entry.getName(), new String(ByteStreams.toByteArray(jar), StandardCharsets.UTF_8));
+      }
+    }
+    return contents;
+  }
+}
@@ -52,6 +52,7 @@ public abstract class DiscoGapicTestBase extends ConfigBaselineTestCase {
   @Nullable private final String packageConfigFileName;
   protected ConfigProto config;
   private List<CodeGenerator<?>> discoGapicGenerators;
+  private int shardCount = 1;
   private final TestDataLocator testDataLocator = MixedPathTestDataLocator.create(this.getClass());
 
   public DiscoGapicTestBase(
@@ -92,7 +93,8 @@ public abstract class DiscoGapicTestBase extends ConfigBaselineTestCase {
                   .getPath(),
               language.toString().toLowerCase(),
               Collections.emptyList(),
-              ArtifactType.LEGACY_DISCOGAPIC_AND_PACKAGE);
+              ArtifactType.LEGACY_DISCOGAPIC_AND_PACKAGE,
+              shardCount);
     } catch (IOException e) {
       throw new IllegalArgumentException("Problem creating DiscoGapic generator.", e);
     }
@@ -147,6 +149,12 @@ public abstract class DiscoGapicTestBase extends ConfigBaselineTestCase {
     }
   }
 
+  /** Runs the test, generating the resources of the API in the given number of shards. */
+  protected void testSharded(int shardCount) throws Exception {
+    this.shardCount = shardCount;
+    test();
+  }
+
   private String displayValue(Object value) throws IOException {
     if (value instanceof Doc) {
       return ((Doc) value).prettyPrint(100);
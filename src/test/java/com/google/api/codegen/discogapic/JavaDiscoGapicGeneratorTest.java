@@ -79,4 +79,9 @@ public class JavaDiscoGapicGeneratorTest extends DiscoGapicTestBase {
   public void messages() throws Exception {
     test();
   }
+
+  @Test
+  public void shardedMessages() throws Exception {
+    testSharded(3);
+  }
 }
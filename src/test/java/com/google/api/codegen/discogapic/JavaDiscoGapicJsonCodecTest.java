@@ -0,0 +1,180 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.discogapic;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.api.codegen.ArtifactType;
+import com.google.api.codegen.common.CodeGenerator;
+import com.google.api.codegen.common.GeneratedResult;
+import com.google.api.tools.framework.snippet.Doc;
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Compiles the Java messages generated from a discovery doc and round-trips them as JSON. */
+public class JavaDiscoGapicJsonCodecTest {
+  private static final String TESTDATA =
+      "src/test/java/com/google/api/codegen/discogapic/testdata/";
+  private static final String PACKAGE = "com.google.cloud.simplecompute.v1";
+
+  // The generated messages only need this interface of GAX.
+  private static final String API_MESSAGE =
+      String.join(
+          "\n",
+          "package com.google.api.gax.httpjson;",
+          "public interface ApiMessage {",
+          "  Object getFieldValue(String fieldName);",
+          "  java.util.List<String> getFieldMask();",
+          "  ApiMessage getApiMessageRequestBody();",
+          "}");
+
+  @ClassRule public static final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static ClassLoader classLoader;
+
+  @BeforeClass
+  public static void compileMessages() throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    Assume.assumeNotNull(compiler);
+
+    // Add properties named like the parameters and fields of the codec to check that the generated
+    // code does not clash with them.
+    ObjectMapper mapper = new ObjectMapper();
+    ObjectNode discoveryDoc =
+        (ObjectNode) mapper.readTree(new File(TESTDATA + "simplecompute.v1.json"));
+    ObjectNode properties = (ObjectNode) discoveryDoc.at("/schemas/Address/properties");
+    for (String name : new String[] {"jsonReader", "jsonWriter", "gson", "nameAdapter"}) {
+      properties.putObject(name).put("type", "string");
+    }
+    File discoveryDocFile = tempFolder.newFile("simplecompute.v1.json");
+    mapper.writeValue(discoveryDocFile, discoveryDoc);
+
+    List<CodeGenerator<?>> generators =
+        DiscoGapicGeneratorApp.getGenerators(
+            discoveryDocFile.getPath(),
+            Collections.singletonList(TESTDATA + "simplecompute_gapic.yaml"),
+            TESTDATA + "simplecompute_pkg2.yaml",
+            "src/test/java/com/google/api/codegen/testsrc/common/frozen_dependencies.yaml",
+            "java",
+            Collections.emptyList(),
+            ArtifactType.LEGACY_DISCOGAPIC_AND_PACKAGE);
+
+    Path sourceDir = tempFolder.newFolder("src").toPath();
+    List<String> sourceFiles = new ArrayList<>();
+    sourceFiles.add(
+        writeSource(sourceDir, "com/google/api/gax/httpjson/ApiMessage.java", API_MESSAGE));
+    for (CodeGenerator<?> generator : generators) {
+      for (Map.Entry<String, ? extends GeneratedResult<?>> entry :
+          generator.generate().entrySet()) {
+        Object body = entry.getValue().getBody();
+        if (!(body instanceof Doc)) {
+          continue;
+        }
+        String source = ((Doc) body).prettyPrint(100);
+        if (source.contains("class JsonCodec ")) {
+          sourceFiles.add(writeSource(sourceDir, entry.getKey(), source));
+        }
+      }
+    }
+    assertThat(sourceFiles.size()).isGreaterThan(1);
+
+    File classesDir = tempFolder.newFolder("classes");
+    List<String> args = new ArrayList<>();
+    args.add("-nowarn");
+    args.add("-classpath");
+    args.add(System.getProperty("java.class.path"));
+    args.add("-d");
+    args.add(classesDir.getPath());
+    args.addAll(sourceFiles);
+    assertThat(compiler.run(null, null, null, args.toArray(new String[0]))).isEqualTo(0);
+
+    classLoader =
+        new URLClassLoader(
+            new URL[] {classesDir.toURI().toURL()},
+            JavaDiscoGapicJsonCodecTest.class.getClassLoader());
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    assertRoundTrip(
+        "Address",
+        "{\"address\":\"10.0.0.1\",\"name\":\"address-1\",\"selfLink\":\"https://compute/a1\","
+            + "\"jsonReader\":\"reader\",\"jsonWriter\":\"writer\",\"gson\":\"gson\","
+            + "\"nameAdapter\":\"adapter\"}");
+  }
+
+  @Test
+  public void testRoundTripParameterizedTypes() throws Exception {
+    assertRoundTrip(
+        "AddressList",
+        "{\"items\":[{\"name\":\"a1\"},{\"name\":\"a2\",\"region\":\"us\"}],"
+            + "\"kind\":\"compute#addressList\",\"nextPageToken\":\"token\"}");
+    assertRoundTrip(
+        "AddressAggregatedList",
+        "{\"items\":{\"regions/us\":{\"addresses\":[{\"name\":\"a1\"}]}},"
+            + "\"kind\":\"compute#addressAggregatedList\"}");
+  }
+
+  @Test
+  public void testReadSkipsUnknownFields() throws Exception {
+    Class<?> addressClass = loadMessageClass("Address");
+    Object address =
+        new Gson()
+            .fromJson(
+                "{\"unknown\":{\"nested\":[1,2]},\"name\":\"a1\",\"status\":null}", addressClass);
+
+    assertThat(addressClass.getMethod("getName").invoke(address)).isEqualTo("a1");
+    assertThat(new Gson().toJson(address)).isEqualTo("{\"name\":\"a1\"}");
+  }
+
+  private static void assertRoundTrip(String messageName, String json) throws Exception {
+    Gson gson = new Gson();
+    Object message = gson.fromJson(json, loadMessageClass(messageName));
+    assertThat(new JsonParser().parse(gson.toJson(message)))
+        .isEqualTo(new JsonParser().parse(json));
+  }
+
+  private static Class<?> loadMessageClass(String messageName) throws ClassNotFoundException {
+    return Class.forName(PACKAGE + "." + messageName, true, classLoader);
+  }
+
+  private static String writeSource(Path sourceDir, String fileName, String source)
+      throws IOException {
+    Path file = sourceDir.resolve(fileName);
+    Files.createDirectories(file.getParent());
+    Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    return file.toString();
+  }
+}
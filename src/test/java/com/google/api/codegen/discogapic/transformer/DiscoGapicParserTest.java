@@ -16,7 +16,9 @@ package com.google.api.codegen.discogapic.transformer;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.api.codegen.util.CommonAcronyms;
 import com.google.api.pathtemplate.PathTemplate;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.Test;
@@ -77,4 +79,30 @@ public class DiscoGapicParserTest {
                 .toUpperCamel())
         .isEqualTo("ProjectGlobalImageResource");
   }
+
+  @Test
+  public void testStringToName() {
+    assertThat(DiscoGapicParser.stringToName("backendBucket").toUpperCamel())
+        .isEqualTo("BackendBucket");
+    assertThat(DiscoGapicParser.stringToName("ip_address_v4").toLowerCamel())
+        .isEqualTo("ipAddressV4");
+    assertThat(DiscoGapicParser.stringToName("backendBucket"))
+        .isSameAs(DiscoGapicParser.stringToName("backendBucket"));
+  }
+
+  @Test
+  public void testStringToNameAfterNewAcronym() {
+    assertThat(DiscoGapicParser.stringToName("getDISCOName").toLowerCamel())
+        .isEqualTo("getDISCOName");
+    try {
+      CommonAcronyms.registerAcronyms(Collections.singletonList("DISCO"));
+      assertThat(DiscoGapicParser.stringToName("getDISCOName").toLowerCamel())
+          .isEqualTo("getDiscoName");
+    } finally {
+      CommonAcronyms.resetAcronyms();
+    }
+    // The cached names are not reused once the acronym is no longer recognized.
+    assertThat(DiscoGapicParser.stringToName("getDISCOName").toLowerCamel())
+        .isEqualTo("getDISCOName");
+  }
 }
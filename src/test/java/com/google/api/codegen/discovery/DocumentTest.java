@@ -0,0 +1,97 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.discovery;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class DocumentTest {
+  private static final String SIMPLECOMPUTE =
+      "src/test/java/com/google/api/codegen/discogapic/testdata/simplecompute.v1.json";
+
+  @Test
+  public void testStreamingParseMatchesTree() throws IOException {
+    Document fromTree;
+    try (Reader reader = new InputStreamReader(new FileInputStream(new File(SIMPLECOMPUTE)))) {
+      fromTree = Document.from(new DiscoveryNode(new ObjectMapper().readTree(reader)));
+    }
+    Document streamed;
+    try (Reader reader = new InputStreamReader(new FileInputStream(new File(SIMPLECOMPUTE)))) {
+      streamed = Document.from(reader);
+    }
+
+    assertThat(streamed.name()).isEqualTo(fromTree.name());
+    assertThat(streamed.version()).isEqualTo(fromTree.version());
+    assertThat(streamed.baseUrl()).isEqualTo(fromTree.baseUrl());
+    assertThat(streamed.authType()).isEqualTo(fromTree.authType());
+    assertThat(streamed.authScopes()).isEqualTo(fromTree.authScopes());
+    assertThat(streamed.schemas()).isEqualTo(fromTree.schemas());
+    assertThat(streamed.resources().keySet())
+        .containsExactlyElementsIn(fromTree.resources().keySet())
+        .inOrder();
+    assertThat(methodIds(streamed.methods())).isEqualTo(methodIds(fromTree.methods()));
+    for (Map.Entry<String, List<Method>> resource : fromTree.resources().entrySet()) {
+      assertThat(methodIds(streamed.resources().get(resource.getKey())))
+          .isEqualTo(methodIds(resource.getValue()));
+    }
+  }
+
+  @Test
+  public void testStreamingParseResolvesReferences() throws IOException {
+    String json =
+        "{\"resources\": {\"shelves\": {"
+            + "  \"resources\": {\"books\": {\"methods\": {\"get\": {\"id\": \"library.books.get\"}}}},"
+            + "  \"methods\": {\"get\": {\"id\": \"library.shelves.get\","
+            + "    \"request\": {\"$ref\": \"Shelf\"}}}}},"
+            + " \"name\": \"library\","
+            + " \"schemas\": {\"Shelf\": {\"id\": \"Shelf\", \"type\": \"object\","
+            + "   \"properties\": {\"name\": {\"type\": \"string\"}}}}}";
+    Document document = Document.from(new StringReader(json));
+
+    assertThat(document.name()).isEqualTo("library");
+    // The methods of a resource precede those of its nested resources, as in the JSON tree.
+    assertThat(methodIds(document.resources().get("shelves")))
+        .containsExactly("library.shelves.get", "library.books.get")
+        .inOrder();
+    Method getShelf = document.resources().get("shelves").get(0);
+    assertThat(getShelf.request().dereference()).isSameAs(document.schemas().get("Shelf"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testStreamingParseRejectsNonObjectSchema() throws IOException {
+    Document.from(new StringReader("{\"schemas\": {\"Shelf\": \"bar\"}}"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testStreamingParseRejectsNonObjectMethod() throws IOException {
+    Document.from(
+        new StringReader("{\"resources\": {\"shelves\": {\"methods\": {\"get\": \"bar\"}}}}"));
+  }
+
+  private static List<String> methodIds(List<Method> methods) {
+    return methods.stream().map(Method::id).collect(Collectors.toList());
+  }
+}
@@ -50,5 +50,30 @@ public class SchemaTest {
     assertThat(appleToDogPath.get(3)).isEqualTo(cat);
     assertThat(appleToDogPath.get(4).getIdentifier()).isEqualTo("items");
     assertThat(appleToDogPath.get(5)).isEqualTo(dog);
+
+    assertThat(apple.findChild("Dog")).isEqualTo(appleToDogPath);
+    assertThat(apple.findChild("Apple")).containsExactly(apple);
+    assertThat(apple.findChild("Elephant")).isEmpty();
+    assertThat(cat.findChild("Banana")).containsExactly(cat, banana).inOrder();
+  }
+
+  @Test
+  public void testDereference() throws IOException {
+    String file = "src/test/java/com/google/api/codegen/discovery/testdata/graph.json";
+    Reader reader = new InputStreamReader(new FileInputStream(new File(file)));
+    Document document = Document.from(new DiscoveryNode(new ObjectMapper().readTree(reader)));
+
+    Schema banana = document.schemas().get("Banana");
+    Schema cat = document.schemas().get("Cat");
+    Schema bananaToCat = banana.properties().get("Cat");
+    Schema catToBanana = cat.properties().get("Banana");
+
+    assertThat(bananaToCat.dereference()).isSameAs(cat);
+    assertThat(catToBanana.dereference()).isSameAs(banana);
+    assertThat(cat.properties().get("items").additionalProperties().dereference())
+        .isSameAs(document.schemas().get("Dog"));
+    assertThat(banana.dereference()).isSameAs(banana);
+
+    assertThat(bananaToCat).isNotEqualTo(cat);
   }
 }
@@ -415,6 +415,26 @@ public class SampleInitCodeTest {
     assertThat(listNodeKeys(rootNode)).containsExactly("subfield", "0", "mylist", "root").inOrder();
   }
 
+  @Test
+  public void testCachedTree() {
+    List<String> fieldSpecs = Arrays.asList("mylist[0].subfield", "myfield.subfield=\"value\"");
+    InitCodeTreeCache cache = new InitCodeTreeCache();
+
+    SymbolTable table = new SymbolTable();
+    table.getNewSymbol(Name.from("subfield"));
+    InitCodeContext context =
+        getContextBuilder().initFieldConfigStrings(fieldSpecs).symbolTable(table).build();
+    InitCodeNode firstTree = cache.createTree(context);
+
+    // The symbols of each tree are assigned from its own context.
+    InitCodeNode tree = cache.createTree(context.cloneWithEmptySymbolTable());
+    assertNodeEqual(tree, InitCodeNode.createTree(context.cloneWithEmptySymbolTable()));
+    assertThat(tree).isNotSameAs(firstTree);
+    assertThat(firstTree.subTree("mylist[0].subfield").getIdentifier())
+        .isEqualTo(Name.from("subfield", "2"));
+    assertThat(tree.subTree("mylist[0].subfield").getIdentifier()).isEqualTo(Name.from("subfield"));
+  }
+
   private static void assertNodeEqual(InitCodeNode a, InitCodeNode b) {
     assertThat(a.getKey()).isEqualTo(b.getKey());
     assertThat(a.getLineType()).isEqualTo(b.getLineType());
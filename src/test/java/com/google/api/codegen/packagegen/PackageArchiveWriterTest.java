@@ -0,0 +1,124 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.packagegen;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.codegen.common.GeneratedResult;
+import com.google.api.tools.framework.snippet.Doc;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PackageArchiveWriterTest {
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  // Longer than the 100 characters of a plain tar entry name.
+  private static final String LONG_NAME =
+      "google/cloud/" + Strings.repeat("long_package_name/", 6) + "library_pb2_grpc.py";
+
+  @Test
+  public void writeZip() throws Exception {
+    Path archive = tempDir.getRoot().toPath().resolve("library.zip");
+    PackageArchiveWriter.write(archive, generatedResults(), copiedFiles());
+
+    Map<String, String> entries = new LinkedHashMap<>();
+    try (ZipInputStream in = new ZipInputStream(Files.newInputStream(archive))) {
+      for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+        entries.put(
+            entry.getName(), new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8));
+      }
+    }
+    assertThat(entries).containsExactlyEntriesIn(expectedEntries()).inOrder();
+  }
+
+  @Test
+  public void writeTarGz() throws Exception {
+    Path archive = tempDir.getRoot().toPath().resolve("library.tar.gz");
+    PackageArchiveWriter.write(archive, generatedResults(), copiedFiles());
+
+    Map<String, String> entries = new LinkedHashMap<>();
+    try (DataInputStream in =
+        new DataInputStream(new GZIPInputStream(Files.newInputStream(archive)))) {
+      byte[] header = new byte[512];
+      while (true) {
+        in.readFully(header);
+        String name = readString(header, 0, 100);
+        if (name.isEmpty()) {
+          break;
+        }
+        String prefix = readString(header, 345, 155);
+        int size = Integer.parseInt(readString(header, 124, 12), 8);
+        byte[] content = new byte[(size + 511) / 512 * 512];
+        in.readFully(content);
+        entries.put(
+            prefix.isEmpty() ? name : prefix + "/" + name,
+            new String(content, 0, size, StandardCharsets.UTF_8));
+      }
+    }
+    assertThat(entries).containsExactlyEntriesIn(expectedEntries()).inOrder();
+  }
+
+  private static Map<String, GeneratedResult<Doc>> generatedResults() {
+    return ImmutableMap.of(
+        "setup.py",
+        GeneratedResult.create(Doc.text("setup()\n"), false),
+        "google/__init__.py",
+        GeneratedResult.create(Doc.text("generated\n"), false));
+  }
+
+  private Map<String, Path> copiedFiles() throws Exception {
+    Path input = tempDir.newFolder("input").toPath();
+    return ImmutableMap.of(
+        "google/__init__.py",
+        write(input.resolve("__init__.py"), "copied\n"),
+        LONG_NAME,
+        write(input.resolve("library_pb2_grpc.py"), Strings.repeat("x", 600)));
+  }
+
+  private static Map<String, String> expectedEntries() {
+    return ImmutableMap.of(
+        "google/__init__.py",
+        "generated\n",
+        LONG_NAME,
+        Strings.repeat("x", 600),
+        "setup.py",
+        "setup()\n");
+  }
+
+  private static Path write(Path path, String content) throws Exception {
+    return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String readString(byte[] header, int offset, int length) {
+    int end = offset;
+    while (end < offset + length && header[end] != 0) {
+      ++end;
+    }
+    return new String(header, offset, end - offset, StandardCharsets.US_ASCII).trim();
+  }
+}
@@ -0,0 +1,72 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.packagegen.py;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.codegen.packagegen.py.ParallelFileCopier.CopyResult;
+import com.google.common.collect.ImmutableMap;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParallelFileCopierTest {
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  @Test
+  public void copyAll() throws Exception {
+    Path input = tempDir.newFolder("input").toPath();
+    Path output = tempDir.newFolder("output").toPath();
+    Path first = write(input.resolve("first_pb2.py"), "first");
+    Path second = write(input.resolve("second_pb2.py"), "second");
+    ImmutableMap<Path, Path> files =
+        ImmutableMap.of(
+            first, output.resolve("first_pb2.py"), second, output.resolve("second_pb2.py"));
+
+    ParallelFileCopier copier = new ParallelFileCopier(false);
+    assertThat(copier.copyAll(files)).containsExactly(CopyResult.COPIED, CopyResult.COPIED);
+    assertThat(read(output.resolve("first_pb2.py"))).isEqualTo("first");
+    assertThat(read(output.resolve("second_pb2.py"))).isEqualTo("second");
+
+    // Files of the same size but with a different content are copied again
+    write(second, "SECOND");
+    assertThat(copier.copyAll(files)).containsExactly(CopyResult.UNCHANGED, CopyResult.COPIED);
+    assertThat(read(output.resolve("second_pb2.py"))).isEqualTo("SECOND");
+  }
+
+  @Test
+  public void copyWithLinks() throws Exception {
+    Path input = tempDir.newFolder("input").toPath();
+    Path output = tempDir.newFolder("output").toPath();
+    Path source = write(input.resolve("library_pb2.py"), "library");
+    Path destination = write(output.resolve("library_pb2.py"), "old library");
+
+    ParallelFileCopier copier = new ParallelFileCopier(true);
+    assertThat(copier.copy(source, destination)).isEqualTo(CopyResult.LINKED);
+    assertThat(Files.isSameFile(source, destination)).isTrue();
+    assertThat(copier.copy(source, destination)).isEqualTo(CopyResult.UNCHANGED);
+  }
+
+  private static Path write(Path path, String content) throws Exception {
+    return Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(Path path) throws Exception {
+    return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+  }
+}
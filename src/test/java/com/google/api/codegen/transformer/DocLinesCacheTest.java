@@ -0,0 +1,108 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.transformer;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.codegen.config.MethodConfig;
+import com.google.api.codegen.config.ProtoField;
+import com.google.api.codegen.config.ProtoMethodModel;
+import com.google.api.codegen.config.VisibilityConfig;
+import com.google.api.codegen.transformer.DocLinesCache.DocKey;
+import com.google.api.codegen.transformer.DocLinesCache.DocStyle;
+import com.google.api.codegen.transformer.go.GoSurfaceNamer;
+import com.google.api.codegen.transformer.java.JavaSurfaceNamer;
+import com.google.api.tools.framework.model.Field;
+import com.google.api.tools.framework.model.Method;
+import java.util.List;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class DocLinesCacheTest {
+  private final DocLinesCache cache = new DocLinesCache();
+  private final SurfaceNamer goNamer = new GoSurfaceNamer("cloud.google.com/go/library/apiv1");
+  private final SurfaceNamer javaNamer =
+      new JavaSurfaceNamer("com.google.example.library.v1", "com.google.example.library.v1");
+
+  @Test
+  public void testCacheHit() {
+    ProtoField field = createField("The name of the book.");
+
+    List<String> docLines = cache.getDocLines(javaNamer, field);
+    assertThat(docLines).containsExactly("The name of the book.");
+    assertThat(cache.getDocLines(javaNamer, field)).isSameAs(docLines);
+    // The field documentation is read only once.
+    Mockito.verify(field, Mockito.times(1)).getScopedDocumentation();
+  }
+
+  @Test
+  public void testSeparatedByNamer() {
+    ProtoMethodModel method = createMethod("GetBook", "Gets a book.");
+    MethodConfig methodConfig = createMethodConfig(VisibilityConfig.PUBLIC);
+
+    List<String> goDocLines = cache.getDocLines(goNamer, method, methodConfig);
+    List<String> javaDocLines = cache.getDocLines(javaNamer, method, methodConfig);
+    assertThat(goDocLines).containsExactly("GetBook gets a book.");
+    assertThat(javaDocLines).containsExactly("Gets a book.");
+    assertThat(cache.getDocLines(goNamer, method, methodConfig)).isSameAs(goDocLines);
+    assertThat(cache.getDocLines(javaNamer, method, methodConfig)).isSameAs(javaDocLines);
+  }
+
+  @Test
+  public void testSeparatedByMethodVisibility() {
+    ProtoMethodModel method = createMethod("GetBook", "Gets a book.");
+
+    List<String> publicDocLines =
+        cache.getDocLines(goNamer, method, createMethodConfig(VisibilityConfig.PUBLIC));
+    List<String> packageDocLines =
+        cache.getDocLines(goNamer, method, createMethodConfig(VisibilityConfig.PACKAGE));
+    assertThat(publicDocLines).containsExactly("GetBook gets a book.");
+    assertThat(packageDocLines).containsExactly("getBook gets a book.");
+    assertThat(cache.getDocLines(goNamer, method, createMethodConfig(VisibilityConfig.PUBLIC)))
+        .isSameAs(publicDocLines);
+  }
+
+  @Test
+  public void testSeparatedByStyle() {
+    Method element = Mockito.mock(Method.class);
+    assertThat(DocKey.create(element, GoSurfaceNamer.class, DocStyle.ELEMENT, null))
+        .isNotEqualTo(
+            DocKey.create(element, GoSurfaceNamer.class, DocStyle.METHOD, VisibilityConfig.PUBLIC));
+    assertThat(DocKey.create(element, GoSurfaceNamer.class, DocStyle.ELEMENT, null))
+        .isEqualTo(DocKey.create(element, GoSurfaceNamer.class, DocStyle.ELEMENT, null));
+  }
+
+  private static ProtoField createField(String documentation) {
+    ProtoField field = Mockito.mock(ProtoField.class);
+    Mockito.when(field.getProtoField()).thenReturn(Mockito.mock(Field.class));
+    Mockito.when(field.getScopedDocumentation()).thenReturn(documentation);
+    return field;
+  }
+
+  private static ProtoMethodModel createMethod(String name, String description) {
+    ProtoMethodModel method = Mockito.mock(ProtoMethodModel.class);
+    Mockito.when(method.getProtoMethod()).thenReturn(Mockito.mock(Method.class));
+    Mockito.when(method.getSimpleName()).thenReturn(name);
+    Mockito.when(method.getDescription()).thenReturn(description);
+    Mockito.when(method.getScopedDescription()).thenReturn(description);
+    return method;
+  }
+
+  private static MethodConfig createMethodConfig(VisibilityConfig visibility) {
+    MethodConfig methodConfig = Mockito.mock(MethodConfig.class);
+    Mockito.when(methodConfig.getVisibility()).thenReturn(visibility);
+    return methodConfig;
+  }
+}
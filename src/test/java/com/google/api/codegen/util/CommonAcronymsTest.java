@@ -0,0 +1,146 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.codegen.util.CommonAcronyms.NamePieceCasingType;
+import com.google.common.collect.ImmutableSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CommonAcronymsTest {
+
+  @Test
+  public void testNoAcronym() {
+    assertThat(CommonAcronyms.containsUpperAcronym("getShelfName")).isFalse();
+    assertThat(CommonAcronyms.camelizeUpperAcronyms("getShelfName")).isEqualTo("getShelfName");
+    assertThat(pieces("getShelfName")).containsExactly("getShelfName").inOrder();
+  }
+
+  @Test
+  public void testAcronyms() {
+    assertThat(CommonAcronyms.containsUpperAcronym("getIAMPolicy")).isTrue();
+    assertThat(pieces("getIAMPolicy")).containsExactly("get", "IAM!", "Policy").inOrder();
+    assertThat(pieces("XMLToSQLAPI")).containsExactly("XML!", "To", "SQL!", "API!").inOrder();
+    assertThat(pieces("HTTPHTTP")).containsExactly("HTTP!", "HTTP!").inOrder();
+    assertThat(CommonAcronyms.camelizeUpperAcronyms("XMLHttpRequest")).isEqualTo("XmlHttpRequest");
+  }
+
+  @Test
+  public void testAmbiguousAcronyms() {
+    try {
+      CommonAcronyms.splitByUpperAcronyms("APIAMName");
+      Assert.fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected.getMessage()).contains("ambiguous");
+    }
+  }
+
+  @Test
+  public void testInvalidAcronym() {
+    try {
+      CommonAcronyms.registerAcronyms(Collections.singletonList("Https"));
+      Assert.fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected.getMessage()).contains("Https");
+    }
+  }
+
+  @Test
+  public void testRunAcronyms() {
+    ImmutableSet<String> defaultAcronyms = CommonAcronyms.getAcronyms();
+    CommonAcronyms.setRunAcronyms(Arrays.asList("HTTPS", "ABA"));
+    try {
+      assertThat(pieces("getHTTPSUrl")).containsExactly("get", "HTTPS!", "Url").inOrder();
+      // Overlapping occurrences of the same acronym are not both matched.
+      assertThat(pieces("ABABA")).containsExactly("ABA!", "BA").inOrder();
+    } finally {
+      CommonAcronyms.clearRunAcronyms();
+    }
+    assertThat(CommonAcronyms.getAcronyms()).isSameAs(defaultAcronyms);
+    assertThat(pieces("getHTTPSUrl")).containsExactly("get", "HTTP!", "SUrl").inOrder();
+  }
+
+  @Test
+  public void testRunAcronymsAreNotSharedBetweenRuns() throws Exception {
+    CommonAcronyms.setRunAcronyms(Collections.singletonList("HTTPS"));
+    try {
+      // A thread created by the run sees its acronyms.
+      assertThat(onNewThread(() -> pieces("getHTTPSUrl")))
+          .containsExactly("get", "HTTPS!", "Url")
+          .inOrder();
+    } finally {
+      CommonAcronyms.clearRunAcronyms();
+    }
+    Callable<List<String>> otherRun =
+        () -> {
+          CommonAcronyms.setRunAcronyms(Collections.singletonList("GRPC"));
+          try {
+            return pieces("getHTTPSUrlForGRPC");
+          } finally {
+            CommonAcronyms.clearRunAcronyms();
+          }
+        };
+    CommonAcronyms.setRunAcronyms(Collections.singletonList("HTTPS"));
+    try {
+      assertThat(onNewThread(otherRun))
+          .containsExactly("get", "HTTP!", "SUrlFor", "GRPC!")
+          .inOrder();
+      assertThat(pieces("getHTTPSUrlForGRPC"))
+          .containsExactly("get", "HTTPS!", "UrlForGRPC")
+          .inOrder();
+    } finally {
+      CommonAcronyms.clearRunAcronyms();
+    }
+  }
+
+  @Test
+  public void testResetAcronyms() {
+    try {
+      CommonAcronyms.registerAcronyms(Collections.singletonList("GRPC"));
+      assertThat(CommonAcronyms.containsUpperAcronym("GRPCService")).isTrue();
+    } finally {
+      CommonAcronyms.resetAcronyms();
+    }
+    assertThat(CommonAcronyms.containsUpperAcronym("GRPCService")).isFalse();
+    assertThat(CommonAcronyms.getAcronyms()).containsExactly("IAM", "HTTP", "XML", "API", "SQL");
+  }
+
+  private static <T> T onNewThread(Callable<T> callable) throws Exception {
+    FutureTask<T> task = new FutureTask<>(callable);
+    Thread thread = new Thread(task);
+    thread.start();
+    return task.get();
+  }
+
+  /** Returns the pieces of the given string, marking upper-case acronyms with a trailing '!'. */
+  private static List<String> pieces(String str) {
+    return CommonAcronyms.splitByUpperAcronyms(str)
+        .stream()
+        .map(
+            piece ->
+                piece.type() == NamePieceCasingType.UPPER_ACRONYM
+                    ? piece.namePieceString() + "!"
+                    : piece.namePieceString())
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,53 @@
+/* Copyright 2020 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.api.codegen.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.codegen.util.java.JavaNameFormatter;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+public class KeywordTableTest {
+
+  @Test
+  public void testContainsAllKeywords() {
+    KeywordTable table = KeywordTable.of(JavaNameFormatter.RESERVED_IDENTIFIER_SET);
+    for (String keyword : JavaNameFormatter.RESERVED_IDENTIFIER_SET) {
+      assertThat(table.contains(keyword)).isTrue();
+    }
+    assertThat(table.contains("Class")).isFalse();
+    assertThat(table.contains("classes")).isFalse();
+    assertThat(table.contains("")).isFalse();
+    assertThat(table.contains("a")).isFalse();
+    assertThat(table.contains("aVeryLongIdentifierName")).isFalse();
+  }
+
+  @Test
+  public void testIgnoringCase() {
+    KeywordTable table = KeywordTable.ofIgnoringCase(ImmutableSet.of("list", "__CLASS__"));
+    assertThat(table.contains("List")).isTrue();
+    assertThat(table.contains("LIST")).isTrue();
+    assertThat(table.contains("__class__")).isTrue();
+    assertThat(table.contains("lists")).isFalse();
+  }
+
+  @Test
+  public void testEmpty() {
+    KeywordTable table = KeywordTable.of(ImmutableSet.<String>of());
+    assertThat(table.contains("")).isFalse();
+    assertThat(table.contains("class")).isFalse();
+  }
+}